@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+
+/**
+ * Ontologies used by the benchmarks. A name is either a resource from src/test/resources or
+ * {@code synthetic-N}, a generated ontology with N classes and N individuals.
+ */
+public final class BenchmarkOntologies {
+
+    private static final String SYNTHETIC = "synthetic-";
+    private static final String NS = "urn:jfact:benchmark#";
+
+    private BenchmarkOntologies() {}
+
+    /**
+     * @param name resource name or synthetic-N
+     * @return freshly loaded ontology, in a new manager
+     */
+    public static OWLOntology load(String name) {
+        OWLOntologyManager m = OWLManager.createOWLOntologyManager();
+        try {
+            if (name.startsWith(SYNTHETIC)) {
+                return synthetic(m, Integer.parseInt(name.substring(SYNTHETIC.length())));
+            }
+            try (InputStream in = BenchmarkOntologies.class.getResourceAsStream("/" + name)) {
+                if (in == null) {
+                    throw new OWLRuntimeException("No benchmark ontology named " + name);
+                }
+                return m.loadOntologyFromOntologyDocument(in);
+            }
+        } catch (OWLOntologyCreationException | IOException e) {
+            throw new OWLRuntimeException(e);
+        }
+    }
+
+    /**
+     * Scalable ontology: a binary class tree with existential links along the tree, defined
+     * classes over those links, one disjunction per class to force branching, and one asserted
+     * individual per class linked in a chain.
+     * 
+     * @param m manager
+     * @param n number of classes
+     * @return generated ontology
+     * @throws OWLOntologyCreationException if the ontology cannot be created
+     */
+    public static OWLOntology synthetic(OWLOntologyManager m, int n)
+        throws OWLOntologyCreationException {
+        OWLDataFactory df = m.getOWLDataFactory();
+        OWLObjectProperty r = df.getOWLObjectProperty(NS + "r");
+        OWLObjectProperty s = df.getOWLObjectProperty(NS + "s");
+        List<OWLAxiom> axioms = new ArrayList<>();
+        axioms.add(df.getOWLTransitiveObjectPropertyAxiom(s));
+        axioms.add(df.getOWLSubObjectPropertyOfAxiom(r, s));
+        OWLClass[] c = new OWLClass[n];
+        OWLNamedIndividual[] a = new OWLNamedIndividual[n];
+        for (int i = 0; i < n; i++) {
+            c[i] = df.getOWLClass(NS + "C" + i);
+            a[i] = df.getOWLNamedIndividual(NS + "a" + i);
+        }
+        for (int i = 0; i < n; i++) {
+            if (i > 0) {
+                axioms.add(df.getOWLSubClassOfAxiom(c[i], c[(i - 1) / 2]));
+                axioms.add(df.getOWLObjectPropertyAssertionAxiom(r, a[i], a[i - 1]));
+            }
+            int child = 2 * i + 1;
+            if (child < n) {
+                axioms.add(
+                    df.getOWLSubClassOfAxiom(c[i], df.getOWLObjectSomeValuesFrom(r, c[child])));
+            }
+            axioms.add(df.getOWLEquivalentClassesAxiom(df.getOWLClass(NS + "D" + i),
+                df.getOWLObjectSomeValuesFrom(s, c[i])));
+            axioms.add(df.getOWLSubClassOfAxiom(c[i],
+                df.getOWLObjectUnionOf(df.getOWLClass(NS + "A" + i % 16),
+                    df.getOWLClass(NS + "B" + i % 16))));
+            axioms.add(df.getOWLClassAssertionAxiom(c[i], a[i]));
+        }
+        OWLOntology o = m.createOntology();
+        o.add(axioms);
+        return o;
+    }
+}
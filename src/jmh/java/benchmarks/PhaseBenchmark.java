@@ -0,0 +1,151 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.datatypes.DatatypeFactory;
+import uk.ac.manchester.cs.jfact.kernel.Ontology;
+import uk.ac.manchester.cs.jfact.kernel.OntologyLoader;
+import uk.ac.manchester.cs.jfact.kernel.TBox;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * One benchmark per reasoning phase. Each measurement runs a single phase on a TBox that the
+ * iteration setup has brought up to the end of the previous phase, so the reported time covers
+ * that phase only. Run with {@code mvn -Pbenchmark test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PhaseBenchmark {
+
+    /** Ontology translated to JFact axioms once per trial; the TBox is rebuilt per iteration. */
+    @State(Scope.Benchmark)
+    public static class Input {
+
+        @Param({"AF_miniTambis.owl.xml", "AF_OWLS.owl.xml", "wine.fss", "synthetic-500",
+            "synthetic-5000"})
+        public String ontology;
+        JFactReasoner reasoner;
+        Ontology axioms;
+        TBox tbox;
+
+        @Setup(Level.Trial)
+        public void translate() {
+            OWLOntology o = BenchmarkOntologies.load(ontology);
+            reasoner = new JFactReasoner(o, new JFactReasonerConfiguration(),
+                BufferingMode.BUFFERING);
+            axioms = reasoner.getOntology();
+        }
+
+        @TearDown(Level.Trial)
+        public void dispose() {
+            reasoner.dispose();
+        }
+
+        /** @return a fresh TBox loaded with the ontology axioms */
+        TBox load() {
+            axioms.getExpressionManager().clearNameCache();
+            axioms.getSignature().forEach(p -> p.setEntry(null));
+            tbox = new TBox(DatatypeFactory.getInstance(), reasoner.getConfiguration(),
+                new AtomicBoolean(false), reasoner.getRootOntology().getOWLOntologyManager()
+                    .getOWLDataFactory());
+            new OntologyLoader(tbox).visitOntology(axioms);
+            return tbox;
+        }
+    }
+
+    /** Loaded TBox, ready for preprocessing. */
+    @State(Scope.Benchmark)
+    public static class Loaded extends Input {
+
+        @Setup(Level.Iteration)
+        public void prepare() {
+            load();
+        }
+    }
+
+    /** Preprocessed TBox, ready for the consistency check. */
+    @State(Scope.Benchmark)
+    public static class Preprocessed extends Input {
+
+        @Setup(Level.Iteration)
+        public void prepare() {
+            load().prepareReasoning();
+        }
+    }
+
+    /** Consistent TBox, ready for classification. */
+    @State(Scope.Benchmark)
+    public static class Checked extends Input {
+
+        @Setup(Level.Iteration)
+        public void prepare() {
+            load().isConsistent();
+        }
+    }
+
+    /** Classified TBox, ready for realisation. */
+    @State(Scope.Benchmark)
+    public static class Classified extends Input {
+
+        @Setup(Level.Iteration)
+        public void prepare() {
+            if (load().isConsistent()) {
+                tbox.performClassification();
+            }
+        }
+    }
+
+    @Benchmark
+    public TBox load(Input in) {
+        return in.load();
+    }
+
+    /**
+     * Preprocessing, DAG build included; the DAG share is reported separately by
+     * {@link TBox#getDAGBuildTime()}.
+     */
+    @Benchmark
+    public long preprocess(Loaded in) {
+        in.tbox.preprocess();
+        return in.tbox.getDAGBuildTime();
+    }
+
+    @Benchmark
+    public boolean consistency(Preprocessed in) {
+        return in.tbox.performConsistencyCheck();
+    }
+
+    @Benchmark
+    public void classification(Checked in, Blackhole bh) {
+        in.tbox.createTaxonomy(false);
+        bh.consume(in.tbox.getTaxonomy());
+    }
+
+    @Benchmark
+    public void realisation(Classified in, Blackhole bh) {
+        in.tbox.performRealisation();
+        bh.consume(in.tbox.getTaxonomy());
+    }
+}
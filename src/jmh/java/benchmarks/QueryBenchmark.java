@@ -0,0 +1,103 @@
+package benchmarks;
+
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+
+import uk.ac.manchester.cs.jfact.JFactFactory;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Query micro-benchmarks on a classified and realised reasoner. Queries cycle through the
+ * signature so that successive invocations do not repeat the same pair.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBenchmark {
+
+    @Param({"AF_miniTambis.owl.xml", "AF_OWLS.owl.xml", "wine.fss", "synthetic-500"})
+    public String ontology;
+    /** whether queries use complex class expressions rather than names */
+    @Param({"false", "true"})
+    public boolean complex;
+    private JFactReasoner reasoner;
+    private OWLDataFactory df;
+    private List<OWLClass> classes;
+    private List<OWLNamedIndividual> individuals;
+    private List<OWLObjectProperty> properties;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void classify() {
+        OWLOntology o = BenchmarkOntologies.load(ontology);
+        df = o.getOWLOntologyManager().getOWLDataFactory();
+        reasoner = (JFactReasoner) new JFactFactory().createReasoner(o,
+            new JFactReasonerConfiguration());
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY,
+            InferenceType.CLASS_ASSERTIONS);
+        classes = asList(o.classesInSignature());
+        individuals = asList(o.individualsInSignature());
+        properties = asList(o.objectPropertiesInSignature());
+    }
+
+    @TearDown(Level.Trial)
+    public void dispose() {
+        reasoner.dispose();
+    }
+
+    private OWLClassExpression nextClass() {
+        OWLClass c = classes.get(next++ % classes.size());
+        if (!complex || properties.isEmpty()) {
+            return c;
+        }
+        return df.getOWLObjectIntersectionOf(c,
+            df.getOWLObjectSomeValuesFrom(properties.get(next % properties.size()), c));
+    }
+
+    @Benchmark
+    public boolean isSubsumedBy() {
+        return reasoner.isEntailed(df.getOWLSubClassOfAxiom(nextClass(), nextClass()));
+    }
+
+    @Benchmark
+    public NodeSet<OWLNamedIndividual> getInstances() {
+        return reasoner.getInstances(nextClass(), false);
+    }
+
+    @Benchmark
+    public boolean isEntailed() {
+        if (individuals.isEmpty()) {
+            return reasoner.isEntailed(df.getOWLDisjointClassesAxiom(nextClass(), nextClass()));
+        }
+        OWLNamedIndividual i = individuals.get(next % individuals.size());
+        return reasoner.isEntailed(df.getOWLClassAssertionAxiom(nextClass(), i));
+    }
+}
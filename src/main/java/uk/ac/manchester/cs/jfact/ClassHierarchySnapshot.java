@@ -0,0 +1,114 @@
+package uk.ac.manchester.cs.jfact;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.impl.OWLClassNodeSet;
+
+import uk.ac.manchester.cs.jfact.kernel.TaxonomySnapshot;
+import uk.ac.manchester.cs.jfact.kernel.TaxonomyVertex;
+
+/**
+ * Read only view of a classified class hierarchy. Nodes are translated once, when the snapshot is
+ * built; afterwards queries about named classes only read immutable data and need no locking.
+ */
+class ClassHierarchySnapshot {
+
+    private final TaxonomySnapshot tax;
+    private final List<Node<OWLClass>> nodes;
+    /** vertices with at least one class */
+    private final BitSet classVertices;
+    private final Map<OWLClass, Integer> index = new HashMap<>();
+
+    /**
+     * @param tax frozen taxonomy
+     * @param translator translation of the classes in a vertex
+     */
+    ClassHierarchySnapshot(TaxonomySnapshot tax,
+        Function<TaxonomyVertex, Node<OWLClass>> translator) {
+        this.tax = tax;
+        nodes = new ArrayList<>(tax.size());
+        classVertices = new BitSet(tax.size());
+        for (int i = 0; i < tax.size(); i++) {
+            Node<OWLClass> node = translator.apply(tax.getVertex(i));
+            nodes.add(node);
+            if (node.getSize() > 0) {
+                classVertices.set(i);
+                Integer id = Integer.valueOf(i);
+                node.entities().forEach(c -> index.put(c, id));
+            }
+        }
+    }
+
+    /**
+     * @param ce class expression
+     * @return vertex of a named class, or null if the expression is anonymous or unknown
+     */
+    @Nullable
+    private Integer find(OWLClassExpression ce) {
+        if (ce.isAnonymous()) {
+            return null;
+        }
+        return index.get(ce.asOWLClass());
+    }
+
+    /**
+     * @param ce class expression
+     * @return true if the snapshot can answer queries about ce
+     */
+    boolean contains(OWLClassExpression ce) {
+        return find(ce) != null;
+    }
+
+    /**
+     * @param ce named class in the snapshot
+     * @return node of the class
+     */
+    Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+        return nodes.get(id(ce));
+    }
+
+    /**
+     * @param ce named class in the snapshot
+     * @param direct true for direct subclasses
+     * @return subclasses; the bottom node if there are none
+     */
+    NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+        BitSet relatives = tax.getRelatives(id(ce), classVertices, direct, false);
+        if (relatives.isEmpty()) {
+            relatives.set(tax.getBottom());
+        }
+        return nodeSet(relatives);
+    }
+
+    /**
+     * @param ce named class in the snapshot
+     * @param direct true for direct superclasses
+     * @return superclasses
+     */
+    NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+        return nodeSet(tax.getRelatives(id(ce), classVertices, direct, true));
+    }
+
+    private int id(OWLClassExpression ce) {
+        Integer id = find(ce);
+        if (id == null) {
+            throw new IllegalArgumentException(ce + " is not in the class hierarchy snapshot");
+        }
+        return id.intValue();
+    }
+
+    private NodeSet<OWLClass> nodeSet(BitSet vertices) {
+        return new OWLClassNodeSet(vertices.stream().mapToObj(nodes::get));
+    }
+}
@@ -52,8 +52,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -113,7 +115,9 @@ import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
 import uk.ac.manchester.cs.jfact.kernel.ExpressionCache;
 import uk.ac.manchester.cs.jfact.kernel.Individual;
 import uk.ac.manchester.cs.jfact.kernel.Ontology;
+import uk.ac.manchester.cs.jfact.kernel.QueryCache;
 import uk.ac.manchester.cs.jfact.kernel.ReasonerFreshEntityException;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics;
 import uk.ac.manchester.cs.jfact.kernel.ReasoningKernel;
 import uk.ac.manchester.cs.jfact.kernel.actors.ClassPolicy;
 import uk.ac.manchester.cs.jfact.kernel.actors.DataPropertyPolicy;
@@ -137,7 +141,9 @@ import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
  * Synchronization policy: all methods for OWLReasoner are synchronized, except the methods which do
  * not touch the kernel or only affect threadsafe data structures. inner private classes are not
  * synchronized since methods from those classes cannot be invoked from outsize synchronized
- * methods.
+ * methods. Once the KB is classified, equivalent, sub and super classes of named classes are read
+ * from an immutable snapshot of the class hierarchy without taking the lock; the snapshot is
+ * dropped when changes are flushed.
  */
 public class JFactReasoner
     implements OWLReasoner, OWLOntologyChangeListener, OWLKnowledgeExplorerReasoner, Serializable {
@@ -172,7 +178,7 @@ public class JFactReasoner
     @Nonnull
     private final List<OWLOntologyChange> rawChanges = new ArrayList<>();
     @Nonnull
-    private final List<OWLAxiom> axioms = new ArrayList<>();
+    private final Set<OWLAxiom> axioms = new LinkedHashSet<>();
     @Original
     private final JFactReasonerConfiguration configuration;
     private final OWLDataFactory df;
@@ -180,7 +186,12 @@ public class JFactReasoner
     // holds the consistency status: true for consistent, false for
     // inconsistent, null for not verified (or changes received)
     private Boolean consistencyVerified = null;
-    private final Set<OWLEntity> knownEntities = new HashSet<>();
+    /** number of loaded axioms referring to each entity; owl:Thing and owl:Nothing are pinned */
+    @Original
+    private final Map<OWLEntity, Integer> knownEntities = new HashMap<>();
+    /** frozen class hierarchy for lock free queries; null if not built or out of date */
+    @Original
+    private transient volatile ClassHierarchySnapshot classHierarchy = null;
     private final DatatypeFactory datatypeFactory;
 
     /**
@@ -208,16 +219,15 @@ public class JFactReasoner
         kernel = new ReasoningKernel(configuration, datatypeFactory, df);
         em = kernel.getExpressionManager();
         this.bufferingMode = bufferingMode;
-        knownEntities.add(df.getOWLThing());
-        knownEntities.add(df.getOWLNothing());
-        add(knownEntities, root.importsClosure().flatMap(OWLOntology::signature));
+        knownEntities.put(df.getOWLThing(), Integer.valueOf(1));
+        knownEntities.put(df.getOWLNothing(), Integer.valueOf(1));
         kernel.setInterruptedSwitch(interrupted);
         kernel.clearKB();
         configuration.getProgressMonitor().reasonerTaskStarted(ReasonerProgressMonitor.LOADING);
         configuration.getProgressMonitor().reasonerTaskBusy();
         tr = new TranslationMachinery(kernel, df, datatypeFactory);
-        this.axioms.addAll(axioms);
-        tr.loadAxioms(axioms.stream());
+        // the reasoner axioms are recorded while earlier axioms are translated
+        tr.loadAxioms(axioms.stream(), this::addAxiom);
         configuration.getProgressMonitor().reasonerTaskStopped();
     }
 
@@ -257,22 +267,66 @@ public class JFactReasoner
         return kernel.getOntology();
     }
 
+    /**
+     * @return cache of complex class expression queries, with its hit and miss counters
+     */
+    public synchronized QueryCache getQueryCache() {
+        return kernel.getQueryCache();
+    }
+
+    /**
+     * @return snapshot of phase times, tactic and cache counters and backjump statistics for the
+     *         current ontology
+     */
+    public synchronized ReasoningMetrics getMetrics() {
+        return kernel.getMetrics();
+    }
+
     @Override
-    public synchronized Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+    public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+        ClassHierarchySnapshot snapshot = classHierarchy;
+        if (snapshot != null && snapshot.contains(ce)) {
+            return snapshot.getEquivalentClasses(ce);
+        }
+        return equivalentClasses(ce);
+    }
+
+    private synchronized Node<OWLClass> equivalentClasses(OWLClassExpression ce) {
         if (isFreshName(ce)) {
             return tr.getClassExpressionTranslator().node(Stream.empty());
         }
         checkConsistency();
         Stream<ConceptExpression> stream =
             kernel.getEquivalentConcepts(tr.pointer(ce), classActor()).getSynonyms().stream();
-        return tr.getClassExpressionTranslator().node(stream);
+        Node<OWLClass> node = tr.getClassExpressionTranslator().node(stream);
+        freezeClassHierarchy();
+        return node;
+    }
+
+    /**
+     * build the class hierarchy snapshot if the KB is classified and consistent and there is no
+     * snapshot yet; must be called with the lock held. Builds are counted as
+     * nClassHierarchySnapshots.
+     */
+    @Original
+    private void freezeClassHierarchy() {
+        if (classHierarchy != null || kernel == null || !Boolean.TRUE.equals(consistencyVerified)
+            || !kernel.isKBClassified()) {
+            return;
+        }
+        classHierarchy = new ClassHierarchySnapshot(kernel.getCTaxonomySnapshot(), v -> {
+            TaxonomyActor<ConceptExpression> actor = classActor();
+            actor.apply(v);
+            return tr.getClassExpressionTranslator().node(actor.getSynonyms().stream());
+        });
+        kernel.addCounter("nClassHierarchySnapshots", 1);
     }
 
     private boolean isFreshName(OWLClassExpression ce) {
         if (ce.isAnonymous()) {
             return false;
         }
-        return !knownEntities.contains(ce.asOWLClass());
+        return !knownEntities.containsKey(ce.asOWLClass());
     }
 
     @Override
@@ -326,31 +380,33 @@ public class JFactReasoner
     public synchronized void flush() {
         // Process the changes
         if (!rawChanges.isEmpty()) {
-            Set<OWLAxiom> added = new HashSet<>();
-            Set<OWLAxiom> removed = new HashSet<>();
-            Set<OWLAxiom> reasonerAxioms = new HashSet<>(axioms);
+            // the axiom set is updated change by change; an axiom added and removed again
+            // before the flush never reaches the kernel
+            Set<OWLAxiom> added = new LinkedHashSet<>();
+            Set<OWLAxiom> removed = new LinkedHashSet<>();
             for (OWLOntologyChange change : rawChanges) {
+                if (!change.isAxiomChange()) {
+                    continue;
+                }
                 OWLAxiom ax = change.getAxiom();
                 if (change.isAddAxiom()) {
-                    if (!reasonerAxioms.contains(ax)
-                        && !reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
+                    if (removed.remove(ax)) {
+                        addAxiom(ax);
+                    } else if (!axioms.contains(ax)
+                        && !axioms.contains(ax.getAxiomWithoutAnnotations())) {
+                        addAxiom(ax);
                         added.add(ax);
                     }
-                } else if (change.isRemoveAxiom() && reasonerAxioms.contains(ax)
-                    || reasonerAxioms.contains(ax.getAxiomWithoutAnnotations())) {
-                    removed.add(change.getAxiom());
-
+                } else if (change.isRemoveAxiom()) {
+                    OWLAxiom loaded = axioms.contains(ax) ? ax : ax.getAxiomWithoutAnnotations();
+                    if (removeAxiom(loaded) && !added.remove(loaded)) {
+                        removed.add(loaded);
+                    }
                 }
             }
-            added.removeAll(removed);
             rawChanges.clear();
             if (!added.isEmpty() || !removed.isEmpty()) {
-                reasonerAxioms.removeAll(removed);
-                reasonerAxioms.addAll(added);
-                axioms.clear();
-                axioms.addAll(reasonerAxioms);
-                knownEntities.clear();
-                axioms.forEach(ax -> add(knownEntities, ax.signature()));
+                classHierarchy = null;
                 // set the consistency status to not verified
                 consistencyVerified = null;
                 handleChanges(added.stream(), removed.stream());
@@ -358,6 +414,34 @@ public class JFactReasoner
         }
     }
 
+    /**
+     * add an axiom to the reasoner axioms and count the references to its entities
+     * 
+     * @param ax axiom
+     */
+    @Original
+    private void addAxiom(OWLAxiom ax) {
+        if (axioms.add(ax)) {
+            ax.signature().forEach(e -> knownEntities.merge(e, Integer.valueOf(1), Integer::sum));
+        }
+    }
+
+    /**
+     * remove an axiom from the reasoner axioms; entities no longer referred to are forgotten
+     * 
+     * @param ax axiom
+     * @return true if the axiom was there
+     */
+    @Original
+    private boolean removeAxiom(OWLAxiom ax) {
+        if (!axioms.remove(ax)) {
+            return false;
+        }
+        ax.signature().forEach(e -> knownEntities.computeIfPresent(e,
+            (k, v) -> v.intValue() == 1 ? null : Integer.valueOf(v.intValue() - 1)));
+        return true;
+    }
+
     @Override
     public FreshEntityPolicy getFreshEntityPolicy() {
         return configuration.getFreshEntityPolicy();
@@ -404,6 +488,9 @@ public class JFactReasoner
             && Stream.of(inferenceTypes).anyMatch(supportedInferenceTypes::contains)) {
             kernel.realiseKB();
         }
+        if (isConsistent()) {
+            freezeClassHierarchy();
+        }
     }
 
     @Override
@@ -515,7 +602,15 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+    public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+        ClassHierarchySnapshot snapshot = classHierarchy;
+        if (snapshot != null && snapshot.contains(ce)) {
+            return snapshot.getSubClasses(ce, direct);
+        }
+        return subClasses(ce, direct);
+    }
+
+    private synchronized NodeSet<OWLClass> subClasses(OWLClassExpression ce, boolean direct) {
         if (isFreshName(ce)) {
             if (configuration.getFreshEntityPolicy() == FreshEntityPolicy.DISALLOW) {
                 throw new FreshEntitiesException(asList(ce.signature()));
@@ -537,7 +632,9 @@ public class JFactReasoner
                 pointers.add(bottomNode());
             }
         }
-        return tr.getClassExpressionTranslator().nodeSet(pointers.stream());
+        NodeSet<OWLClass> nodeSet = tr.getClassExpressionTranslator().nodeSet(pointers.stream());
+        freezeClassHierarchy();
+        return nodeSet;
     }
 
     private Collection<ConceptExpression> bottomNode() {
@@ -546,14 +643,24 @@ public class JFactReasoner
     }
 
     @Override
-    public synchronized NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+    public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+        ClassHierarchySnapshot snapshot = classHierarchy;
+        if (snapshot != null && snapshot.contains(ce)) {
+            return snapshot.getSuperClasses(ce, direct);
+        }
+        return superClasses(ce, direct);
+    }
+
+    private synchronized NodeSet<OWLClass> superClasses(OWLClassExpression ce, boolean direct) {
         if (isFreshName(ce)) {
             return new OWLClassNodeSet(getTopClassNode());
         }
         checkConsistency();
         Stream<Collection<ConceptExpression>> stream =
             askSuperClasses(tr.pointer(ce), direct).stream();
-        return tr.getClassExpressionTranslator().nodeSet(stream);
+        NodeSet<OWLClass> nodeSet = tr.getClassExpressionTranslator().nodeSet(stream);
+        freezeClassHierarchy();
+        return nodeSet;
     }
 
     @Override
@@ -762,17 +869,8 @@ public class JFactReasoner
     public synchronized Set<OWLLiteral> getDataPropertyValues(OWLNamedIndividual ind,
         OWLDataProperty pe) {
         checkConsistency();
-        // for(DataRoleExpression e:
-        // askDataProperties(translationMachinery.toIndividualPointer(ind))) {
-        //
-        // }
-        // return kernel.getDRM().
-        // return translationMachinery
-        // .translateIndividualPointersToNodeSet(askRelatedIndividuals(
-        // translationMachinery.toIndividualPointer(ind),
-        // translationMachinery.pointer(pe)));
-        // TODO:
-        return Collections.emptySet();
+        return asSet(kernel.getDataValues(tr.pointer(ind), tr.pointer(pe)).stream()
+            .map(tr::translateLiteral));
     }
 
     @Override
@@ -792,6 +890,7 @@ public class JFactReasoner
 
     @Override
     public synchronized void dispose() {
+        classHierarchy = null;
         root.getOWLOntologyManager().removeOntologyChangeListener(this);
         tr = null;
         kernel = null;
@@ -4,9 +4,20 @@ import static org.semanticweb.owlapi.util.OWLAPIPreconditions.checkNotNull;
 import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
@@ -25,9 +36,11 @@ import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLObjectInverseOf;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
 import org.semanticweb.owlapi.reasoner.impl.OWLNamedIndividualNodeSet;
 import org.semanticweb.owlapitools.decomposition.AxiomWrapper;
 
+import conformance.Original;
 import uk.ac.manchester.cs.jfact.datatypes.Datatype;
 import uk.ac.manchester.cs.jfact.datatypes.DatatypeFactory;
 import uk.ac.manchester.cs.jfact.datatypes.Literal;
@@ -45,6 +58,11 @@ import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.ObjectRoleExpression;
 /** translation stuff */
 public class TranslationMachinery implements Serializable {
 
+    /** number of chunks read ahead of the translator */
+    private static final int LOADING_QUEUE = 2;
+    /** end of input marker */
+    private static final List<OWLAxiom> END = Collections.emptyList();
+
     @Nonnull
     private final AxiomTranslator axiomTranslator;
     @Nonnull
@@ -101,9 +119,105 @@ public class TranslationMachinery implements Serializable {
      * @param axioms axioms
      */
     public void loadAxioms(Stream<OWLAxiom> axioms) {
+        loadAxioms(axioms, ax -> {
+            // nothing to do while reading
+        });
+    }
+
+    /**
+     * Load axioms in chunks: the calling thread reads the axioms and passes each one to the reader,
+     * while a translator thread translates the chunks read before. At most LOADING_QUEUE chunks
+     * wait for translation, so the reader blocks if the translator falls behind. Translation stays
+     * on a single thread, in axiom order; inputs that fit in one chunk are translated in place.
+     * Only translation into the kernel ontology overlaps with reading: the TBox is still built
+     * from the whole ontology on the first query. The number of chunks translated on the
+     * translator thread is reported as nPipelinedChunks.
+     * 
+     * @param axioms axioms
+     * @param reader called on the calling thread for every axiom, before it is translated
+     */
+    @Original
+    public void loadAxioms(Stream<OWLAxiom> axioms, Consumer<OWLAxiom> reader) {
+        int chunkSize = kernel.getOptions().getAxiomLoadingChunkSize();
+        if (chunkSize == 0) {
+            axioms.forEach(ax -> {
+                reader.accept(ax);
+                translate(ax);
+            });
+            return;
+        }
+        Iterator<OWLAxiom> it = axioms.iterator();
+        List<OWLAxiom> first = nextChunk(it, reader, chunkSize);
+        if (!it.hasNext()) {
+            translateChunk(first);
+            return;
+        }
+        BlockingQueue<List<OWLAxiom>> queue = new ArrayBlockingQueue<>(LOADING_QUEUE);
+        ExecutorService translator = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "JFact axiom translator");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            Future<Integer> done = translator.submit(() -> {
+                int chunks = 0;
+                for (List<OWLAxiom> chunk = queue.take(); chunk != END; chunk = queue.take()) {
+                    translateChunk(chunk);
+                    chunks++;
+                }
+                return Integer.valueOf(chunks);
+            });
+            put(queue, first, done);
+            while (it.hasNext()) {
+                put(queue, nextChunk(it, reader, chunkSize), done);
+            }
+            put(queue, END, done);
+            kernel.addCounter("nPipelinedChunks", done.get().intValue());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReasonerInternalException(e.getCause());
+        } finally {
+            translator.shutdownNow();
+        }
+    }
+
+    private static List<OWLAxiom> nextChunk(Iterator<OWLAxiom> it, Consumer<OWLAxiom> reader,
+        int chunkSize) {
+        List<OWLAxiom> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && it.hasNext()) {
+            OWLAxiom ax = it.next();
+            reader.accept(ax);
+            chunk.add(ax);
+        }
+        return chunk;
+    }
+
+    /** wait for room in the queue; stop waiting if the translator has failed */
+    private static void put(BlockingQueue<List<OWLAxiom>> queue, List<OWLAxiom> chunk,
+        Future<?> done) throws InterruptedException, ExecutionException {
+        while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            if (done.isDone()) {
+                done.get();
+                throw new ReasonerInternalException("Axiom translation stopped");
+            }
+        }
+    }
+
+    private void translateChunk(List<OWLAxiom> chunk) {
+        chunk.forEach(this::translate);
+    }
+
+    private void translate(OWLAxiom axiom) {
         // TODO check valid axioms, such as those involving topDataProperty
-        axioms.map(ax -> ax.accept(axiomTranslator)).filter(ax -> Axioms.dummy() != ax)
-            .forEach(ax -> axiom2PtrMap.put(ax.getAxiom(), ax));
+        AxiomWrapper ax = axiom.accept(axiomTranslator);
+        if (Axioms.dummy() != ax) {
+            axiom2PtrMap.put(ax.getAxiom(), ax);
+        }
     }
 
     /**
@@ -164,6 +278,25 @@ public class TranslationMachinery implements Serializable {
         return knownDatatype.buildLiteral(value);
     }
 
+    /**
+     * @param literal literal built by {@link #pointer(OWLLiteral)}
+     * @return OWL literal with the same value
+     */
+    protected OWLLiteral translateLiteral(Literal<?> literal) {
+        String value = literal.value();
+        // plain literals carry their language tag, possibly empty, after the last @; values of
+        // other datatypes may contain or end with @ and are kept as they are
+        int at = value.lastIndexOf('@');
+        if (at >= 0 && DatatypeFactory.PLAINLITERAL.equals(literal.getDatatypeExpression())) {
+            if (at == value.length() - 1) {
+                return df.getOWLLiteral(value.substring(0, at));
+            }
+            return df.getOWLLiteral(value.substring(0, at), value.substring(at + 1));
+        }
+        return df.getOWLLiteral(value,
+            df.getOWLDatatype(literal.getDatatypeExpression().getDatatypeIRI()));
+    }
+
     protected NodeSet<OWLNamedIndividual> translateNodeSet(Stream<IndividualExpression> pointers) {
         OWLNamedIndividualNodeSet ns = new OWLNamedIndividualNodeSet();
         // XXX skipping anonymous individuals - counterintuitive but
@@ -0,0 +1,321 @@
+package uk.ac.manchester.cs.jfact.dep;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+import java.util.function.IntConsumer;
+
+import javax.annotation.Nullable;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import conformance.Original;
+
+/**
+ * Immutable, non empty set of branching levels backing a {@link DepSet}. Sets of up to three
+ * levels are stored inline, larger ones in a bitmap that is never modified after construction;
+ * the maximal level is cached. Singletons and small unions are interned, so the common unions on
+ * the tableau hot path return an existing instance instead of allocating. Being immutable,
+ * instances can be shared freely, e.g., by save/restore records.
+ */
+@Original
+public final class DepLevels implements Serializable {
+
+    private static final int INLINE = 3;
+    /** largest level with an interned singleton */
+    private static final int MAX_INTERNED_LEVEL = 1 << 12;
+    private static final DepLevels[] SINGLETONS = new DepLevels[MAX_INTERNED_LEVEL];
+    /** direct mapped table of interned 2 and 3 level sets; a collision replaces the entry */
+    private static final DepLevels[] SMALL = new DepLevels[1 << 14];
+    private final int size;
+    private final int l0;
+    private final int l1;
+    private final int l2;
+    @Nullable
+    private final RoaringBitmap big;
+    private final int hash;
+
+    private DepLevels(int size, int l0, int l1, int l2) {
+        this.size = size;
+        this.l0 = l0;
+        this.l1 = l1;
+        this.l2 = l2;
+        big = null;
+        hash = hash(size, l0, l1, l2);
+    }
+
+    private DepLevels(RoaringBitmap big) {
+        size = big.getCardinality();
+        l0 = big.select(0);
+        l1 = l0;
+        l2 = big.select(size - 1);
+        this.big = big;
+        hash = big.hashCode();
+    }
+
+    private static int hash(int size, int l0, int l1, int l2) {
+        return ((size * 31 + l0) * 31 + l1) * 31 + l2;
+    }
+
+    /**
+     * @param level level
+     * @return set containing the level only
+     */
+    public static DepLevels of(int level) {
+        if (level < 0 || level >= MAX_INTERNED_LEVEL) {
+            return new DepLevels(1, level, level, level);
+        }
+        DepLevels d = SINGLETONS[level];
+        if (d == null) {
+            d = new DepLevels(1, level, level, level);
+            SINGLETONS[level] = d;
+        }
+        return d;
+    }
+
+    /**
+     * @param bitmap levels; not modified nor retained
+     * @return set with the same levels, or null if the bitmap is empty
+     */
+    @Nullable
+    public static DepLevels of(RoaringBitmap bitmap) {
+        int n = bitmap.getCardinality();
+        if (n == 0) {
+            return null;
+        }
+        if (n > INLINE) {
+            return new DepLevels(bitmap.clone());
+        }
+        int first = bitmap.select(0);
+        return small(n, first, n > 2 ? bitmap.select(1) : first, bitmap.select(n - 1));
+    }
+
+    /** sorted levels, l2 being the max; a 2 level set repeats l0 as l1 */
+    private static DepLevels small(int size, int l0, int l1, int l2) {
+        if (size == 1) {
+            return of(l0);
+        }
+        int h = hash(size, l0, l1, l2);
+        int slot = (h ^ h >>> 16) & SMALL.length - 1;
+        DepLevels d = SMALL[slot];
+        if (d != null && d.size == size && d.l0 == l0 && d.l1 == l1 && d.l2 == l2) {
+            return d;
+        }
+        d = new DepLevels(size, l0, l1, l2);
+        SMALL[slot] = d;
+        return d;
+    }
+
+    /** @return number of levels */
+    public int size() {
+        return size;
+    }
+
+    /** @return maximal level */
+    public int max() {
+        return l2;
+    }
+
+    /**
+     * @param level level
+     * @return true if the level is in the set
+     */
+    public boolean contains(int level) {
+        RoaringBitmap b = big;
+        if (b != null) {
+            return b.contains(level);
+        }
+        return level == l0 || level == l1 || level == l2;
+    }
+
+    /**
+     * @param c consumer for all levels, in ascending order
+     */
+    public void forEach(IntConsumer c) {
+        RoaringBitmap b = big;
+        if (b != null) {
+            IntIterator it = b.getIntIterator();
+            while (it.hasNext()) {
+                c.accept(it.next());
+            }
+            return;
+        }
+        c.accept(l0);
+        if (size > 2) {
+            c.accept(l1);
+        }
+        if (size > 1) {
+            c.accept(l2);
+        }
+    }
+
+    /** @return a fresh bitmap with the levels */
+    public RoaringBitmap toBitmap() {
+        RoaringBitmap b = big;
+        if (b != null) {
+            return b.clone();
+        }
+        RoaringBitmap toReturn = new RoaringBitmap();
+        forEach(toReturn::add);
+        return toReturn;
+    }
+
+    /**
+     * @param d other set
+     * @return union of the sets; one of the arguments if it contains the other one
+     */
+    public DepLevels union(DepLevels d) {
+        if (d == this) {
+            return this;
+        }
+        if (big == null && d.big == null) {
+            return smallUnion(d);
+        }
+        if (d.size <= size && containsAll(d)) {
+            return this;
+        }
+        if (size <= d.size && d.containsAll(this)) {
+            return d;
+        }
+        RoaringBitmap b = toBitmap();
+        d.forEach(b::add);
+        return new DepLevels(b);
+    }
+
+    private boolean containsAll(DepLevels d) {
+        if (d.l2 > l2 || d.l0 < l0) {
+            return false;
+        }
+        RoaringBitmap b = big;
+        RoaringBitmap o = d.big;
+        if (b != null && o != null) {
+            return RoaringBitmap.andNot(o, b).isEmpty();
+        }
+        if (o != null) {
+            // more levels than an inline set can hold
+            return false;
+        }
+        return contains(d.l0) && contains(d.l1) && contains(d.l2);
+    }
+
+    /** union of two inline sets, without intermediate arrays */
+    private DepLevels smallUnion(DepLevels d) {
+        int extra = missing(d.l0) + (d.size > 2 ? missing(d.l1) : 0)
+            + (d.size > 1 ? missing(d.l2) : 0);
+        if (extra == 0) {
+            return this;
+        }
+        int n = size + extra;
+        if (n == d.size) {
+            return d;
+        }
+        int min = Math.min(l0, d.l0);
+        int max = Math.max(l2, d.l2);
+        if (n == 2) {
+            return small(2, min, min, max);
+        }
+        if (n == 3) {
+            return small(3, min, middle(min, max, d), max);
+        }
+        RoaringBitmap bitmap = toBitmap();
+        d.forEach(bitmap::add);
+        return new DepLevels(bitmap);
+    }
+
+    private int missing(int level) {
+        return contains(level) ? 0 : 1;
+    }
+
+    /** @return the only level of this and d strictly between min and max */
+    private int middle(int min, int max, DepLevels d) {
+        if (between(l1, min, max)) {
+            return l1;
+        }
+        if (between(d.l1, min, max)) {
+            return d.l1;
+        }
+        if (between(l0, min, max)) {
+            return l0;
+        }
+        if (between(d.l0, min, max)) {
+            return d.l0;
+        }
+        return between(l2, min, max) ? l2 : d.l2;
+    }
+
+    private static boolean between(int v, int min, int max) {
+        return v > min && v < max;
+    }
+
+    /**
+     * @param level bound
+     * @return the levels below the bound, or null if there are none
+     */
+    @Nullable
+    public DepLevels restrict(int level) {
+        if (l2 < level) {
+            return this;
+        }
+        if (l0 >= level) {
+            return null;
+        }
+        RoaringBitmap b = big;
+        if (b != null) {
+            RoaringBitmap f = new RoaringBitmap();
+            IntIterator it = b.getIntIterator();
+            while (it.hasNext()) {
+                int i = it.next();
+                if (i >= level) {
+                    break;
+                }
+                f.add(i);
+            }
+            return f.getCardinality() > INLINE ? new DepLevels(f) : of(f);
+        }
+        // here l0 < level <= l2 and size > 1
+        if (size == 3 && l1 < level) {
+            return small(2, l0, l0, l1);
+        }
+        return of(l0);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof DepLevels)) {
+            return false;
+        }
+        DepLevels d = (DepLevels) obj;
+        if (size != d.size || l2 != d.l2 || l0 != d.l0) {
+            return false;
+        }
+        RoaringBitmap b = big;
+        if (b != null) {
+            return b.equals(d.big);
+        }
+        return l1 == d.l1;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder("{");
+        forEach(i -> {
+            if (b.length() > 1) {
+                b.append(',');
+            }
+            b.append(i);
+        });
+        return b.append('}').toString();
+    }
+}
@@ -9,21 +9,22 @@ import javax.annotation.Nullable;
  This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
-import org.roaringbitmap.IntIterator;
 import org.roaringbitmap.RoaringBitmap;
 
 import conformance.Original;
 import conformance.PortedFrom;
 
 /**
- * Dependency set
+ * Dependency set. The levels are kept in an immutable {@link DepLevels}, so copies and unions
+ * share their storage and the set only allocates when a new set of levels is created.
  * 
  * @author ignazio
  */
 @PortedFrom(file = "tDepSet.h", name = "TDepSet")
 public class DepSet implements Serializable {
 
-    @Original private RoaringBitmap delegate = null;
+    /** levels; null for the empty set */
+    @Original @Nullable private DepLevels delegate = null;
 
     protected DepSet() {}
 
@@ -31,21 +32,23 @@ public class DepSet implements Serializable {
      * @param d
      *        d
      */
-    private DepSet(RoaringBitmap d) {
+    private DepSet(@Nullable DepLevels d) {
         delegate = d;
     }
 
     protected DepSet(int i) {
-        delegate = RoaringBitmap.bitmapOf(i);
+        delegate = DepLevels.of(i);
     }
 
     /**
-     * to be used to get the FastSet and store it in CWDArray save/restore
+     * to be used to get the levels and store them in CWDArray save/restore; the returned value is
+     * immutable
      * 
-     * @return delegate
+     * @return delegate, null if empty
      */
     @Original
-    public RoaringBitmap getDelegate() {
+    @Nullable
+    public DepLevels getDelegate() {
         return delegate;
     }
 
@@ -89,31 +92,34 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "+")
     public static DepSet plus(@Nullable DepSet ds1, @Nullable DepSet ds2) {
-        if (ds1 == null && ds2 == null) {
-            return new DepSet();
+        DepLevels d1 = ds1 == null ? null : ds1.delegate;
+        DepLevels d2 = ds2 == null ? null : ds2.delegate;
+        if (d1 == null) {
+            return new DepSet(d2);
         }
-        if (ds1 == null || ds1.isEmpty()) {
-            if (ds2 == null || ds2.isEmpty()) {
-                return new DepSet();
-            }
-            return new DepSet(ds2.delegate);
-        }
-        if (ds2 == null || ds2.isEmpty()) {
-            return new DepSet(ds1.delegate);
+        if (d2 == null) {
+            return new DepSet(d1);
         }
-        DepSet toReturn = new DepSet();
-        toReturn.add(ds1);
-        toReturn.add(ds2);
-        return toReturn;
+        return new DepSet(d1.union(d2));
     }
 
     /**
      * @param delegate
      *        delegate
-     * @return depset wrapper over delegate
+     * @return depset with the levels in delegate; the bitmap is not retained
      */
     @PortedFrom(file = "tDepSet.h", name = "create")
     public static DepSet create(RoaringBitmap delegate) {
+        return new DepSet(DepLevels.of(delegate));
+    }
+
+    /**
+     * @param delegate
+     *        delegate, can be null for an empty set
+     * @return depset sharing the immutable levels
+     */
+    @Original
+    public static DepSet create(@Nullable DepLevels delegate) {
         return new DepSet(delegate);
     }
 
@@ -122,14 +128,7 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "level")
     public int level() {
-        return max(delegate);
-    }
-
-    private static int max(@Nullable RoaringBitmap set) {
-        if (set == null || set.isEmpty()) {
-            return 0;
-        }
-        return set.getReverseIntIterator().next();
+        return delegate == null ? 0 : delegate.max();
     }
 
     /**
@@ -137,12 +136,12 @@ public class DepSet implements Serializable {
      */
     @PortedFrom(file = "tDepSet.h", name = "empty")
     public boolean isEmpty() {
-        return delegate == null || delegate.isEmpty();
+        return delegate == null;
     }
 
     @Override
     public String toString() {
-        if (isEmpty()) {
+        if (delegate == null) {
             return "";
         }
         return "{" + delegate.toString() + "}";
@@ -161,12 +160,6 @@ public class DepSet implements Serializable {
             if (delegate == null) {
                 return obj2.delegate == null;
             }
-            if (isEmpty() != obj2.isEmpty()) {
-                return false;
-            }
-            if (isEmpty()) {
-                return true;
-            }
             return delegate.equals(obj2.delegate);
         }
         return false;
@@ -184,19 +177,7 @@ public class DepSet implements Serializable {
     @PortedFrom(file = "tDepSet.h", name = "restrict")
     public void restrict(int level) {
         if (delegate != null) {
-            RoaringBitmap f = new RoaringBitmap();
-            IntIterator it = delegate.getIntIterator();
-            while (it.hasNext()) {
-                int i = it.next();
-                if (i < level) {
-                    f.add(i);
-                }
-            }
-            if (f.isEmpty()) {
-                delegate = null;
-            } else {
-                delegate = f;
-            }
+            delegate = delegate.restrict(level);
         }
         // if the depset is empty, no operation
     }
@@ -220,9 +201,6 @@ public class DepSet implements Serializable {
             delegate = toAdd.delegate;
             return;
         }
-        if (delegate.equals(toAdd.delegate)) {
-            return;
-        }
-        delegate = RoaringBitmap.or(delegate, toAdd.delegate);
+        delegate = delegate.union(toAdd.delegate);
     }
 }
@@ -14,9 +14,9 @@ import static uk.ac.manchester.cs.jfact.kernel.DagTag.BAD;
 
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -45,7 +45,7 @@ public class DLVertex extends DLVertexTagDFS {
 
         protected final FastSet children = FastSetFactory.create();
         private final SortedIntList original = new SortedIntList();
-        private int[] sorted = null;
+        private volatile int[] sorted = null;
         protected DLDag sorter = null;
 
         @Override
@@ -80,26 +80,29 @@ public class DLVertex extends DLVertexTagDFS {
         }
 
         public int[] sorted() {
-            if (sorted == null) {
-                sorted = new int[children.size()];
+            // workers share the DAG: publish the array only when it is full
+            int[] toReturn = sorted;
+            if (toReturn == null) {
+                toReturn = new int[children.size()];
                 if (sorter == null) {
                     for (int i = 0; i < children.size(); i++) {
                         // if there is no sorting, use the original insertion
                         // order
-                        sorted[i] = original.get(i);
+                        toReturn[i] = original.get(i);
                     }
                 } else {
                     List<Integer> l = new ArrayList<>();
                     for (int i = 0; i < children.size(); ++i) {
                         l.add(Integer.valueOf(children.get(i)));
                     }
-                    Collections.sort(l, this);
-                    for (int i = 0; i < sorted.length; ++i) {
-                        sorted[i] = l.get(i).intValue();
+                    sorter.sort(l, this);
+                    for (int i = 0; i < toReturn.length; ++i) {
+                        toReturn[i] = l.get(i).intValue();
                     }
                 }
+                sorted = toReturn;
             }
-            return sorted;
+            return toReturn;
         }
 
         public boolean contains(int inverse) {
@@ -146,11 +149,27 @@ public class DLVertex extends DLVertexTagDFS {
     /** maximal depth, size and frequency of reference of the expression */
     @PortedFrom(file = "dlVertex.h", name = "stat")
     protected final int[] stat = new int[] {0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
-    /** usage statistic for pos- and neg occurences of a vertex */
+    /**
+     * usage statistic for pos- and neg occurences of a vertex; updated atomically, since the
+     * workers of parallel classification share the DAG
+     */
     @PortedFrom(file = "dlVertex.h", name = "posUsage")
-    protected final long posUsage = 0;
+    protected volatile long posUsage = 0;
     @PortedFrom(file = "dlVertex.h", name = "negUsage")
-    protected final long negUsage = 0;
+    protected volatile long negUsage = 0;
+    /** number of clashes caused by adding pos- and neg occurences of a vertex to a label */
+    @Original
+    protected volatile long posClash = 0;
+    @Original
+    protected volatile long negClash = 0;
+    private static final AtomicLongFieldUpdater<DLVertex> POS_USAGE =
+        AtomicLongFieldUpdater.newUpdater(DLVertex.class, "posUsage");
+    private static final AtomicLongFieldUpdater<DLVertex> NEG_USAGE =
+        AtomicLongFieldUpdater.newUpdater(DLVertex.class, "negUsage");
+    private static final AtomicLongFieldUpdater<DLVertex> POS_CLASH =
+        AtomicLongFieldUpdater.newUpdater(DLVertex.class, "posClash");
+    private static final AtomicLongFieldUpdater<DLVertex> NEG_CLASH =
+        AtomicLongFieldUpdater.newUpdater(DLVertex.class, "negClash");
 
     /**
      * c'tor for Top/CN/And (before adding any operands)
@@ -528,4 +547,35 @@ public class DLVertex extends DLVertexTagDFS {
     public long getUsage(boolean pos) {
         return pos ? posUsage : negUsage;
     }
+
+    /**
+     * increment usage wrt POS
+     * 
+     * @param pos pos
+     */
+    @PortedFrom(file = "dlVertex.h", name = "incUsage")
+    public void incUsage(boolean pos) {
+        (pos ? POS_USAGE : NEG_USAGE).incrementAndGet(this);
+    }
+
+    /**
+     * get access to a clash count wrt POS
+     * 
+     * @param pos pos
+     * @return number of clashes
+     */
+    @Original
+    public long getClash(boolean pos) {
+        return pos ? posClash : negClash;
+    }
+
+    /**
+     * increment clash count wrt POS
+     * 
+     * @param pos pos
+     */
+    @Original
+    public void incClash(boolean pos) {
+        (pos ? POS_CLASH : NEG_CLASH).incrementAndGet(this);
+    }
 }
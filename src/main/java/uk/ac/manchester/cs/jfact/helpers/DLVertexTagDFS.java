@@ -30,9 +30,11 @@ class DLVertexTagDFS implements Serializable {
     /** true iff node is involved in cycle */
     @PortedFrom(file = "dlVertex.h", name = "inCycleNeg") protected boolean inCycleNeg = false;
     /** cache for the positive entry */
-    @PortedFrom(file = "dlVertex.h", name = "pCache") protected ModelCacheInterface pCache = null;
+    @PortedFrom(file = "dlVertex.h", name = "pCache")
+    protected volatile ModelCacheInterface pCache = null;
     /** cache for the negative entry */
-    @PortedFrom(file = "dlVertex.h", name = "nCache") protected ModelCacheInterface nCache = null;
+    @PortedFrom(file = "dlVertex.h", name = "nCache")
+    protected volatile ModelCacheInterface nCache = null;
 
     @PortedFrom(file = "dlVertex.h", name = "Op")
     protected DLVertexTagDFS(DagTag op) {
@@ -0,0 +1,200 @@
+package uk.ac.manchester.cs.jfact.helpers;
+
+import java.io.Serializable;
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+
+/**
+ * Index from DAG positions to their position in a label. Keys are appended at the end of the
+ * label; the hash table is open addressing with linear probing and maps each key to its last
+ * position, while a dense array keeps the key at each position. A table entry is valid only if
+ * the dense array still holds its key at that position, so truncating the label is O(1): entries
+ * past the new end become stale and are dropped on the next rehash.
+ */
+@Original
+public class LabelIndex implements Serializable {
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+    /** hash table keys, EMPTY for free slots */
+    private int[] keys = newTable(MIN_CAPACITY);
+    /** hash table values: positions in the label */
+    private int[] positions = new int[MIN_CAPACITY];
+    /** used slots in the table, stale ones included */
+    private int occupied = 0;
+    /** key at each label position */
+    private int[] keyAt = new int[8];
+    private int size = 0;
+
+    private static int[] newTable(int capacity) {
+        int[] t = new int[capacity];
+        Arrays.fill(t, EMPTY);
+        return t;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ h >>> 16;
+    }
+
+    /** @return slot holding key, or the free slot where key would go */
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = i + 1 & mask;
+        }
+        return i;
+    }
+
+    /**
+     * append key at the end of the label
+     *
+     * @param key key
+     */
+    public void add(int key) {
+        if (size == keyAt.length) {
+            keyAt = Arrays.copyOf(keyAt, size * 2);
+        }
+        keyAt[size] = key;
+        put(key, size++);
+    }
+
+    /**
+     * replace the key at an existing position
+     *
+     * @param position position, less than size
+     * @param key key
+     */
+    public void set(int position, int key) {
+        keyAt[position] = key;
+        put(key, position);
+    }
+
+    private void put(int key, int position) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            occupied++;
+        }
+        positions[i] = position;
+        if (occupied * 4 >= keys.length * 3) {
+            rehash();
+        }
+    }
+
+    /** rebuild the table from the live positions, dropping stale entries */
+    private void rehash() {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size * 4) {
+            capacity <<= 1;
+        }
+        keys = newTable(capacity);
+        positions = new int[capacity];
+        occupied = 0;
+        for (int p = 0; p < size; p++) {
+            int i = slot(keyAt[p]);
+            if (keys[i] == EMPTY) {
+                keys[i] = keyAt[p];
+                occupied++;
+            }
+            positions[i] = p;
+        }
+    }
+
+    /**
+     * @param key key
+     * @return position of key, -1 if not present
+     */
+    public int get(int key) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            return -1;
+        }
+        int p = positions[i];
+        return p < size && keyAt[p] == key ? p : -1;
+    }
+
+    /**
+     * @param key key
+     * @return true if key is present
+     */
+    public boolean containsKey(int key) {
+        return get(key) >= 0;
+    }
+
+    /**
+     * @param i position
+     * @return key at position i
+     */
+    public int keyAt(int i) {
+        return keyAt[i];
+    }
+
+    /** @return number of positions */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * drop all positions from newSize on
+     *
+     * @param newSize new size
+     */
+    public void truncate(int newSize) {
+        if (newSize < size) {
+            size = newSize;
+        }
+    }
+
+    /** remove all keys */
+    public void clear() {
+        size = 0;
+        if (occupied > 0) {
+            Arrays.fill(keys, EMPTY);
+            occupied = 0;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 1;
+        for (int i = 0; i < size; i++) {
+            h = 31 * h + keyAt[i];
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LabelIndex)) {
+            return false;
+        }
+        LabelIndex l = (LabelIndex) obj;
+        if (size != l.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (keyAt[i] != l.keyAt[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(keyAt, size));
+    }
+}
@@ -6,13 +6,15 @@ package uk.ac.manchester.cs.jfact.helpers;
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.Arrays;
 
 import conformance.Original;
 import conformance.PortedFrom;
 
 /**
- * save stack
+ * save stack. Backed by an array; popped objects stay in their slot, so that a stack of
+ * save-state objects can reuse the object of a level the next time that level is saved (see
+ * {@link #recycle()}).
  * 
  * @param <T>
  *        type
@@ -20,9 +22,10 @@ import conformance.PortedFrom;
 @PortedFrom(file = "tSaveStack.h", name = "TSaveStack")
 public class SaveStack<T> implements Serializable {
 
-
     @Original
-    protected final LinkedList<T> list = new LinkedList<>();
+    private Object[] elements = new Object[16];
+    @Original
+    private int size = 0;
 
     /**
      * @param depth
@@ -42,18 +45,26 @@ public class SaveStack<T> implements Serializable {
      */
     @PortedFrom(file = "tSaveStack.h", name = "top")
     public T top(int depth) {
-        assert list.size() >= depth;
-        while (list.size() > depth) {
+        assert size >= depth;
+        while (size > depth) {
             pop();
         }
-        return list.peek();
+        return size == 0 ? null : get(size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Original
+    private T get(int i) {
+        return (T) elements[i];
     }
 
     /** @return pop stack */
     @PortedFrom(file = "tSaveStack.h", name = "pop")
     public T pop() {
-        assert !list.isEmpty();
-        return list.pop();
+        assert size > 0;
+        T e = get(--size);
+        release(e);
+        return e;
     }
 
     /**
@@ -62,18 +73,43 @@ public class SaveStack<T> implements Serializable {
      */
     @PortedFrom(file = "tSaveStack.h", name = "push")
     public void push(T e) {
-        list.push(e);
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = e;
+    }
+
+    /**
+     * @return the object last popped from the level the next push will fill, or null if the level
+     *         was never used; the caller can overwrite and push it again
+     */
+    @Original
+    public T recycle() {
+        return size < elements.length ? get(size) : null;
+    }
+
+    /**
+     * called for every object leaving the stack, by pop or clear
+     * 
+     * @param e
+     *        e
+     */
+    @Original
+    protected void release(T e) {
+        // nothing to do by default
     }
 
     /** clear the stack */
     @Original
     public void clear() {
-        list.clear();
+        while (size > 0) {
+            release(get(--size));
+        }
     }
 
     /** @return true if is empty */
     @PortedFrom(file = "tSaveStack.h", name = "empty")
     public boolean isEmpty() {
-        return list.isEmpty();
+        return size == 0;
     }
 }
@@ -8,6 +8,7 @@ package uk.ac.manchester.cs.jfact.helpers;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import uk.ac.manchester.cs.jfact.kernel.DlCompletionGraph;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
@@ -21,17 +22,37 @@ public class Stats implements Serializable {
     /** accumulated stats. */
     public static class AccumulatedStatistic implements Serializable {
 
+        /** name used in metrics snapshots. */
+        private final String name;
         /** accumulated statistic. */
-        private int total;
+        private long total;
         /** current session statistic. */
-        private int local;
+        private long local;
 
         /** c'tor: link itself to the list. */
         public AccumulatedStatistic() {
+            this("");
+        }
+
+        /**
+         * @param name name used in metrics snapshots
+         */
+        public AccumulatedStatistic(String name) {
+            this.name = name;
             total = 0;
             local = 0;
         }
 
+        /** @return name used in metrics snapshots */
+        public String getName() {
+            return name;
+        }
+
+        /** @return accumulated and current session values together */
+        public long get() {
+            return total + local;
+        }
+
         /** increment local value. */
         public void inc() {
             ++local;
@@ -64,66 +85,68 @@ public class Stats implements Serializable {
     /** all AccumulatedStatistic members are linked together. */
     private final List<AccumulatedStatistic> root = new ArrayList<>();
     /** The n tactic calls. */
-    private final AccumulatedStatistic nTacticCalls = build(root);
+    private final AccumulatedStatistic nTacticCalls = build(root, "nTacticCalls");
     /** The n useless. */
-    private final AccumulatedStatistic nUseless = build(root);
+    private final AccumulatedStatistic nUseless = build(root, "nUseless");
     /** The n id calls. */
-    private final AccumulatedStatistic nIdCalls = build(root);
+    private final AccumulatedStatistic nIdCalls = build(root, "nIdCalls");
     /** The n singleton calls. */
-    private final AccumulatedStatistic nSingletonCalls = build(root);
+    private final AccumulatedStatistic nSingletonCalls = build(root, "nSingletonCalls");
     /** The n or calls. */
-    private final AccumulatedStatistic nOrCalls = build(root);
+    private final AccumulatedStatistic nOrCalls = build(root, "nOrCalls");
     /** The n or br calls. */
-    private final AccumulatedStatistic nOrBrCalls = build(root);
+    private final AccumulatedStatistic nOrBrCalls = build(root, "nOrBrCalls");
     /** The n and calls. */
-    private final AccumulatedStatistic nAndCalls = build(root);
+    private final AccumulatedStatistic nAndCalls = build(root, "nAndCalls");
     /** The n some calls. */
-    private final AccumulatedStatistic nSomeCalls = build(root);
+    private final AccumulatedStatistic nSomeCalls = build(root, "nSomeCalls");
     /** The n all calls. */
-    private final AccumulatedStatistic nAllCalls = build(root);
+    private final AccumulatedStatistic nAllCalls = build(root, "nAllCalls");
     /** The n func calls. */
-    private final AccumulatedStatistic nFuncCalls = build(root);
+    private final AccumulatedStatistic nFuncCalls = build(root, "nFuncCalls");
     /** The n le calls. */
-    private final AccumulatedStatistic nLeCalls = build(root);
+    private final AccumulatedStatistic nLeCalls = build(root, "nLeCalls");
     /** The n ge calls. */
-    private final AccumulatedStatistic nGeCalls = build(root);
+    private final AccumulatedStatistic nGeCalls = build(root, "nGeCalls");
     /** The n nn calls. */
-    private final AccumulatedStatistic nNNCalls = build(root);
+    private final AccumulatedStatistic nNNCalls = build(root, "nNNCalls");
     /** The n merge calls. */
-    private final AccumulatedStatistic nMergeCalls = build(root);
+    private final AccumulatedStatistic nMergeCalls = build(root, "nMergeCalls");
     /** The n auto empty lookups. */
-    private final AccumulatedStatistic nAutoEmptyLookups = build(root);
+    private final AccumulatedStatistic nAutoEmptyLookups = build(root, "nAutoEmptyLookups");
     /** The n auto trans lookups. */
-    private final AccumulatedStatistic nAutoTransLookups = build(root);
+    private final AccumulatedStatistic nAutoTransLookups = build(root, "nAutoTransLookups");
     /** The n s rule add. */
-    private final AccumulatedStatistic nSRuleAdd = build(root);
+    private final AccumulatedStatistic nSRuleAdd = build(root, "nSRuleAdd");
     /** The n s rule fire. */
-    private final AccumulatedStatistic nSRuleFire = build(root);
+    private final AccumulatedStatistic nSRuleFire = build(root, "nSRuleFire");
     /** The n state saves. */
-    private final AccumulatedStatistic nStateSaves = build(root);
+    private final AccumulatedStatistic nStateSaves = build(root, "nStateSaves");
     /** The n state restores. */
-    private final AccumulatedStatistic nStateRestores = build(root);
+    private final AccumulatedStatistic nStateRestores = build(root, "nStateRestores");
     /** The n node saves. */
-    private final AccumulatedStatistic nNodeSaves = build(root);
+    private final AccumulatedStatistic nNodeSaves = build(root, "nNodeSaves");
     /** The n node restores. */
-    private final AccumulatedStatistic nNodeRestores = build(root);
+    private final AccumulatedStatistic nNodeRestores = build(root, "nNodeRestores");
     /** The n lookups. */
-    private final AccumulatedStatistic nLookups = build(root);
+    private final AccumulatedStatistic nLookups = build(root, "nLookups");
     /** The n fairness violations. */
-    private final AccumulatedStatistic nFairnessViolations = build(root);
+    private final AccumulatedStatistic nFairnessViolations = build(root, "nFairnessViolations");
     // reasoning cache
     /** The n cache try. */
-    private final AccumulatedStatistic nCacheTry = build(root);
+    private final AccumulatedStatistic nCacheTry = build(root, "nCacheTry");
     /** The n cache failed no cache. */
-    private final AccumulatedStatistic nCacheFailedNoCache = build(root);
+    private final AccumulatedStatistic nCacheFailedNoCache = build(root, "nCacheFailedNoCache");
     /** The n cache failed shallow. */
-    private final AccumulatedStatistic nCacheFailedShallow = build(root);
+    private final AccumulatedStatistic nCacheFailedShallow = build(root, "nCacheFailedShallow");
     /** The n cache failed. */
-    private final AccumulatedStatistic nCacheFailed = build(root);
+    private final AccumulatedStatistic nCacheFailed = build(root, "nCacheFailed");
     /** The n cached sat. */
-    private final AccumulatedStatistic nCachedSat = build(root);
+    private final AccumulatedStatistic nCachedSat = build(root, "nCachedSat");
     /** The n cached unsat. */
-    private final AccumulatedStatistic nCachedUnsat = build(root);
+    private final AccumulatedStatistic nCachedUnsat = build(root, "nCachedUnsat");
+    /** backjump distances, in power of two buckets. */
+    private final long[] backjumps = new long[32];
 
     /**
      * @param list the list
@@ -135,6 +158,43 @@ public class Stats implements Serializable {
         return toReturn;
     }
 
+    /**
+     * @param list the list
+     * @param name name used in metrics snapshots
+     * @return the accumulated statistic
+     */
+    public static AccumulatedStatistic build(List<AccumulatedStatistic> list, String name) {
+        AccumulatedStatistic toReturn = new AccumulatedStatistic(name);
+        list.add(toReturn);
+        return toReturn;
+    }
+
+    /**
+     * Record a backtrack; bucket i of the histogram counts the backjumps over [2^i, 2^(i+1))
+     * branching levels.
+     * 
+     * @param levels number of branching levels undone
+     */
+    public void recordBackjump(int levels) {
+        if (levels > 0) {
+            backjumps[31 - Integer.numberOfLeadingZeros(levels)]++;
+        }
+    }
+
+    /** @return copy of the backjump distance histogram */
+    public long[] getBackjumps() {
+        return backjumps.clone();
+    }
+
+    /**
+     * Add all counters to a map, keyed by counter name; values already in the map are summed.
+     * 
+     * @param counters map to fill
+     */
+    public void collect(Map<String, Long> counters) {
+        root.forEach(s -> counters.merge(s.getName(), Long.valueOf(s.get()), Long::sum));
+    }
+
     /** Accumulate. */
     public void accumulate() {
         root.forEach(AccumulatedStatistic::accumulate);
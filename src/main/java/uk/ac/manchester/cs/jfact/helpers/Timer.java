@@ -11,9 +11,10 @@ import java.io.Serializable;
 public class Timer implements Serializable {
 
 
-    /** save the starting time of the timer */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    /** save the starting time of the timer, in nanoseconds */
     private long startTime;
-    /** calculated time between Start() and Stop() calls */
+    /** calculated time between Start() and Stop() calls, in nanoseconds */
     private long resultTime;
     /** flag to show timer is started */
     private boolean started;
@@ -31,9 +32,14 @@ public class Timer implements Serializable {
         resultTime = 0;
     }
 
-    /** @return delta */
+    /** @return delta in milliseconds */
     public long calcDelta() {
-        long finishTime = System.currentTimeMillis();
+        return calcDeltaNanos() / NANOS_PER_MILLI;
+    }
+
+    /** @return delta in nanoseconds */
+    public long calcDeltaNanos() {
+        long finishTime = System.nanoTime();
         // calculate difference between current time and start time
         return finishTime - startTime;
     }
@@ -41,7 +47,7 @@ public class Timer implements Serializable {
     /** start if not started */
     public void start() {
         if (!started) {
-            startTime = System.currentTimeMillis();
+            startTime = System.nanoTime();
             started = true;
         }
     }
@@ -50,17 +56,22 @@ public class Timer implements Serializable {
     public void stop() {
         if (started) {
             started = false;
-            resultTime += calcDelta();
+            resultTime += calcDeltaNanos();
         }
     }
 
-    /** @return time */
+    /** @return time in milliseconds */
     public long getResultTime() {
+        return resultTime / NANOS_PER_MILLI;
+    }
+
+    /** @return time in nanoseconds */
+    public long getResultTimeNanos() {
         return resultTime;
     }
 
     @Override
     public String toString() {
-        return "Elapsed: " + resultTime;
+        return "Elapsed: " + getResultTime();
     }
 }
@@ -322,6 +322,122 @@ public class Axiom implements Serializable {
         return DLTreeFactory.createSNFNot(result);
     }
 
+    /**
+     * The GCI holds trivially in a model where none of the triggers is used, i.e., no node is
+     * labelled with a trigger concept and no edge with a sub-role of a trigger role.
+     *
+     * @return primitive concepts and simple roles triggering the axiom, or null if the axiom
+     *         applies everywhere
+     */
+    @Original
+    @Nullable
+    public Set<NamedEntry> getTriggers() {
+        Set<NamedEntry> toReturn = null;
+        for (DLTree p : disjuncts) {
+            Set<NamedEntry> t = getTriggers(p, true, new HashSet<>());
+            if (t != null && (toReturn == null || t.size() < toReturn.size())) {
+                toReturn = t;
+            }
+        }
+        return toReturn;
+    }
+
+    /**
+     * @param p concept
+     * @param pos polarity of the concept
+     * @param visiting defined concepts being expanded
+     * @return entities one of which is used wherever P (or not P) holds, or null if there are
+     *         none
+     */
+    @Nullable
+    private static Set<NamedEntry> getTriggers(DLTree p, boolean pos, Set<Concept> visiting) {
+        switch (p.token()) {
+            case TOP:
+                return pos ? null : new HashSet<>();
+            case BOTTOM:
+                return pos ? new HashSet<>() : null;
+            case NOT:
+                return getTriggers(p.getChild(), !pos, visiting);
+            case CNAME:
+                return pos ? getTriggers(ClassifiableEntry.resolveSynonym(getConcept(p)),
+                    visiting) : null;
+            case AND:
+                return pos ? getSmallestTriggers(p.getChildren(), visiting)
+                    : getAllTriggers(p.getChildren(), visiting);
+            case FORALL:
+                // \ER.C
+                return pos ? null : getRoleTriggers(p, false, visiting);
+            case LE:
+                // >= n R.C
+                return pos ? null : getRoleTriggers(p, true, visiting);
+            default:
+                return null;
+        }
+    }
+
+    @Nullable
+    private static Set<NamedEntry> getTriggers(Concept c, Set<Concept> visiting) {
+        if (c.isSingleton()) {
+            return null;
+        }
+        if (c.isPrimitive()) {
+            Set<NamedEntry> toReturn = new HashSet<>();
+            toReturn.add(c);
+            return toReturn;
+        }
+        // a defined concept holds exactly where its definition does
+        DLTree desc = c.getDescription();
+        if (desc == null || !visiting.add(c)) {
+            return null;
+        }
+        Set<NamedEntry> toReturn = getTriggers(desc, true, visiting);
+        visiting.remove(c);
+        return toReturn;
+    }
+
+    @Nullable
+    private static Set<NamedEntry> getRoleTriggers(DLTree p, boolean posFiller,
+        Set<Concept> visiting) {
+        Role r = Role.resolveRole(p.getLeft());
+        Set<NamedEntry> filler = getTriggers(p.getRight(), posFiller, visiting);
+        if (r.isTop() || !r.isSimple()) {
+            return filler;
+        }
+        if (filler != null && filler.size() <= 1) {
+            return filler;
+        }
+        Set<NamedEntry> toReturn = new HashSet<>();
+        toReturn.add(r);
+        return toReturn;
+    }
+
+    /** @return triggers of the conjunction: the smallest ones of any conjunct */
+    @Nullable
+    private static Set<NamedEntry> getSmallestTriggers(List<DLTree> l, Set<Concept> visiting) {
+        Set<NamedEntry> toReturn = null;
+        for (DLTree p : l) {
+            Set<NamedEntry> t = getTriggers(p, true, visiting);
+            if (t != null && (toReturn == null || t.size() < toReturn.size())) {
+                toReturn = t;
+            }
+        }
+        return toReturn;
+    }
+
+    /** @return triggers of the disjunction of the negated concepts: the ones of all of them */
+    @Nullable
+    private static Set<NamedEntry> getAllTriggers(List<DLTree> l, Set<Concept> visiting) {
+        Set<NamedEntry> toReturn = new HashSet<>();
+        for (DLTree p : l) {
+            Set<NamedEntry> t = getTriggers(p, false, visiting);
+            if (t == null) {
+                return null;
+            }
+            toReturn.addAll(t);
+        }
+        return toReturn;
+    }
+
     /**
      * absorb into BOTTOM;
      * 
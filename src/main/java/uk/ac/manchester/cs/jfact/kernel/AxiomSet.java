@@ -5,10 +5,12 @@ import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.helpers.DLTree;
 import uk.ac.manchester.cs.jfact.helpers.DLTreeFactory;
@@ -115,7 +117,7 @@ public class AxiomSet implements Serializable {
      * @return size
      */
     @PortedFrom(file = "tAxiomSet.h", name = "size")
-    private int size() {
+    public int size() {
         return accumulator.size();
     }
 
@@ -136,6 +138,16 @@ public class AxiomSet implements Serializable {
         return DLTreeFactory.createSNFAnd(l);
     }
 
+    /**
+     * remove non-absorbed axioms that are taken care of elsewhere, so that getGCI() skips them
+     * 
+     * @param split true for the axioms taken care of
+     */
+    @Original
+    public void removeGCIs(Predicate<Axiom> split) {
+        accumulator.removeIf(split);
+    }
+
     /**
      * split given axiom
      * 
@@ -10,6 +10,7 @@ import static uk.ac.manchester.cs.jfact.helpers.Helper.*;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
 
@@ -17,7 +18,7 @@ import conformance.Original;
 import conformance.PortedFrom;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
-import uk.ac.manchester.cs.jfact.helpers.ArrayIntMap;
+import uk.ac.manchester.cs.jfact.helpers.LabelIndex;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 import uk.ac.manchester.cs.jfact.kernel.state.SaveState;
 
@@ -25,7 +26,7 @@ import uk.ac.manchester.cs.jfact.kernel.state.SaveState;
 @PortedFrom(file = "CGLabel.h", name = "CGLabel")
 public class CGLabel implements Serializable {
 
-    @Original private static int idcounter = 0;
+    @Original private static final AtomicInteger idcounter = new AtomicInteger();
     /** all simple concepts, labelled a node */
     @PortedFrom(file = "CGLabel.h", name = "scLabel") private final CWDArray scLabel;
     /** all complex concepts (ie, FORALL, GE), labelled a node */
@@ -50,7 +51,7 @@ public class CGLabel implements Serializable {
 
     @Original
     private static int getnewId() {
-        return idcounter++;
+        return idcounter.getAndIncrement();
     }
 
     /** @return simple concepts list */
@@ -67,13 +68,13 @@ public class CGLabel implements Serializable {
 
     /** @return simple concepts map */
     @Original
-    public ArrayIntMap getSimpleConceptsMap() {
+    public LabelIndex getSimpleConceptsMap() {
         return scLabel.getContainedConcepts();
     }
 
     /** @return complex concepts map */
     @Original
-    public ArrayIntMap getComplexConceptsMap() {
+    public LabelIndex getComplexConceptsMap() {
         return ccLabel.getContainedConcepts();
     }
 
@@ -10,13 +10,11 @@ import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import org.roaringbitmap.RoaringBitmap;
-
 import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
-import uk.ac.manchester.cs.jfact.helpers.ArrayIntMap;
 import uk.ac.manchester.cs.jfact.helpers.Helper;
+import uk.ac.manchester.cs.jfact.helpers.LabelIndex;
 import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
 
 /** List of concepts with dependencies */
@@ -25,8 +23,8 @@ public class CWDArray implements Serializable {
 
     /** array of concepts together with dep-sets */
     @PortedFrom(file = "CWDArray.h", name = "Base") private final List<ConceptWDep> base;
-    @Original @Nonnull private RoaringBitmap cache = new RoaringBitmap();
-    @Original private final ArrayIntMap indexes = new ArrayIntMap();
+    /** position of every concept in base */
+    @Original @Nonnull private final LabelIndex indexes = new LabelIndex();
     @Original private int size = 0;
     @Original private JFactReasonerConfiguration options;
 
@@ -45,7 +43,6 @@ public class CWDArray implements Serializable {
     @PortedFrom(file = "CWDArray.h", name = "init")
     public void init() {
         base.clear();
-        cache.clear();
         indexes.clear();
         size = 0;
     }
@@ -59,10 +56,10 @@ public class CWDArray implements Serializable {
     }
 
     /**
-     * @return contained concept map
+     * @return contained concept index
      */
     @Original
-    public ArrayIntMap getContainedConcepts() {
+    public LabelIndex getContainedConcepts() {
         return indexes;
     }
 
@@ -76,8 +73,7 @@ public class CWDArray implements Serializable {
     protected void privateAdd(ConceptWDep p) {
         base.add(p);
         size++;
-        cache.add(asPositive(p.getConcept()));
-        indexes.put(p.getConcept(), size - 1);
+        indexes.add(p.getConcept());
     }
 
     /**
@@ -87,12 +83,7 @@ public class CWDArray implements Serializable {
      */
     @PortedFrom(file = "CWDArray.h", name = "contains")
     public boolean contains(int bp) {
-        return cache.contains(asPositive(bp));
-    }
-
-    @Original
-    private static int asPositive(int p) {
-        return p >= 0 ? 2 * p : 1 - 2 * p;
+        return indexes.containsKey(bp);
     }
 
     /**
@@ -102,10 +93,6 @@ public class CWDArray implements Serializable {
      */
     @PortedFrom(file = "CWDArray.h", name = "index")
     public int index(int bp) {
-        // check that the index actually exist: quicker
-        if (!cache.contains(asPositive(bp))) {
-            return -1;
-        }
         return indexes.get(bp);
     }
 
@@ -132,10 +119,6 @@ public class CWDArray implements Serializable {
     @Nullable
     @Original
     public ConceptWDep getConceptWithBP(int bp) {
-        // check that the index actually exist: quicker
-        if (!cache.contains(asPositive(bp))) {
-            return null;
-        }
         int i = indexes.get(bp);
         if (i < 0) {
             return null;
@@ -158,9 +141,11 @@ public class CWDArray implements Serializable {
      */
     @PortedFrom(file = "CWDArray.h", name = "<=")
     public boolean lesserequal(CWDArray label) {
-        // use the cache on the label if there is one
-        for (int i : cache) {
-            if (!label.cache.contains(i)) {
+        if (size > label.size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!label.indexes.containsKey(indexes.keyAt(i))) {
                 return false;
             }
         }
@@ -237,18 +222,21 @@ public class CWDArray implements Serializable {
     public void restore(int ss, int level) {
         // count the number of entries /not/ deleted
         int count = 0;
-        for (int i = ss; i < size; i++) {
-            // if backjumping is enabled, an entity is deleted only if the
-            // depset level is the same or above level, otherwise the entry is
-            // kept
-            if (!options.isUseDynamicBackjumping() || base.get(i).getDep().level() >= level) {
-                int concept = base.get(i).getConcept();
-                indexes.remove(concept);
-                cache.remove(asPositive(concept));
-            } else {
-                count++;
+        if (options.isUseDynamicBackjumping()) {
+            for (int i = ss; i < size; i++) {
+                // if backjumping is enabled, an entity is deleted only if the
+                // depset level is the same or above level, otherwise the entry
+                // is kept, moved down to the first free position
+                ConceptWDep p = base.get(i);
+                if (p.getDep().level() < level) {
+                    int to = ss + count++;
+                    base.set(to, p);
+                    indexes.set(to, p.getConcept());
+                }
             }
         }
+        // dropping the tail is O(1) in the index
+        indexes.truncate(ss + count);
         Helper.resize(base, ss + count, null);
         size = ss + count;
     }
@@ -0,0 +1,352 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.kernel.KBStatus.KBCLASSIFIED;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLRuntimeException;
+import org.semanticweb.owlapitools.decomposition.AxiomWrapper;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheConst;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheIan;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheSingleton;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+
+/**
+ * On-disk store of classification results, one file per ontology fingerprint. A file keeps the
+ * taxonomy image of the classified TBox and the model caches of its DAG. Files are read through a
+ * memory mapped buffer. A file whose format version or fingerprint does not match, or that is
+ * truncated, is ignored. Model caches refer to DAG positions and concept and role indexes, so they
+ * are only restored if the preprocessed DAG has the same signature as the stored one; the
+ * taxonomy only refers to entity IRIs and is restored in any case.
+ */
+@Original
+public class ClassificationStore {
+
+    /** "JFCC" */
+    private static final int MAGIC = 0x4A464343;
+    /** format version; bump on any change to the layout */
+    private static final int VERSION = 3;
+    private static final byte CONST = 0;
+    private static final byte SINGLETON = 1;
+    private static final byte IAN = 2;
+    private final File directory;
+
+    /**
+     * @param directory directory holding the stored classifications
+     */
+    public ClassificationStore(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @param ontology ontology
+     * @return stable fingerprint of the used axioms of the ontology; independent of the axiom
+     *         order
+     */
+    public static String fingerprint(Ontology ontology) {
+        List<String> axioms = new ArrayList<>(ontology.size());
+        for (AxiomWrapper a : ontology.getAxioms()) {
+            if (a.isUsed()) {
+                axioms.add(a.getAxiom().toString());
+            }
+        }
+        Collections.sort(axioms);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String s : axioms) {
+                digest.update(s.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            StringBuilder b = new StringBuilder();
+            for (byte x : digest.digest()) {
+                b.append(Character.forDigit(x >> 4 & 0xF, 16))
+                    .append(Character.forDigit(x & 0xF, 16));
+            }
+            return b.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every Java platform
+            throw new OWLRuntimeException(e);
+        }
+    }
+
+    private Path file(String fingerprint) {
+        return new File(directory, fingerprint + ".jfc").toPath();
+    }
+
+    /**
+     * store the classification of a classified TBox; the file is replaced atomically where the
+     * file system supports it, so that concurrent readers never see a partial file
+     *
+     * @param fingerprint ontology fingerprint
+     * @param tbox classified TBox
+     * @throws IOException if the file cannot be written
+     */
+    public void save(String fingerprint, TBox tbox) throws IOException {
+        Files.createDirectories(directory.toPath());
+        Path target = file(fingerprint);
+        Path tmp = Files.createTempFile(directory.toPath(), fingerprint, ".tmp");
+        try {
+            try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, fingerprint);
+                new TaxonomyImage(tbox.getTaxonomy()).write(out);
+                writeCaches(out, tbox.getDLHeap());
+            }
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * replace a file with another, atomically if the file system supports it
+     *
+     * @param source new content
+     * @param target file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (@SuppressWarnings("unused") AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * restore a stored classification into a TBox that has been checked for consistency but not
+     * classified yet
+     *
+     * @param fingerprint ontology fingerprint
+     * @param tbox consistent TBox
+     * @param entities maps {@link TaxonomyImage#key(OWLEntity)} keys of the ontology signature to
+     *        their entities
+     * @param resolve maps entities to the entries of the TBox
+     * @return true if a matching classification was found and restored
+     */
+    public boolean load(String fingerprint, TBox tbox, Function<String, OWLEntity> entities,
+        Function<OWLEntity, ClassifiableEntry> resolve) {
+        Path path = file(fingerprint);
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION
+                || !fingerprint.equals(readString(in))) {
+                return false;
+            }
+            TaxonomyImage image = TaxonomyImage.read(in, entities);
+            List<ModelCacheInterface> caches = new ArrayList<>();
+            int[] positions = readCaches(in, tbox, caches);
+            tbox.restoreClassification(image, resolve);
+            if (positions != null) {
+                DLDag dag = tbox.getDLHeap();
+                int restored = 0;
+                for (int i = 0; i < positions.length; i++) {
+                    if (dag.getCache(positions[i]) == null) {
+                        dag.setCache(positions[i], caches.get(i));
+                        restored++;
+                    }
+                }
+                tbox.addCounter("nRestoredCaches", restored);
+            }
+            return tbox.getStatus() == KBCLASSIFIED;
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException
+            | IndexOutOfBoundsException e) {
+            // unreadable or truncated file: classify as usual
+            tbox.getOptions().getLog().print("\nIgnoring classification cache ", path, ": ", e);
+            return false;
+        }
+    }
+
+    private static void writeCaches(DataOutput out, DLDag dag) throws IOException {
+        out.writeLong(dag.signature());
+        List<ModelCacheInterface> caches = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 1; i < dag.size(); i++) {
+            addCache(dag, i, caches, positions);
+            addCache(dag, -i, caches, positions);
+        }
+        writeInt(out, caches.size());
+        for (int i = 0; i < caches.size(); i++) {
+            writeInt(out, zigzag(positions.get(i).intValue()));
+            writeCache(out, caches.get(i));
+        }
+    }
+
+    private static void addCache(DLDag dag, int p, List<ModelCacheInterface> caches,
+        List<Integer> positions) {
+        ModelCacheInterface cache = dag.getCache(p);
+        if (cache != null) {
+            switch (cache.getCacheType()) {
+                case CONST:
+                case SINGLETON:
+                case IAN:
+                    caches.add(cache);
+                    positions.add(Integer.valueOf(p));
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static void writeCache(DataOutput out, ModelCacheInterface cache) throws IOException {
+        switch (cache.getCacheType()) {
+            case CONST:
+                out.writeByte(CONST);
+                out.writeBoolean(((ModelCacheConst) cache).getConst());
+                break;
+            case SINGLETON:
+                out.writeByte(SINGLETON);
+                writeInt(out, zigzag(((ModelCacheSingleton) cache).getValue()));
+                break;
+            default:
+                out.writeByte(IAN);
+                out.writeBoolean(cache.isHasNominalNode());
+                out.writeBoolean(cache.isHasActiveSplits());
+                out.writeByte(cache.getState().ordinal());
+                for (int[] set : ((ModelCacheIan) cache).getSets()) {
+                    writeSortedInts(out, set);
+                }
+                break;
+        }
+    }
+
+    /** @return DAG positions of the caches, or null if the DAG does not match the stored one */
+    @Nullable
+    private static int[] readCaches(ByteBuffer in, TBox tbox, List<ModelCacheInterface> caches) {
+        boolean sameDag = in.getLong() == tbox.getDLHeap().signature();
+        if (!sameDag) {
+            return null;
+        }
+        int n = readInt(in);
+        int[] positions = new int[n];
+        for (int i = 0; i < n; i++) {
+            positions[i] = unzigzag(readInt(in));
+            caches.add(readCache(in, tbox));
+        }
+        return positions;
+    }
+
+    private static ModelCacheInterface readCache(ByteBuffer in, TBox tbox) {
+        byte type = in.get();
+        switch (type) {
+            case CONST:
+                return new ModelCacheConst(in.get() != 0);
+            case SINGLETON:
+                return new ModelCacheSingleton(unzigzag(readInt(in)));
+            case IAN:
+                boolean nominals = in.get() != 0;
+                boolean splits = in.get() != 0;
+                ModelCacheState state = ModelCacheState.values()[in.get()];
+                int[][] sets = new int[9][];
+                for (int i = 0; i < sets.length; i++) {
+                    sets[i] = readSortedInts(in);
+                }
+                ModelCacheIan cache = new ModelCacheIan(nominals, tbox.nC, tbox.nR.get(),
+                    tbox.getOptions(), state, sets);
+                cache.setHasActiveSplits(splits);
+                return cache;
+            default:
+                throw new IllegalArgumentException("Unknown model cache type " + type);
+        }
+    }
+
+    // compact encoding: unsigned varints, zigzag for signed values, deltas for sorted sets
+    private static int zigzag(int i) {
+        return i << 1 ^ i >> 31;
+    }
+
+    private static int unzigzag(int i) {
+        return i >>> 1 ^ -(i & 1);
+    }
+
+    static void writeInt(DataOutput out, int value) throws IOException {
+        int v = value;
+        while ((v & ~0x7F) != 0) {
+            out.writeByte(v & 0x7F | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    static int readInt(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    /** values should be sorted, so that deltas are short */
+    static void writeSortedInts(DataOutput out, int[] values) throws IOException {
+        writeInt(out, values.length);
+        int last = 0;
+        for (int i : values) {
+            writeInt(out, i - last);
+            last = i;
+        }
+    }
+
+    static int[] readSortedInts(ByteBuffer in) {
+        int[] toReturn = new int[readInt(in)];
+        int last = 0;
+        for (int i = 0; i < toReturn.length; i++) {
+            last += readInt(in);
+            toReturn[i] = last;
+        }
+        return toReturn;
+    }
+
+    static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readInt(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -12,6 +12,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -20,6 +21,7 @@ import javax.annotation.Nullable;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapitools.decomposition.Signature;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
 import uk.ac.manchester.cs.jfact.kernel.Concept.CTTag;
@@ -64,6 +66,9 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
     /** number of non-subsumptions because of module reasons */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "nModuleNegative")
     private long nModuleNegative = 0;
+    /** number of cache merge tests, conclusive or not */
+    @Original
+    private long nCachedTests = 0;
     // flags
     /** flag to use Bottom-Up search */
     @PortedFrom(file = "DLConceptTaxonomy.h", name = "flagNeedBottomUp")
@@ -228,6 +233,7 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
             ++nModuleNegative;
             return false;
         }
+        ++nCachedTests;
         switch (tBox.testCachedNonSubsumption(p, q)) {
             case VALID:
                 // cached result: satisfiable => non-subsumption
@@ -280,6 +286,26 @@ public class DLConceptTaxonomy extends TaxonomyCreator {
         return res;
     }
 
+    /**
+     * Add the subsumption test counters to a map, keyed by counter name.
+     * 
+     * @param counters map to fill
+     */
+    @Original
+    public void collect(Map<String, Long> counters) {
+        counters.put("nTries", Long.valueOf(nTries));
+        counters.put("nPositives", Long.valueOf(nPositives));
+        counters.put("nNegatives", Long.valueOf(nNegatives));
+        counters.put("nSearchCalls", Long.valueOf(nSearchCalls));
+        counters.put("nSubCalls", Long.valueOf(nSubCalls));
+        counters.put("nNonTrivialSubCalls", Long.valueOf(nNonTrivialSubCalls));
+        counters.put("nCachedTests", Long.valueOf(nCachedTests));
+        counters.put("nCachedPositive", Long.valueOf(nCachedPositive));
+        counters.put("nCachedNegative", Long.valueOf(nCachedNegative));
+        counters.put("nSortedNegative", Long.valueOf(nSortedNegative));
+        counters.put("nModuleNegative", Long.valueOf(nModuleNegative));
+    }
+
     @Override
     public String toString() {
         StringBuilder o = new StringBuilder();
@@ -14,10 +14,12 @@ import static uk.ac.manchester.cs.jfact.helpers.Helper.resize;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
@@ -45,7 +47,12 @@ public class DLDag implements Serializable {
     /** body of DAG */
     @PortedFrom(file = "dlDag.h", name = "Heap")
     private final List<DLVertex> heap = new ArrayList<>();
-    private Set<NamedEntry> cache = new HashSet<>();
+    /** index of the first vertex containing a given concept */
+    @Original
+    private final Map<NamedEntry, Integer> conceptIndex = new HashMap<>();
+    /** indexes of the other vertices containing a concept, if there are any */
+    @Original
+    private final Map<NamedEntry, TreeSet<Integer>> duplicateIndex = new HashMap<>();
     /** all the AND nodes (needs to recompute) */
     @PortedFrom(file = "dlDag.h", name = "listAnds")
     private final FastSet listAnds = FastSetFactory.create();
@@ -60,6 +67,9 @@ public class DLDag implements Serializable {
     /** sort index (if necessary). Possible values are Size, Depth, Freq */
     @PortedFrom(file = "dlDag.h", name = "iSort")
     private int iSort;
+    /** whether disjuncts are sorted by their clash rate rather than by a static statistic */
+    @Original
+    private boolean adaptiveSort;
     /** whether or not sorting order is ascending */
     @PortedFrom(file = "dlDag.h", name = "sortAscend")
     private boolean sortAscend;
@@ -71,8 +81,15 @@ public class DLDag implements Serializable {
     private boolean useDLVCache;
     @PortedFrom(file = "dlDag.h", name = "finalDagSize")
     private int finalDagSize;
+    /** whether frequency statistics were gathered */
+    @Original
+    private boolean frequencyGathered;
     @Original
     private final JFactReasonerConfiguration options;
+    /** OR sorting order of subsumption tests chosen for this DAG; null to use the options */
+    @Original
+    @Nullable
+    private String subOrder;
 
     /**
      * @param options Options
@@ -107,9 +124,62 @@ public class DLDag implements Serializable {
      */
     @PortedFrom(file = "dlDag.h", name = "replaceVertex")
     public void replaceVertex(int i, DLVertex v, NamedEntry c) {
-        heap.set(i > 0 ? i : -i, v);
+        int n = i > 0 ? i : -i;
+        unindex(n);
+        heap.set(n, v);
         v.setConcept(c);
-        cache.clear();
+        addToIndex(c, n);
+    }
+
+    /**
+     * add the vertex at index I to the concept index; the first vertex of a concept is the
+     * indexed one, the others are kept as duplicates
+     * 
+     * @param c concept
+     * @param i index
+     */
+    @Original
+    private void addToIndex(NamedEntry c, int i) {
+        Integer first = conceptIndex.putIfAbsent(c, Integer.valueOf(i));
+        if (first == null || first.intValue() == i) {
+            return;
+        }
+        TreeSet<Integer> duplicates = duplicateIndex.computeIfAbsent(c, k -> new TreeSet<>());
+        if (first.intValue() < i) {
+            duplicates.add(Integer.valueOf(i));
+        } else {
+            duplicates.add(first);
+            conceptIndex.put(c, Integer.valueOf(i));
+        }
+    }
+
+    /**
+     * remove the vertex at index I from the concept index; if it was the indexed vertex of its
+     * concept, the first duplicate takes its place
+     * 
+     * @param i index
+     */
+    @Original
+    private void unindex(int i) {
+        DLVertex old = heap.get(i);
+        if (!old.hasConcept()) {
+            return;
+        }
+        NamedEntry c = old.getConcept();
+        TreeSet<Integer> duplicates = duplicateIndex.get(c);
+        if (duplicates != null) {
+            duplicates.remove(Integer.valueOf(i));
+        }
+        if (!conceptIndex.remove(c, Integer.valueOf(i))) {
+            // a later duplicate: the indexed vertex is untouched
+            return;
+        }
+        if (duplicates != null && !duplicates.isEmpty()) {
+            conceptIndex.put(c, duplicates.pollFirst());
+        }
+        if (duplicates != null && duplicates.isEmpty()) {
+            duplicateIndex.remove(c);
+        }
     }
 
     /**
@@ -118,13 +188,8 @@ public class DLDag implements Serializable {
      */
     @PortedFrom(file = "dlDag.h", name = "index")
     public int index(NamedEntry c) {
-        for (int i = 0; i < heap.size(); i++) {
-            DLVertex v = heap.get(i);
-            if (v.hasConcept() && v.getConcept().equals(c)) {
-                return i;
-            }
-        }
-        return BP_INVALID;
+        Integer i = conceptIndex.get(c);
+        return i == null ? BP_INVALID : i.intValue();
     }
 
     /**
@@ -134,7 +199,7 @@ public class DLDag implements Serializable {
      * @return true if correct
      */
     @PortedFrom(file = "dlDag.h", name = "isCorrectOption")
-    private static boolean isCorrectOption(@Nullable String str) {
+    static boolean isCorrectOption(@Nullable String str) {
         if (str == null) {
             return false;
         }
@@ -146,7 +211,7 @@ public class DLDag implements Serializable {
         char order = n >= 2 ? str.charAt(1) : 'a';
         char ngPref = n == 3 ? str.charAt(2) : 'p';
         return (method == 'S' || method == 'D' || method == 'F' || method == 'B' || method == 'G'
-            || method == '0') && (order == 'a' || order == 'd') && (ngPref == 'p' || ngPref == 'n');
+            || method == 'A' || method == '0') && (order == 'a' || order == 'd') && (ngPref == 'p' || ngPref == 'n');
     }
 
     /** change order of ADD elements wrt statistic */
@@ -189,32 +254,19 @@ public class DLDag implements Serializable {
      */
     @PortedFrom(file = "dlDag.h", name = "directAdd")
     public int directAdd(DLVertex v, boolean knownNew) {
-        if (knownNew) {
-            heap.add(v);
-            cache.add(v.getConcept());
-            // return an index of just added entry
-            return heap.size() - 1;
-        }
-        if (cache.isEmpty()) {
-            for (DLVertex v1 : heap) {
-                if (v1.hasConcept()) {
-                    cache.add(v1.getConcept());
-                }
+        if (!knownNew && v.hasConcept()) {
+            int index = index(v.getConcept());
+            if (index != BP_INVALID) {
+                return index;
             }
         }
-        // looks like the cache used to contain null keys, dubious
+        heap.add(v);
+        int index = heap.size() - 1;
         if (v.hasConcept()) {
-            if (cache.contains(v.getConcept())) {
-                int index = index(v.getConcept());
-                if (index != BP_INVALID) {
-                    return index;
-                }
-            }
-            cache.add(v.getConcept());
+            addToIndex(v.getConcept(), index);
         }
-        heap.add(v);
         // return an index of just added entry
-        return heap.size() - 1;
+        return index;
     }
 
     /**
@@ -282,7 +334,28 @@ public class DLDag implements Serializable {
     /** use SUB options to OR ordering */
     @PortedFrom(file = "dlDag.h", name = "setSubOrder")
     public void setSubOrder() {
-        setOrderOptions(options.getORSortSub());
+        setOrderOptions(getSubOrder());
+    }
+
+    /**
+     * use the given OR ordering for subsumption tests of this DAG, regardless of the options; the
+     * options, which can be shared with other reasoners, are left untouched
+     * 
+     * @param order OR sorting order
+     */
+    @Original
+    public void setSubOrder(String order) {
+        assert isCorrectOption(order);
+        subOrder = order;
+        setSubOrder();
+    }
+
+    /**
+     * @return OR sorting order of subsumption tests
+     */
+    @Original
+    public String getSubOrder() {
+        return subOrder == null ? options.getORSortSub() : subOrder;
     }
 
     /** use SAT options to OR ordering; */
@@ -391,6 +464,38 @@ public class DLDag implements Serializable {
         return ret;
     }
 
+    /**
+     * @return hash of the DAG structure: vertex tags, operands, roles, numbers and named entries
+     *         with their indexes. Equal signatures mean that bipolar pointers, concept and role
+     *         indexes of two DAGs can be exchanged, e.g., by persisted model caches.
+     */
+    @Original
+    public long signature() {
+        long h = size();
+        for (int i = 1; i < size(); i++) {
+            DLVertex v = heap.get(i);
+            h = h * 31 + v.getType().ordinal();
+            h = h * 31 + v.getConceptIndex();
+            h = h * 31 + v.getNumberLE();
+            // operands are kept in OR sorting order, which changes between tests
+            long operands = 0;
+            for (int q : v.begin()) {
+                operands += q * 0x9E3779B97F4A7C15L;
+            }
+            h = h * 31 + operands;
+            Role r = v.getRole();
+            h = h * 31 + (r == null ? -1 : r.getIndex());
+            NamedEntry c = v.getConcept();
+            if (c != null) {
+                h = h * 31 + String.valueOf(c.getIRI()).hashCode();
+                if (c instanceof ClassifiableEntry) {
+                    h = h * 31 + ((ClassifiableEntry) c).getIndex();
+                }
+            }
+        }
+        return h;
+    }
+
     /** set the DAG size */
     @PortedFrom(file = "dlDag.h", name = "setFinalSize")
     public void setFinalSize() {
@@ -403,6 +508,7 @@ public class DLDag implements Serializable {
     @SuppressWarnings("incomplete-switch")
     public void removeQuery() {
         for (int i = size() - 1; i >= finalDagSize; --i) {
+            unindex(i);
             DLVertex v = heap.get(i);
             switch (v.getType()) {
                 case DATATYPE:
@@ -421,7 +527,6 @@ public class DLDag implements Serializable {
             }
         }
         resize(heap, finalDagSize, null);
-        cache.clear();
     }
 
     /**
@@ -453,6 +558,7 @@ public class DLDag implements Serializable {
         }
         sortAscend = opt.charAt(1) == 'a';
         preferNonGen = opt.charAt(2) == 'p';
+        adaptiveSort = opt.charAt(0) == 'A';
         iSort = StatIndex.choose(opt.charAt(0));
         recompute();
     }
@@ -639,10 +745,22 @@ public class DLDag implements Serializable {
                 computeVertexStat(v, pos, 0);
             }
         }
-        // if necessary -- gather frequency
-        if (options.getORSortSat().charAt(0) != 'F' && options.getORSortSub().charAt(0) != 'F') {
+        // if necessary -- gather frequency; adaptive sorting uses it to break ties
+        if (usesFrequency(options.getORSortSat()) || usesFrequency(options.getORSortSub())) {
+            gatherFrequency();
+        }
+    }
+
+    /**
+     * gather frequency statistics, needed by the 'F' and 'A' sorting orders; does nothing if they
+     * were already gathered
+     */
+    @Original
+    public void gatherFrequency() {
+        if (frequencyGathered) {
             return;
         }
+        frequencyGathered = true;
         clearDFS();
         for (int i = size() - 1; i > 1; --i) {
             if (get(i).getType().isCNameTag()) {
@@ -651,6 +769,10 @@ public class DLDag implements Serializable {
         }
     }
 
+    private static boolean usesFrequency(String opt) {
+        return opt.charAt(0) == 'F' || opt.charAt(0) == 'A';
+    }
+
     /**
      * @param p1 p1
      * @param p2 p2
@@ -671,6 +793,9 @@ public class DLDag implements Serializable {
         }
         DLVertex v1 = get(p1);
         DLVertex v2 = get(p2);
+        if (adaptiveSort) {
+            return compareClashRate(v1, p1 < 0, v2, p2 < 0);
+        }
         int key1 = v1.getStat(iSort);
         int key2 = v2.getStat(iSort);
         if (key1 == key2) {
@@ -683,6 +808,71 @@ public class DLDag implements Serializable {
         }
     }
 
+    /**
+     * compare the disjuncts ~p1 and ~p2 of an OR by the fraction of their additions to a label
+     * that caused a clash; ties are broken by preferring the most referenced one
+     * 
+     * @param v1 vertex of the first disjunct
+     * @param pos1 polarity of the first disjunct
+     * @param v2 vertex of the second disjunct
+     * @param pos2 polarity of the second disjunct
+     * @return comparison result
+     */
+    @Original
+    private int compareClashRate(DLVertex v1, boolean pos1, DLVertex v2, boolean pos2) {
+        return compareClashRate(clashRate(v1, pos1), clashRate(v2, pos2));
+    }
+
+    /**
+     * @param v vertex of a disjunct
+     * @param pos polarity of the disjunct
+     * @return clash count, usage count and reference frequency of the disjunct, read once
+     */
+    private static long[] clashRate(DLVertex v, boolean pos) {
+        return new long[] {v.getClash(pos), v.getUsage(pos),
+            v.getStat(StatIndex.FREQ.getIndex(false))};
+    }
+
+    private int compareClashRate(long[] r1, long[] r2) {
+        // c1/(u1+1) vs c2/(u2+1), without divisions
+        int c = Long.compare(r1[0] * (r2[1] + 1), r2[0] * (r1[1] + 1));
+        if (c == 0) {
+            c = Long.compare(r2[2], r1[2]);
+        }
+        return sortAscend ? c : -c;
+    }
+
+    /**
+     * sort the arguments of an AND vertex. With adaptive sorting, the clash and usage counts of
+     * all the arguments are read before sorting: the workers of parallel classification keep
+     * changing them, and live counts would make the comparison inconsistent.
+     * 
+     * @param l arguments to sort
+     * @param order comparison to use for static sorting
+     */
+    @Original
+    public void sort(List<Integer> l, Comparator<Integer> order) {
+        if (!adaptiveSort) {
+            l.sort(order);
+            return;
+        }
+        Map<Integer, long[]> rates = new HashMap<>();
+        for (Integer p : l) {
+            rates.put(p, clashRate(get(p.intValue()), p.intValue() < 0));
+        }
+        l.sort((a, b) -> {
+            int p1 = a.intValue();
+            int p2 = b.intValue();
+            if (p1 == p2) {
+                return 0;
+            }
+            if (preferNonGen && (p1 < 0) != (p2 < 0)) {
+                return p1 < 0 ? -1 : 1;
+            }
+            return compareClashRate(rates.get(a), rates.get(b));
+        });
+    }
+
     /**
      * @param o debug dag usage
      */
@@ -0,0 +1,159 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.kernel.ClassifiableEntry.resolveSynonym;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.datatypes.Literal;
+
+/**
+ * Data role assertions of the ABox, by individual and data role. Assertions are recorded when
+ * the ontology is loaded; on first use after that they are closed under the data role hierarchy,
+ * so that the values of an individual via a role are found without any tableau test. Only told
+ * values are known: values implied by concepts, e.g., value restrictions in the types of an
+ * individual, are not.
+ */
+@Original
+public class DataValueIndex implements Serializable {
+
+    /** told values, by individual and data role */
+    private final Map<Individual, Map<Role, List<Literal<?>>>> told = new IdentityHashMap<>();
+    /** told values of the individuals, also by super-role; built on first use */
+    @Nullable
+    private Map<Individual, Map<Role, Set<Literal<?>>>> values;
+
+    /**
+     * @param i individual
+     * @param r data role
+     * @param v value
+     */
+    public void add(Individual i, Role r, Literal<?> v) {
+        told.computeIfAbsent(i, k -> new IdentityHashMap<>())
+            .computeIfAbsent(r, k -> new ArrayList<>()).add(v);
+        values = null;
+    }
+
+    /**
+     * @param i individual
+     * @param r data role; the top role gives all the values of the individual
+     * @return values of i via r or any of its sub-roles
+     */
+    public Set<Literal<?>> getValues(Individual i, Role r) {
+        Map<Role, Set<Literal<?>>> m = closure().get(resolveSynonym(i));
+        if (m == null) {
+            return Collections.emptySet();
+        }
+        if (r.isTop()) {
+            Set<Literal<?>> toReturn = new LinkedHashSet<>();
+            m.values().forEach(toReturn::addAll);
+            return toReturn;
+        }
+        return m.getOrDefault(resolveSynonym(r), Collections.emptySet());
+    }
+
+    private Map<Individual, Map<Role, Set<Literal<?>>>> closure() {
+        Map<Individual, Map<Role, Set<Literal<?>>>> toReturn = values;
+        if (toReturn != null) {
+            return toReturn;
+        }
+        toReturn = new IdentityHashMap<>();
+        for (Map.Entry<Individual, Map<Role, List<Literal<?>>>> e : told.entrySet()) {
+            Map<Role, Set<Literal<?>>> m =
+                toReturn.computeIfAbsent(resolveSynonym(e.getKey()), k -> new IdentityHashMap<>());
+            for (Map.Entry<Role, List<Literal<?>>> v : e.getValue().entrySet()) {
+                Role r = resolveSynonym(v.getKey());
+                m.computeIfAbsent(r, k -> new LinkedHashSet<>()).addAll(v.getValue());
+                for (Role a : r.getAncestor()) {
+                    m.computeIfAbsent(resolveSynonym(a), k -> new LinkedHashSet<>())
+                        .addAll(v.getValue());
+                }
+            }
+        }
+        values = toReturn;
+        return toReturn;
+    }
+
+    /**
+     * @param i individual
+     * @param r first data role
+     * @param s second data role
+     * @param op comparison: 0 is =, 1 is !=, 2 is &lt;, 3 is &lt;=, 4 is &gt;, 5 is &gt;=
+     * @return true if some value of i via r is related by op to some value of i via s
+     */
+    public boolean isDataRelated(Individual i, Role r, Role s, int op) {
+        Set<Literal<?>> rValues = getValues(i, r);
+        Set<Literal<?>> sValues = getValues(i, s);
+        for (Literal<?> a : rValues) {
+            for (Literal<?> b : sValues) {
+                if (check(compare(a, b), op)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean check(@Nullable Integer c, int op) {
+        if (op == 1) {
+            // values from disjoint value spaces are different
+            return c == null || c.intValue() != 0;
+        }
+        if (c == null) {
+            return false;
+        }
+        int v = c.intValue();
+        switch (op) {
+            case 0:
+                return v == 0;
+            case 2:
+                return v < 0;
+            case 3:
+                return v <= 0;
+            case 4:
+                return v > 0;
+            case 5:
+                return v >= 0;
+            default:
+                throw new IllegalArgumentException("Illegal operation in isDataRelated(): " + op);
+        }
+    }
+
+    /** @return comparison of the values, or null if they are not comparable */
+    @Nullable
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Integer compare(Literal<?> a, Literal<?> b) {
+        Object x = a.typedValue();
+        Object y = b.typedValue();
+        if (a.getDatatypeExpression().isNumericDatatype()
+            && b.getDatatypeExpression().isNumericDatatype()) {
+            try {
+                return Integer.valueOf(
+                    new BigDecimal(x.toString()).compareTo(new BigDecimal(y.toString())));
+            } catch (NumberFormatException e) {
+                // NaN and infinities are not comparable
+                return null;
+            }
+        }
+        if (x.getClass() == y.getClass()
+            && a.getDatatypeExpression().isCompatible(b.getDatatypeExpression())) {
+            return Integer.valueOf(((Comparable) x).compareTo(y));
+        }
+        return null;
+    }
+}
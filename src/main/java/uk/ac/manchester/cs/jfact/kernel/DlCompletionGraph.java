@@ -5,17 +5,22 @@ package uk.ac.manchester.cs.jfact.kernel;
  This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.helpers.Helper.BP_BOTTOM;
+import static uk.ac.manchester.cs.jfact.helpers.Helper.BP_TOP;
 import static uk.ac.manchester.cs.jfact.helpers.Helper.INITBRANCHINGLEVELVALUE;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import conformance.Original;
 import conformance.PortedFrom;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import uk.ac.manchester.cs.chainsaw.FastSet;
 import uk.ac.manchester.cs.chainsaw.FastSetFactory;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
@@ -92,6 +97,12 @@ public class DlCompletionGraph implements Serializable {
     /** whether to use Anywhere blocking as opposed to an ancestor one */
     @PortedFrom(file = "dlCompletionGraph.h", name = "useAnywhereBlocking")
     private boolean useAnywhereBlocking;
+    /**
+     * candidate blockers for anywhere blocking: for every concept, the ids of the nodes that got it
+     * in their label since the graph was cleared. Bits are not removed on restore, every candidate
+     * is checked again by isBlockedBy()
+     */
+    @Original private final TIntObjectHashMap<BitSet> blockerIndex = new TIntObjectHashMap<>();
     /** check if session has inverse roles */
     @PortedFrom(file = "dlCompletionGraph.h", name = "sessionHasInverseRoles")
     private boolean sessionHasInverseRoles;
@@ -303,6 +314,9 @@ public class DlCompletionGraph implements Serializable {
     @PortedFrom(file = "dlCompletionGraph.h", name = "addConceptToNode")
     public void addConceptToNode(DlCompletionTree node, ConceptWDep c, boolean complex) {
         node.addConcept(c, complex);
+        if (useAnywhereBlocking) {
+            indexBlocker(node, c.getConcept());
+        }
         if (useLazyBlocking) {
             node.setAffected();
         } else {
@@ -419,6 +433,7 @@ public class DlCompletionGraph implements Serializable {
         rareStack.clear();
         stack.clear();
         savedNodes.clear();
+        blockerIndex.clear();
         initRoot();
     }
 
@@ -632,15 +647,58 @@ public class DlCompletionGraph implements Serializable {
 
     @PortedFrom(file = "dlCompletionGraph.h", name = "findDAnywhereBlocker")
     private void findDAnywhereBlocker(DlCompletionTree node) {
-        for (int i = 0; i < endUsed && i != node.getId(); i++) {
-            DlCompletionTree p = nodeBase.get(i);
-            if (!p.isBlockedPBlockedNominalNodeCached() && isBlockedBy(node, p)) {
-                setNodeDBlocked(node, p);
+        // only nodes created before NODE can block it
+        int limit = Math.min(endUsed, node.getId());
+        int init = node.getInit();
+        if (init == BP_BOTTOM) {
+            return;
+        }
+        if (init == BP_TOP) {
+            for (int i = 0; i < limit; i++) {
+                if (tryBlocker(node, nodeBase.get(i))) {
+                    return;
+                }
+            }
+            return;
+        }
+        // a blocker must contain the init concept of NODE
+        BitSet candidates = blockerIndex.get(init);
+        if (candidates == null) {
+            return;
+        }
+        for (int i = candidates.nextSetBit(0); i >= 0 && i < limit; i =
+            candidates.nextSetBit(i + 1)) {
+            if (tryBlocker(node, nodeBase.get(i))) {
                 return;
             }
         }
     }
 
+    @Original
+    private boolean tryBlocker(DlCompletionTree node, DlCompletionTree p) {
+        if (!p.isBlockedPBlockedNominalNodeCached() && isBlockedBy(node, p)) {
+            setNodeDBlocked(node, p);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * record NODE as a possible anywhere blocker for nodes with init concept C
+     * 
+     * @param node node
+     * @param c concept added to the node label
+     */
+    @Original
+    private void indexBlocker(DlCompletionTree node, int c) {
+        BitSet nodes = blockerIndex.get(c);
+        if (nodes == null) {
+            nodes = new BitSet();
+            blockerIndex.put(c, nodes);
+        }
+        nodes.set(node.getId());
+    }
+
     /**
      * Class for maintaining graph of CT nodes. Behaves like deleteless allocator for nodes, plus
      * some obvious features
@@ -799,7 +857,10 @@ public class DlCompletionGraph implements Serializable {
     /** save dl completion graph */
     @PortedFrom(file = "dlCompletionGraph.h", name = "save")
     public void save() {
-        DLCompletionGraphSaveState s = new DLCompletionGraphSaveState();
+        DLCompletionGraphSaveState s = stack.recycle();
+        if (s == null) {
+            s = new DLCompletionGraphSaveState();
+        }
         stack.push(s);
         s.setnNodes(endUsed);
         s.setsNodes(savedNodes.size());
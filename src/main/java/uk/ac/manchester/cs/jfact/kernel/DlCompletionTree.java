@@ -26,9 +26,9 @@ import conformance.Original;
 import conformance.PortedFrom;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
-import uk.ac.manchester.cs.jfact.helpers.ArrayIntMap;
 import uk.ac.manchester.cs.jfact.helpers.DLVertex;
 import uk.ac.manchester.cs.jfact.helpers.Helper;
+import uk.ac.manchester.cs.jfact.helpers.LabelIndex;
 import uk.ac.manchester.cs.jfact.helpers.LogAdapter;
 import uk.ac.manchester.cs.jfact.helpers.Reference;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
@@ -372,12 +372,12 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
     }
 
     /** @return map for label with simple concepts */
-    public ArrayIntMap simpleConceptsMap() {
+    public LabelIndex simpleConceptsMap() {
         return label.getSimpleConceptsMap();
     }
 
     /** @return map for a label with complex concepts */
-    public ArrayIntMap complexConceptsMap() {
+    public LabelIndex complexConceptsMap() {
         return label.getComplexConceptsMap();
     }
 
@@ -717,10 +717,10 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
         if (!label.lesserequal(p.label)) {
             return false;
         }
-        ArrayIntMap list = p.complexConceptsMap();
+        LabelIndex list = p.complexConceptsMap();
         int size = list.size();
         for (int i = 0; i < size; i++) {
-            int bp = list.keySet(i);
+            int bp = list.keyAt(i);
             if (bp > 0) {
                 DLVertex v = dag.get(bp);
                 if (v.getType() == FORALL && !b2(v, bp)) {
@@ -736,9 +736,9 @@ public class DlCompletionTree implements Comparable<DlCompletionTree>, Serializa
         // there exists v
         assert hasParent();
         // B3,B4
-        ArrayIntMap list = p.complexConceptsMap();
+        LabelIndex list = p.complexConceptsMap();
         for (int i = 0; i < list.size(); i++) {
-            int bp = list.keySet(i);
+            int bp = list.keyAt(i);
             DLVertex v = dag.get(bp);
             if (v.getType() == FORALL && bp < 0) {
                 // (some T E) \in L(w')
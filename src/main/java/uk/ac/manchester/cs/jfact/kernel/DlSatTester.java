@@ -121,16 +121,50 @@ public class DlSatTester implements Serializable {
     class BCChoose extends BranchingContext {
     }
 
-    /** stack to keep BContext */
+    /** stack to keep BContext; popped contexts go back to a pool of their type */
     class BCStack extends SaveStack<BranchingContext> {
 
         /** single entry for the barrier (good for nominal reasoner) */
         private final BCBarrier bcBarrier;
+        @PortedFrom(file = "Reasoner.h", name = "PoolOr")
+        private final List<BCOr> poolOr = new ArrayList<>();
+        @PortedFrom(file = "Reasoner.h", name = "PoolNN")
+        private final List<BCNN> poolNN = new ArrayList<>();
+        @PortedFrom(file = "Reasoner.h", name = "PoolLE")
+        private final List<BCLE<DlCompletionTreeArc>> poolLE = new ArrayList<>();
+        @Original
+        private final List<BCLE<DlCompletionTree>> poolTopLE = new ArrayList<>();
+        @PortedFrom(file = "Reasoner.h", name = "PoolCh")
+        private final List<BCChoose> poolCh = new ArrayList<>();
 
         protected BCStack() {
             bcBarrier = new BCBarrier();
         }
 
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void release(BranchingContext p) {
+            if (p instanceof BCOr) {
+                poolOr.add((BCOr) p);
+            } else if (p instanceof BCNN) {
+                poolNN.add((BCNN) p);
+            } else if (p instanceof BCLE) {
+                BCLE<?> le = (BCLE<?>) p;
+                if (le.topRole) {
+                    poolTopLE.add((BCLE<DlCompletionTree>) le);
+                } else {
+                    poolLE.add((BCLE<DlCompletionTreeArc>) le);
+                }
+            } else if (p instanceof BCChoose) {
+                poolCh.add((BCChoose) p);
+            }
+        }
+
+        @Original
+        private <B> B get(List<B> pool) {
+            return pool.isEmpty() ? null : pool.remove(pool.size() - 1);
+        }
+
         /** push method to use */
         @Override
         public void push(BranchingContext p) {
@@ -145,7 +179,10 @@ public class DlSatTester implements Serializable {
          * @return or
          */
         protected BranchingContext pushOr() {
-            BCOr o = new BCOr();
+            BCOr o = get(poolOr);
+            if (o == null) {
+                o = new BCOr();
+            }
             push(o);
             return o;
         }
@@ -156,7 +193,10 @@ public class DlSatTester implements Serializable {
          * @return nn
          */
         protected BranchingContext pushNN() {
-            BCNN n = new BCNN();
+            BCNN n = get(poolNN);
+            if (n == null) {
+                n = new BCNN();
+            }
             push(n);
             return n;
         }
@@ -167,7 +207,10 @@ public class DlSatTester implements Serializable {
          * @return le
          */
         protected BCLE<DlCompletionTreeArc> pushLE() {
-            BCLE<DlCompletionTreeArc> e = new BCLE<>();
+            BCLE<DlCompletionTreeArc> e = get(poolLE);
+            if (e == null) {
+                e = new BCLE<>(false);
+            }
             push(e);
             return e;
         }
@@ -179,7 +222,10 @@ public class DlSatTester implements Serializable {
          */
         protected BCLE<DlCompletionTree> pushTopLE() {
             // XXX verify if this is correct
-            BCLE<DlCompletionTree> e = new BCLE<>();
+            BCLE<DlCompletionTree> e = get(poolTopLE);
+            if (e == null) {
+                e = new BCLE<>(true);
+            }
             push(e);
             return e;
         }
@@ -190,7 +236,10 @@ public class DlSatTester implements Serializable {
          * @return choose
          */
         protected BCChoose pushCh() {
-            BCChoose c = new BCChoose();
+            BCChoose c = get(poolCh);
+            if (c == null) {
+                c = new BCChoose();
+            }
             push(c);
             return c;
         }
@@ -211,6 +260,8 @@ public class DlSatTester implements Serializable {
 
     class BCLE<I> extends BranchingContext {
 
+        /** whether the edges are nodes of a TopRole-LE rule; such contexts are pooled apart */
+        private final boolean topRole;
         /** current branching index; used in several branching rules */
         private int branchIndex;
         /** index of a merge-candidate (in LE concept) */
@@ -218,6 +269,10 @@ public class DlSatTester implements Serializable {
         /** vector of edges to be merged */
         private List<I> edges = new ArrayList<>();
 
+        BCLE(boolean topRole) {
+            this.topRole = topRole;
+        }
+
         /** init tag and indeces */
         @Override
         public void init() {
@@ -498,6 +553,12 @@ public class DlSatTester implements Serializable {
     private final ModelCacheIan newNodeEdges;
     @Original
     private final Stats stats = new Stats();
+    /**
+     * logical features of the current session when this reasoner is driven outside of the TBox
+     * (e.g., by a parallel classification worker); null means the TBox features are used
+     */
+    @Original
+    private LogicFeatures sessionFeatures = null;
     @Original
     private static final EnumSet<DagTag> handlecollection = EnumSet.of(AND, COLLECTION);
     @Original
@@ -523,7 +584,7 @@ public class DlSatTester implements Serializable {
         curNode = null;
         dagSize = 0;
         options.getLog().printTemplate(Templates.READCONFIG,
-            Boolean.valueOf(options.getuseSemanticBranching()),
+            Boolean.valueOf(tBox.isUseSemanticBranching()),
             Boolean.valueOf(options.getuseBackjumping()),
             Boolean.valueOf(options.getuseLazyBlocking()),
             Boolean.valueOf(options.getUseAnywhereBlocking()));
@@ -628,7 +689,10 @@ public class DlSatTester implements Serializable {
      */
     @PortedFrom(file = "Reasoner.h", name = "createModelCache")
     protected ModelCacheInterface createModelCache(DlCompletionTree p) {
-        return new ModelCacheIan(dlHeap, p, encounterNominal, tBox.nC, tBox.nR.get(), options);
+        ModelCacheInterface cache =
+            new ModelCacheIan(dlHeap, p, encounterNominal, tBox.nC, tBox.nR.get(), options);
+        cache.setHasActiveSplits(hasActiveSplits());
+        return cache;
     }
 
     /**
@@ -1075,6 +1139,37 @@ public class DlSatTester implements Serializable {
         cGraph.setBlockingMethod(hasInverse, hasQCR);
     }
 
+    /**
+     * set features of the session independently of the TBox current features, and choose the
+     * blocking method accordingly
+     * 
+     * @param lf features of the session; null to use the TBox features again
+     */
+    @Original
+    public void setSessionFeatures(@Nullable LogicFeatures lf) {
+        sessionFeatures = lf;
+        if (lf != null) {
+            setBlockingMethod(lf.hasInverseRole(), lf.hasFunctionalRestriction()
+                || lf.hasNumberRestriction() || lf.hasQNumberRestriction());
+        }
+    }
+
+    /**
+     * @return true if the current session might involve nominals
+     */
+    @Original
+    private boolean testHasNominals() {
+        return sessionFeatures != null ? sessionFeatures.hasSingletons() : tBox.testHasNominals();
+    }
+
+    /**
+     * @return true if the current session might involve the top role
+     */
+    @Original
+    private boolean testHasTopRole() {
+        return sessionFeatures != null ? sessionFeatures.hasTopRole() : tBox.testHasTopRole();
+    }
+
     /**
      * @param sat sat
      * @return create model cache for the just-classified entry
@@ -1115,7 +1210,7 @@ public class DlSatTester implements Serializable {
         if (cache != null) {
             return cache;
         }
-        if (!tBox.testHasTopRole()) {
+        if (!testHasTopRole()) {
             prepareCascadedCache(p, f);
         }
         cache = dlHeap.getCache(p);
@@ -1327,6 +1422,11 @@ public class DlSatTester implements Serializable {
     @PortedFrom(file = "Reasoner.h", name = "nextBranchingOption")
     private void nextBranchingOption() {
         getBranchDep().add(clashSet);
+        if (bContext instanceof BCOr) {
+            // the current disjunct failed: count it for adaptive OR ordering
+            int bp = ((BCOr) bContext).orCur().getConcept();
+            dlHeap.get(bp).incClash(bp > 0);
+        }
         bContext.nextOption();
     }
 
@@ -1381,6 +1481,60 @@ public class DlSatTester implements Serializable {
             .anyMatch(node -> isNodeGloballyUsed(node) && addToDoEntry(node, c, dep, "sg"));
     }
 
+    /**
+     * add the split GCIs that are not active yet to the session GCIs
+     * 
+     * @param splits split GCIs; may be null
+     * @param dep dep-set of the trigger
+     * @return true if clash
+     */
+    @Original
+    private boolean activateSplits(@Nullable TIntArrayList splits, DepSet dep) {
+        if (splits == null) {
+            return false;
+        }
+        for (int i = 0; i < splits.size(); i++) {
+            int c = splits.get(i);
+            // session GCIs are restored on backtracking, so check there
+            if (!sessionGCIs.contains(c) && addSessionGCI(c, dep)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * add the split GCIs triggered by an edge labelled with R
+     * 
+     * @param r role of the edge
+     * @param dep dep-set of the edge
+     * @return true if clash
+     */
+    @Original
+    private boolean activateSplits(Role r, DepSet dep) {
+        if (!tBox.hasSplitGCIs()) {
+            return false;
+        }
+        if (activateSplits(tBox.getSplitGCIs(r), dep)) {
+            return true;
+        }
+        return r.getAncestor().stream().anyMatch(p -> activateSplits(tBox.getSplitGCIs(p), dep));
+    }
+
+    /** @return true if some split GCI is active in the current session */
+    @Original
+    private boolean hasActiveSplits() {
+        if (!tBox.hasSplitGCIs()) {
+            return false;
+        }
+        for (int i = 0; i < sessionGCIs.size(); i++) {
+            if (tBox.isSplitGCI(sessionGCIs.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /** @return configuration options */
     @Original
     public JFactReasonerConfiguration getOptions() {
@@ -1500,6 +1654,7 @@ public class DlSatTester implements Serializable {
         switch (tryAddConcept(n.label().getLabel(tag.isComplexConcept()), bp, dep)) {
             case CLASH:
                 // clash -- return
+                v.incClash(bp > 0);
                 logNCEntry(n, bp, dep, "x", dlHeap.get(bp).getType().getName());
                 return true;
             case EXIST:
@@ -1522,6 +1677,10 @@ public class DlSatTester implements Serializable {
         updateLevel(n, dep);
         cGraph.addConceptToNode(n, p, tag.isComplexConcept());
         used.add(bp);
+        dlHeap.get(bp).incUsage(bp > 0);
+        if (bp > 0 && tBox.hasSplitGCIs() && activateSplits(tBox.getSplitGCIs(bp), dep)) {
+            return true;
+        }
         if (n.isCached()) {
             return correctCachedEntry(n);
         }
@@ -1545,6 +1704,10 @@ public class DlSatTester implements Serializable {
         if (node.isNominalNode()) {
             return false;
         }
+        // cached models need not satisfy the active split GCIs
+        if (hasActiveSplits()) {
+            return false;
+        }
         stats.getnCacheTry().inc();
         // check applicability of the caching
         AtomicBoolean shallow = new AtomicBoolean(true);
@@ -1570,6 +1733,9 @@ public class DlSatTester implements Serializable {
             options.getLog().printTemplateInt(Templates.CAN_BE_CACHED, p.getConcept());
             return true;
         }
+        if (verifyNotNull(dlHeap.getCache(p.getConcept())).isHasActiveSplits()) {
+            return true;
+        }
         shallow.compareAndSet(true, verifyNotNull(dlHeap.getCache(p.getConcept())).shallowCache());
         size.incrementAndGet();
         return false;
@@ -1871,6 +2037,7 @@ public class DlSatTester implements Serializable {
     protected void restore(int newTryLevel) {
         assert !stack.isEmpty();
         assert newTryLevel > 0;
+        stats.recordBackjump(getCurLevel() - newTryLevel);
         // skip all intermediate restores
         setCurLevel(newTryLevel);
         // restore local
@@ -1932,6 +2099,24 @@ public class DlSatTester implements Serializable {
         }
     }
 
+    /** @return tactic, cache and backtracking statistics of this reasoner */
+    @Original
+    public Stats getStats() {
+        return stats;
+    }
+
+    /** @return time spent in satisfiability tests, in nanoseconds */
+    @Original
+    public long getSatTimeNanos() {
+        return satTimer.getResultTimeNanos();
+    }
+
+    /** @return time spent in subsumption tests, in nanoseconds */
+    @Original
+    public long getSubTimeNanos() {
+        return subTimer.getResultTimeNanos();
+    }
+
     /**
      * @param o o
      * @return reasoning time
@@ -2123,7 +2308,7 @@ public class DlSatTester implements Serializable {
         // if the test REALLY uses nominals, remember this
         encounterNominal = true;
         Individual c = (Individual) cur.getConcept();
-        assert c != null && c.getNode() != null;
+        assert c != null && getNominalNode(c) != null;
         // if node for C was purged due to merge -- find proper one
         DepSet dep = DepSet.create(curConceptDepSet);
         // blank nodes are set to be non classifiable and not initialized in
@@ -2131,7 +2316,7 @@ public class DlSatTester implements Serializable {
         if (c.isNonClassifiable()) {
             return true;
         }
-        DlCompletionTree realNode = c.getNode().resolvePBlocker(dep);
+        DlCompletionTree realNode = getNominalNode(c).resolvePBlocker(dep);
         // check if o-rule is applicable
         if (!realNode.equals(curNode)) {
             // apply o-rule: merge 2 nodes
@@ -2214,6 +2399,7 @@ public class DlSatTester implements Serializable {
             }
             if (tryAddConcept == AddConceptResult.CLASH) {
                 // clash found -- OK
+                dlHeap.get(inverse).incClash(inverse > 0);
                 dep.getReference().add(clashSet);
             }
             if (tryAddConcept == AddConceptResult.DONE) {
@@ -2244,7 +2430,7 @@ public class DlSatTester implements Serializable {
             stats.getnOrBrCalls().inc();
         }
         // if semantic branching is in use -- add previous entries to the label
-        if (options.getuseSemanticBranching()) {
+        if (tBox.isUseSemanticBranching()) {
             for (int i : bcOr.getApplicableOrEntriesConcepts()) {
                 if (addToDoEntry(curNode, -i, dep, "sb")) {
                     return true;
@@ -2433,7 +2619,7 @@ public class DlSatTester implements Serializable {
             }
         }
         // check for the case \ER.{o}
-        if (c > 0 && tBox.testHasNominals()) {
+        if (c > 0 && testHasNominals()) {
             DLVertex nom = dlHeap.get(c);
             if (nom.getType() == PSINGLETON || nom.getType() == NSINGLETON) {
                 return commonTacticBodyValue(r, (Individual) nom.getConcept());
@@ -2501,6 +2687,9 @@ public class DlSatTester implements Serializable {
             return true;
         }
         functionalArc = cGraph.addRoleLabel(curNode, succ, functionalArc.isPredEdge(), r, newDep);
+        if (activateSplits(r, newDep) || activateSplits(r.inverse(), newDep)) {
+            return true;
+        }
         // adds concept to the end of arc
         if (addToDoEntry(succ, c, newDep, null)) {
             return true;
@@ -2560,6 +2749,15 @@ public class DlSatTester implements Serializable {
         return rFunc.compareAndSet(false, true);
     }
 
+    /**
+     * @param nom individual
+     * @return completion graph node of the individual in the nominal cloud of this reasoner
+     */
+    @Original
+    protected DlCompletionTree getNominalNode(Individual nom) {
+        return nom.getNode();
+    }
+
     @PortedFrom(file = "Reasoner.h", name = "commonTacticBodyValue")
     private boolean commonTacticBodyValue(Role r, Individual nom) {
         DepSet dep = DepSet.create(curConceptDepSet);
@@ -2568,9 +2766,9 @@ public class DlSatTester implements Serializable {
             return false;
         }
         stats.getnSomeCalls().inc();
-        assert nom.getNode() != null;
+        assert getNominalNode(nom) != null;
         // if node for NOM was purged due to merge -- find proper one
-        DlCompletionTree realNode = nom.getNode().resolvePBlocker(dep);
+        DlCompletionTree realNode = getNominalNode(nom).resolvePBlocker(dep);
         // check if merging will lead to clash because of disjoint roles
         if (r.isDisjoint() && checkDisjointRoleClash(curNode, realNode, r, dep)) {
             return true;
@@ -2685,6 +2883,10 @@ public class DlSatTester implements Serializable {
     public boolean setupEdge(DlCompletionTreeArc pA, DepSet dep, int flags) {
         DlCompletionTree child = pA.getArcEnd();
         DlCompletionTree from = pA.getReverse().getArcEnd();
+        if (activateSplits(verifyNotNull(pA.getRole()), dep)
+            || activateSplits(verifyNotNull(pA.getReverse().getRole()), dep)) {
+            return true;
+        }
         // adds Range and Domain
         if (initHeadOfNewEdge(from, verifyNotNull(pA.getRole()), dep, "RD")) {
             return true;
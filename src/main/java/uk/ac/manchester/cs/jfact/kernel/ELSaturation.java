@@ -0,0 +1,636 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.helpers.Helper.BP_BOTTOM;
+import static uk.ac.manchester.cs.jfact.helpers.Helper.BP_TOP;
+import static uk.ac.manchester.cs.jfact.helpers.Helper.isValid;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+import uk.ac.manchester.cs.jfact.helpers.DLVertex;
+
+/**
+ * Consequence-based classifier for Horn EL TBoxes. It works directly on the DAG built for the
+ * tableau: conjunctions, existential restrictions (negated universal vertices) and concept names
+ * are saturated per context, disjunctions are accepted only when they encode Horn rules (as
+ * produced by absorption), and role hierarchies, transitive roles, domains and ranges are
+ * supported. Contexts are keyed by a filler together with the ranges of the role leading to it,
+ * so that ranges are never added to contexts shared by other roles. The result is written into
+ * the concept taxonomy, exactly where the tableau classifier would put it.
+ */
+@Original
+public class ELSaturation {
+
+    /** a Horn rule: if all the premises hold, conclusion holds; BP_BOTTOM for none */
+    private static final class HornRule {
+
+        final int[] premises;
+        final int conclusion;
+
+        HornRule(int[] premises, int conclusion) {
+            this.premises = premises;
+            this.conclusion = conclusion;
+        }
+    }
+
+    /** existential restriction to recognise */
+    private static final class Exists {
+
+        final Role role;
+        final int bp;
+
+        Exists(Role role, int bp) {
+            this.role = role;
+            this.bp = bp;
+        }
+    }
+
+    /** role edge between two contexts */
+    private static final class Link {
+
+        final Context source;
+        final Role role;
+        final Context target;
+
+        Link(Context source, Role role, Context target) {
+            this.source = source;
+            this.role = role;
+            this.target = target;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Link)) {
+                return false;
+            }
+            Link l = (Link) obj;
+            return source == l.source && role == l.role && target == l.target;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(source, role, target);
+        }
+    }
+
+    /** set of subsumers of a conjunction of concepts */
+    private static final class Context {
+
+        final TIntHashSet subsumers = new TIntHashSet();
+        final TIntArrayList todo = new TIntArrayList();
+        final Set<Link> succs = new LinkedHashSet<>();
+        final List<Link> preds = new ArrayList<>();
+        /** rules waiting for a premise */
+        final TIntObjectHashMap<List<HornRule>> waiting = new TIntObjectHashMap<>();
+        boolean queued = false;
+
+        boolean isUnsatisfiable() {
+            return subsumers.contains(BP_BOTTOM);
+        }
+    }
+
+    private final TBox tBox;
+    private final DLDag dag;
+    private final int tg;
+    /** positive pointers already checked */
+    private final TIntHashSet positive = new TIntHashSet();
+    /** pointers that can be recognised in a context */
+    private final TIntHashSet recognised = new TIntHashSet();
+    private final TIntHashSet unrecognised = new TIntHashSet();
+    private final TIntHashSet specialDomains = new TIntHashSet();
+    private final TIntObjectHashMap<TIntArrayList> andsByConjunct = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<TIntArrayList> definedByBody = new TIntObjectHashMap<>();
+    private final TIntObjectHashMap<List<Exists>> existsByFiller = new TIntObjectHashMap<>();
+    /** Horn rules for disjunctions and negated names, by pointer */
+    private final TIntObjectHashMap<HornRule> hornRules = new TIntObjectHashMap<>();
+    /** rules applicable everywhere, by premise */
+    private final TIntObjectHashMap<List<HornRule>> globalRules = new TIntObjectHashMap<>();
+    private final Map<TIntArrayList, Context> contexts = new HashMap<>();
+    private final ArrayDeque<Context> queue = new ArrayDeque<>();
+    private final ArrayDeque<Link> newLinks = new ArrayDeque<>();
+
+    /**
+     * @param tBox preprocessed TBox
+     */
+    public ELSaturation(TBox tBox) {
+        this.tBox = tBox;
+        dag = tBox.getDLHeap();
+        tg = tBox.getTG();
+    }
+
+    /**
+     * check that the TBox is in the supported fragment, and prepare the indices for saturation
+     *
+     * @param features logic features of the KB
+     * @return true if saturation is complete for the TBox
+     */
+    public boolean isApplicable(LogicFeatures features) {
+        if (features.hasInverseRole() || features.hasNumberRestriction()
+            || features.hasQNumberRestriction() || features.hasFunctionalRestriction()
+            || features.hasSingletons() || features.hasSelfRef() || features.hasTopRole()
+            || tBox.individuals().findAny().isPresent()) {
+            return false;
+        }
+        for (Role r : tBox.getORM().getRoles()) {
+            if (r.isSynonym() || r.isTop() || r.isBottom()) {
+                continue;
+            }
+            if (r.isFunctional() || r.isReflexive() || r.isIrreflexive() || r.isAsymmetric()
+                || r.isSymmetric() || r.isDisjoint() || r.hasSubCompositions()) {
+                return false;
+            }
+            if (r.hasSpecialDomain()) {
+                specialDomains.add(r.getBPSpecialDomain());
+            }
+        }
+        if (!pos(tg)) {
+            return false;
+        }
+        for (Role r : tBox.getORM().getRoles()) {
+            if (!r.isSynonym() && !(pos(r.getBPDomain()) && pos(r.getBPRange()))) {
+                return false;
+            }
+        }
+        for (SimpleRule rule : tBox.getSimpleRules()) {
+            int[] premises = rule.getBody().stream().mapToInt(Concept::resolveId).toArray();
+            HornRule h = new HornRule(premises, rule.getBpHead());
+            if (!pos(rule.getBpHead())) {
+                return false;
+            }
+            for (int p : premises) {
+                index(globalRules, p, h);
+            }
+        }
+        return tBox.getConcepts().filter(c -> isValid(c.getpName()))
+            .allMatch(c -> pos(c.resolveId()) && definable(c.resolveId()));
+    }
+
+    /**
+     * make a defined concept recognisable by its body
+     *
+     * @param p concept name pointer
+     * @return false if the body can not be recognised
+     */
+    private boolean definable(int p) {
+        DLVertex v = dag.get(p);
+        if (v.getType() != DagTag.NCONCEPT) {
+            return true;
+        }
+        int body = v.getConceptIndex();
+        if (!recognisable(body)) {
+            return false;
+        }
+        index(definedByBody, body, p);
+        return true;
+    }
+
+    /**
+     * @param p pointer that can be added to a context
+     * @return true if the pointer is in the supported fragment
+     */
+    private boolean pos(int p) {
+        if (p == BP_TOP || p == BP_BOTTOM || !positive.add(p)) {
+            return true;
+        }
+        DLVertex v = dag.get(p);
+        switch (v.getType()) {
+            case PCONCEPT:
+            case NCONCEPT:
+                if (p > 0) {
+                    return pos(v.getConceptIndex());
+                }
+                // not C == C -> BOTTOM
+                if (!recognisable(-p)) {
+                    return false;
+                }
+                hornRules.put(p, new HornRule(new int[] {-p}, BP_BOTTOM));
+                return true;
+            case AND:
+                if (p > 0) {
+                    for (int c : v.begin()) {
+                        if (!pos(c)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                return horn(p, v);
+            case FORALL:
+                if (p > 0) {
+                    // only AR.Range, taken into account by the contexts
+                    return specialDomains.contains(p);
+                }
+                return v.getState() == 0 && pos(-v.getConceptIndex());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @param p negated conjunction
+     * @param v its vertex
+     * @return true if the disjunction has at most one disjunct that is not a negated
+     *         recognisable concept
+     */
+    private boolean horn(int p, DLVertex v) {
+        TIntArrayList premises = new TIntArrayList();
+        int conclusion = BP_BOTTOM;
+        for (int c : v.begin()) {
+            if (recognisable(c)) {
+                premises.add(c);
+            } else if (conclusion == BP_BOTTOM && pos(-c)) {
+                conclusion = -c;
+            } else {
+                return false;
+            }
+        }
+        hornRules.put(p, new HornRule(premises.toArray(), conclusion));
+        return true;
+    }
+
+    /**
+     * @param c pointer
+     * @return true if C can be detected in a context; the recognition indices are filled
+     */
+    private boolean recognisable(int c) {
+        if (c == BP_TOP || c == BP_BOTTOM || recognised.contains(c)) {
+            return true;
+        }
+        if (unrecognised.contains(c)) {
+            return false;
+        }
+        boolean ok = register(c);
+        if (ok) {
+            recognised.add(c);
+        } else {
+            unrecognised.add(c);
+        }
+        return ok;
+    }
+
+    private boolean register(int c) {
+        DLVertex v = dag.get(c);
+        switch (v.getType()) {
+            case PCONCEPT:
+            case NCONCEPT:
+                return c > 0;
+            case AND:
+                if (c < 0) {
+                    return false;
+                }
+                for (int p : v.begin()) {
+                    if (!recognisable(p)) {
+                        return false;
+                    }
+                }
+                for (int p : v.begin()) {
+                    index(andsByConjunct, p, c);
+                }
+                return true;
+            case FORALL:
+                if (c > 0 || v.getState() != 0) {
+                    return false;
+                }
+                int filler = -v.getConceptIndex();
+                if (!recognisable(filler)) {
+                    return false;
+                }
+                List<Exists> l = existsByFiller.get(filler);
+                if (l == null) {
+                    l = new ArrayList<>();
+                    existsByFiller.put(filler, l);
+                }
+                l.add(new Exists(v.getRole(), c));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void index(TIntObjectHashMap<TIntArrayList> map, int key, int value) {
+        TIntArrayList l = map.get(key);
+        if (l == null) {
+            l = new TIntArrayList();
+            map.put(key, l);
+        }
+        l.add(value);
+    }
+
+    private static void index(TIntObjectHashMap<List<HornRule>> map, int key, HornRule value) {
+        List<HornRule> l = map.get(key);
+        if (l == null) {
+            l = new ArrayList<>();
+            map.put(key, l);
+        }
+        l.add(value);
+    }
+
+    /**
+     * saturate all the classifiable concepts and fill the taxonomy with the result; use it only
+     * after isApplicable() returned true
+     *
+     * @param tax taxonomy to fill
+     * @return number of classified concepts
+     */
+    public int classify(Taxonomy tax) {
+        TIntObjectHashMap<Concept> byName = new TIntObjectHashMap<>();
+        List<Concept> names = new ArrayList<>();
+        tBox.getConcepts().filter(c -> !c.isNonClassifiable() && c.isNotSynonym())
+            .filter(c -> isValid(c.getpName())).forEach(c -> {
+                byName.put(c.getpName(), c);
+                names.add(c);
+            });
+        Context topContext = context(key(BP_TOP, null));
+        Map<Concept, Context> toClassify = new HashMap<>();
+        names.forEach(c -> toClassify.put(c, context(key(c.getpName(), null))));
+        saturate();
+        Map<Concept, List<Concept>> subsumers = new HashMap<>();
+        for (Concept c : names) {
+            Context ctx = toClassify.get(c);
+            if (ctx.isUnsatisfiable()) {
+                tax.getBottomVertex().addSynonym(c);
+            } else if (topContext.subsumers.contains(c.getpName())) {
+                tax.getTopVertex().addSynonym(c);
+            } else {
+                List<Concept> l = new ArrayList<>();
+                ctx.subsumers.forEach(p -> {
+                    Concept s = byName.get(p);
+                    if (s != null && !topContext.subsumers.contains(p)) {
+                        l.add(s);
+                    }
+                    return true;
+                });
+                subsumers.put(c, l);
+            }
+        }
+        // superclasses always have fewer subsumers, so they get their vertex first
+        List<Concept> order = new ArrayList<>(subsumers.keySet());
+        order.sort(Comparator.comparingInt(c -> subsumers.get(c).size()));
+        for (Concept c : order) {
+            if (c.isClassified()) {
+                continue;
+            }
+            List<Concept> sups = subsumers.get(c);
+            Set<TaxonomyVertex> candidates = new LinkedHashSet<>();
+            List<Concept> synonyms = new ArrayList<>();
+            for (Concept s : sups) {
+                if (s == c) {
+                    continue;
+                }
+                if (subsumers.get(s).contains(c)) {
+                    synonyms.add(s);
+                } else {
+                    candidates.add(s.getTaxVertex());
+                }
+            }
+            // keep only the most specific candidates
+            Set<TaxonomyVertex> parents = new LinkedHashSet<>(candidates);
+            for (Concept s : sups) {
+                TaxonomyVertex sv = s.getTaxVertex();
+                if (sv == null || !candidates.contains(sv)) {
+                    continue;
+                }
+                subsumers.get(s).forEach(q -> {
+                    if (q.getTaxVertex() != sv) {
+                        parents.remove(q.getTaxVertex());
+                    }
+                });
+            }
+            TaxonomyVertex cur = tax.getCurrent();
+            cur.clear();
+            cur.setSample(c, true);
+            if (parents.isEmpty()) {
+                cur.addNeighbour(true, tax.getTopVertex());
+            }
+            parents.forEach(p -> cur.addNeighbour(true, p));
+            tax.finishCurrentNode();
+            TaxonomyVertex v = c.getTaxVertex();
+            synonyms.forEach(v::addSynonym);
+        }
+        tBox.getConcepts().filter(c -> !c.isNonClassifiable() && c.isSynonym()).forEach(c -> {
+            Concept s = ClassifiableEntry.resolveSynonym(c);
+            if (s.isClassified() && !c.isClassified()) {
+                s.getTaxVertex().addSynonym(c);
+            }
+        });
+        return names.size();
+    }
+
+    /**
+     * @param filler filler pointer
+     * @param r role leading to the context, or null
+     * @return context key: the filler and the ranges of R, sorted
+     */
+    private static TIntArrayList key(int filler, @Nullable Role r) {
+        TIntArrayList key = new TIntArrayList();
+        key.add(filler);
+        if (r != null) {
+            addRange(key, r);
+            r.getAncestor().forEach(a -> addRange(key, a));
+        }
+        key.sort();
+        return key;
+    }
+
+    private static void addRange(TIntArrayList key, Role r) {
+        int range = r.getBPRange();
+        if (range != BP_TOP && !key.contains(range)) {
+            key.add(range);
+        }
+    }
+
+    private Context context(TIntArrayList key) {
+        Context ctx = contexts.get(key);
+        if (ctx == null) {
+            ctx = new Context();
+            contexts.put(key, ctx);
+            add(ctx, BP_TOP);
+            add(ctx, tg);
+            for (int i = 0; i < key.size(); i++) {
+                add(ctx, key.get(i));
+            }
+        }
+        return ctx;
+    }
+
+    private void add(Context ctx, int p) {
+        if (ctx.subsumers.add(p)) {
+            ctx.todo.add(p);
+            if (!ctx.queued) {
+                ctx.queued = true;
+                queue.add(ctx);
+            }
+        }
+    }
+
+    private void saturate() {
+        while (!newLinks.isEmpty() || !queue.isEmpty()) {
+            if (!newLinks.isEmpty()) {
+                processLink(newLinks.poll());
+                continue;
+            }
+            Context ctx = queue.poll();
+            while (!ctx.todo.isEmpty()) {
+                process(ctx, ctx.todo.removeAt(ctx.todo.size() - 1));
+            }
+            ctx.queued = false;
+        }
+    }
+
+    private void process(Context ctx, int p) {
+        if (p == BP_BOTTOM) {
+            ctx.preds.forEach(l -> add(l.source, BP_BOTTOM));
+            return;
+        }
+        // recognition of complex concepts
+        TIntArrayList ands = andsByConjunct.get(p);
+        if (ands != null) {
+            ands.forEach(a -> {
+                if (ctx.subsumers.containsAll(dag.get(a).begin())) {
+                    add(ctx, a);
+                }
+                return true;
+            });
+        }
+        TIntArrayList defined = definedByBody.get(p);
+        if (defined != null) {
+            defined.forEach(c -> {
+                add(ctx, c);
+                return true;
+            });
+        }
+        List<Exists> exists = existsByFiller.get(p);
+        if (exists != null) {
+            for (Link l : ctx.preds) {
+                for (Exists e : exists) {
+                    if (l.role.lesserequal(e.role)) {
+                        add(l.source, e.bp);
+                    }
+                }
+            }
+        }
+        List<HornRule> rules = globalRules.get(p);
+        if (rules != null) {
+            rules.forEach(r -> apply(ctx, r));
+        }
+        rules = ctx.waiting.remove(p);
+        if (rules != null) {
+            rules.forEach(r -> apply(ctx, r));
+        }
+        // decomposition
+        if (p == BP_TOP) {
+            return;
+        }
+        DLVertex v = dag.get(p);
+        switch (v.getType()) {
+            case PCONCEPT:
+            case NCONCEPT:
+                if (p > 0) {
+                    add(ctx, v.getConceptIndex());
+                } else {
+                    apply(ctx, hornRules.get(p));
+                }
+                break;
+            case AND:
+                if (p > 0) {
+                    for (int c : v.begin()) {
+                        add(ctx, c);
+                    }
+                } else {
+                    apply(ctx, hornRules.get(p));
+                }
+                break;
+            case FORALL:
+                // positive universals are special domains, covered by the context keys
+                if (p < 0) {
+                    Role r = v.getRole();
+                    link(ctx, r, context(key(-v.getConceptIndex(), r)));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void apply(Context ctx, HornRule rule) {
+        for (int p : rule.premises) {
+            if (!ctx.subsumers.contains(p)) {
+                List<HornRule> l = ctx.waiting.get(p);
+                if (l == null) {
+                    l = new ArrayList<>();
+                    ctx.waiting.put(p, l);
+                }
+                l.add(rule);
+                return;
+            }
+        }
+        add(ctx, rule.conclusion);
+    }
+
+    private void link(Context source, Role r, Context target) {
+        Link l = new Link(source, r, target);
+        if (source.succs.add(l)) {
+            target.preds.add(l);
+            newLinks.add(l);
+        }
+    }
+
+    private void processLink(Link l) {
+        Context source = l.source;
+        Context target = l.target;
+        add(source, l.role.getBPDomain());
+        l.role.getAncestor().forEach(a -> add(source, a.getBPDomain()));
+        for (int q : target.subsumers.toArray()) {
+            if (q == BP_BOTTOM) {
+                add(source, BP_BOTTOM);
+            }
+            List<Exists> exists = existsByFiller.get(q);
+            if (exists != null) {
+                for (Exists e : exists) {
+                    if (l.role.lesserequal(e.role)) {
+                        add(source, e.bp);
+                    }
+                }
+            }
+        }
+        // transitivity: R [= T, S [= T, T transitive
+        List<Role> roles = new ArrayList<>(l.role.getAncestor());
+        roles.add(l.role);
+        for (Role t : roles) {
+            if (!t.isTransitive()) {
+                continue;
+            }
+            for (Link s : new ArrayList<>(target.succs)) {
+                if (s.role.lesserequal(t)) {
+                    link(source, t, s.target);
+                }
+            }
+            for (Link s : new ArrayList<>(source.preds)) {
+                if (s.role.lesserequal(t)) {
+                    link(s.source, t, target);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.util.BitSet;
+
+import javax.annotation.Nullable;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import conformance.Original;
+
+/**
+ * Instance and type index of a realised taxonomy. For every vertex it keeps a bitmap of the
+ * vertices holding individuals below it, and a bitmap of the vertices above it; ids are those of
+ * the underlying {@link TaxonomySnapshot}. Both indexes are built on first use in one pass over
+ * the vertices in topological order, so that instance and type queries become bitmap lookups
+ * instead of taxonomy walks. The index does not follow changes to the taxonomy: it has to be
+ * dropped when the KB is reclassified.
+ */
+@Original
+public class InstanceIndex {
+
+    private final TaxonomySnapshot tax;
+    /** vertices with an individual among their entries */
+    private final BitSet individuals = new BitSet();
+    /** vertex ids, parents before children */
+    private final int[] order;
+    @Nullable
+    private RoaringBitmap[] instances;
+    @Nullable
+    private RoaringBitmap[] types;
+
+    /**
+     * @param tax snapshot of a realised taxonomy
+     */
+    public InstanceIndex(TaxonomySnapshot tax) {
+        this.tax = tax;
+        for (int i = 0; i < tax.size(); i++) {
+            TaxonomyVertex v = tax.getVertex(i);
+            if (v.getPrimer() instanceof Individual
+                || v.synonyms().anyMatch(Individual.class::isInstance)) {
+                individuals.set(i);
+            }
+        }
+        order = topologicalOrder(tax);
+    }
+
+    private static int[] topologicalOrder(TaxonomySnapshot tax) {
+        int n = tax.size();
+        int[] pending = new int[n];
+        int[] toReturn = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            pending[i] = tax.neigh(i, true).length;
+            if (pending[i] == 0) {
+                toReturn[tail++] = i;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            for (int c : tax.neigh(toReturn[head], false)) {
+                if (--pending[c] == 0) {
+                    toReturn[tail++] = c;
+                }
+            }
+        }
+        return toReturn;
+    }
+
+    /**
+     * @param id vertex id
+     * @return vertex with the given id
+     */
+    public TaxonomyVertex getVertex(int id) {
+        return tax.getVertex(id);
+    }
+
+    /**
+     * @param v vertex; if it is not in the taxonomy, e.g., a query vertex, its children are used
+     * @return ids of the vertices holding individuals strictly below v, or null if v is not linked
+     *         to the taxonomy. The bitmap is shared and must not be modified
+     */
+    @Nullable
+    public RoaringBitmap getInstances(TaxonomyVertex v) {
+        RoaringBitmap[] index = instances;
+        if (index == null) {
+            index = buildInstances();
+            instances = index;
+        }
+        return lookup(v, index, false);
+    }
+
+    /**
+     * @param v vertex; if it is not in the taxonomy, e.g., a query vertex, its parents are used
+     * @return ids of the vertices strictly above v, or null if v is not linked to the taxonomy.
+     *         The bitmap is shared and must not be modified
+     */
+    @Nullable
+    public RoaringBitmap getTypes(TaxonomyVertex v) {
+        RoaringBitmap[] index = types;
+        if (index == null) {
+            index = buildTypes();
+            types = index;
+        }
+        return lookup(v, index, true);
+    }
+
+    @Nullable
+    private RoaringBitmap lookup(TaxonomyVertex v, RoaringBitmap[] index, boolean upDirection) {
+        int id = tax.getId(v);
+        if (id >= 0) {
+            return index[id];
+        }
+        RoaringBitmap toReturn = new RoaringBitmap();
+        for (TaxonomyVertex n : asList(v.neigh(upDirection))) {
+            int nId = tax.getId(n);
+            if (nId < 0) {
+                return null;
+            }
+            add(toReturn, nId, index, upDirection);
+        }
+        return toReturn;
+    }
+
+    /** add a neighbour and everything past it */
+    private void add(RoaringBitmap b, int n, RoaringBitmap[] index, boolean upDirection) {
+        if (upDirection || individuals.get(n)) {
+            b.add(n);
+        }
+        b.or(index[n]);
+    }
+
+    private RoaringBitmap[] buildInstances() {
+        RoaringBitmap[] index = new RoaringBitmap[tax.size()];
+        RoaringBitmap empty = new RoaringBitmap();
+        for (int i = order.length - 1; i >= 0; i--) {
+            int v = order[i];
+            int[] children = tax.neigh(v, false);
+            if (children.length == 0) {
+                index[v] = empty;
+            } else if (children.length == 1 && !individuals.get(children[0])) {
+                // a chain of concepts shares the same instances
+                index[v] = index[children[0]];
+            } else {
+                RoaringBitmap b = new RoaringBitmap();
+                for (int c : children) {
+                    add(b, c, index, false);
+                }
+                index[v] = b;
+            }
+        }
+        return index;
+    }
+
+    private RoaringBitmap[] buildTypes() {
+        RoaringBitmap[] index = new RoaringBitmap[tax.size()];
+        int bottom = tax.getBottom();
+        for (int v : order) {
+            RoaringBitmap b = new RoaringBitmap();
+            // every vertex is above bottom: no point in keeping its types
+            if (v != bottom) {
+                for (int p : tax.neigh(v, true)) {
+                    add(b, p, index, true);
+                }
+            }
+            index[v] = b;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,188 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapitools.decomposition.AxiomWrapper;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.TranslationMachinery;
+import uk.ac.manchester.cs.jfact.datatypes.DatatypeFactory;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Classifies an ontology by groups of bottom modules. The module of a concept holds every axiom
+ * needed to find its subsumers, and is closed under module extraction, so concepts whose modules
+ * share no axiom can be classified apart: axioms are grouped by the modules they appear in, every
+ * group is classified by a reasoner of its own, on worker threads, and the taxonomies are merged.
+ * Concepts in more than one group have an empty module, hence no subsumers but top. The taxonomy
+ * of every group is kept, so that a group whose axioms did not change is not classified again
+ * when the ontology is reloaded.
+ */
+@Original
+public class ModularClassifier {
+
+    private final JFactReasonerConfiguration config;
+    private final DatatypeFactory datatypeFactory;
+    private final OWLDataFactory df;
+    private final AtomicBoolean interrupted;
+    /** taxonomies of the groups classified last time, by group axioms */
+    private Map<Set<OWLAxiom>, TaxonomyImage> previous = new HashMap<>();
+    /** number of groups found last time */
+    private int nGroups = 0;
+    /** number of groups classified last time; the others were kept from before */
+    private int nClassified = 0;
+
+    /**
+     * @param config configuration
+     * @param datatypeFactory datatype factory
+     * @param df data factory
+     * @param interrupted interruption flag, shared with the group reasoners
+     */
+    public ModularClassifier(JFactReasonerConfiguration config, DatatypeFactory datatypeFactory,
+        OWLDataFactory df, AtomicBoolean interrupted) {
+        this.config = config;
+        this.datatypeFactory = datatypeFactory;
+        this.df = df;
+        this.interrupted = interrupted;
+    }
+
+    /**
+     * @param axioms ontology axioms
+     * @param concepts named concepts of the ontology
+     * @return image of the classification, or null if the modules do not fall into more than
+     *         one group
+     */
+    @Nullable
+    public TaxonomyImage classify(List<AxiomWrapper> axioms, Collection<OWLEntity> concepts) {
+        int workers = Math.max(1, config.getClassificationWorkers());
+        int[] group = new ModuleSignatures(axioms, workers).groupModules(concepts);
+        Map<Integer, Set<OWLAxiom>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < group.length; i++) {
+            if (group[i] >= 0 && axioms.get(i).isUsed()) {
+                groups.computeIfAbsent(Integer.valueOf(group[i]), k -> new HashSet<>())
+                    .add(axioms.get(i).getAxiom());
+            }
+        }
+        nGroups = groups.size();
+        nClassified = 0;
+        if (groups.size() < 2) {
+            previous = new HashMap<>();
+            return null;
+        }
+        List<Set<OWLAxiom>> list = new ArrayList<>(groups.values());
+        Map<Set<OWLAxiom>, TaxonomyImage> images = new ConcurrentHashMap<>();
+        List<Set<OWLAxiom>> toClassify = new ArrayList<>();
+        for (Set<OWLAxiom> g : list) {
+            TaxonomyImage known = previous.get(g);
+            if (known == null) {
+                toClassify.add(g);
+            } else {
+                images.put(g, known);
+            }
+        }
+        classifyGroups(toClassify, images, workers);
+        nClassified = toClassify.size();
+        previous = images;
+        List<TaxonomyImage> merged = new ArrayList<>(list.size());
+        list.forEach(g -> merged.add(images.get(g)));
+        return TaxonomyImage.merge(merged, concepts);
+    }
+
+    /**
+     * @return number of module groups found by the last classification
+     */
+    public int getGroups() {
+        return nGroups;
+    }
+
+    /**
+     * @return number of module groups classified by the last classification; the other groups
+     *         did not change
+     */
+    public int getClassifiedGroups() {
+        return nClassified;
+    }
+
+    private void classifyGroups(List<Set<OWLAxiom>> groups,
+        Map<Set<OWLAxiom>, TaxonomyImage> images, int workers) {
+        if (groups.isEmpty()) {
+            return;
+        }
+        int nWorkers = Math.min(workers, groups.size());
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(nWorkers, r -> {
+            Thread t = new Thread(r, "JFact modular classification worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                results.add(pool.submit(() -> {
+                    for (int j = next.getAndIncrement(); j < groups.size()
+                        && !interrupted.get(); j = next.getAndIncrement()) {
+                        images.put(groups.get(j), classifyGroup(groups.get(j)));
+                    }
+                }));
+            }
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReasonerInternalException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        if (interrupted.get()) {
+            throw new ReasonerInterruptedException();
+        }
+    }
+
+    /**
+     * classify the axioms of a group on a fresh kernel; expressions are translated anew, since
+     * the entities of the ontology are bound to the entries of the main TBox
+     */
+    private TaxonomyImage classifyGroup(Set<OWLAxiom> axioms) {
+        JFactReasonerConfiguration groupConfig = new JFactReasonerConfiguration(config)
+            .setUseModularClassification(false).setUseIncrementalReasoning(false)
+            .setAxiomLoadingChunkSize(0).setClassificationCacheDirectory(null);
+        ReasoningKernel kernel = new ReasoningKernel(groupConfig, datatypeFactory, df);
+        kernel.setInterruptedSwitch(interrupted);
+        kernel.clearKB();
+        new TranslationMachinery(kernel, df, datatypeFactory).loadAxioms(axioms.stream());
+        kernel.classifyKB();
+        return new TaxonomyImage(kernel.getTBox().getTaxonomy());
+    }
+}
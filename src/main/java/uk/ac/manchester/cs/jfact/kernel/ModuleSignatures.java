@@ -0,0 +1,249 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
+import org.semanticweb.owlapitools.decomposition.AxiomWrapper;
+import org.semanticweb.owlapitools.decomposition.Decomposer;
+import org.semanticweb.owlapitools.decomposition.LocalityChecker;
+import org.semanticweb.owlapitools.decomposition.Signature;
+import org.semanticweb.owlapitools.decomposition.SyntacticLocalityChecker;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.dl.axioms.Axioms;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+
+/**
+ * Bottom modules of the entities of an ontology, for incremental reasoning and modular
+ * classification. The module of every entity only depends on the entity, so modules are extracted
+ * on worker threads. Module extraction marks the axiom wrappers it visits, so each worker runs its
+ * own decomposer and locality checker on its own copy of the wrappers.
+ */
+@Original
+public class ModuleSignatures {
+
+    private final List<AxiomWrapper> axioms;
+    private final int workers;
+
+    /**
+     * @param axioms ontology axioms
+     * @param workers number of worker threads
+     */
+    public ModuleSignatures(List<AxiomWrapper> axioms, int workers) {
+        this.axioms = axioms;
+        this.workers = workers;
+    }
+
+    /**
+     * @param entities entities
+     * @return bottom module signature of each entity
+     */
+    public Map<OWLEntity, Signature> compute(Collection<OWLEntity> entities) {
+        Map<OWLEntity, Signature> toReturn = new ConcurrentHashMap<>();
+        run(entities, () -> (entity, decomposer) -> toReturn.put(entity, new Signature(
+            decomposer.getModularizer().getSignature().getSignature().stream())));
+        return toReturn;
+    }
+
+    /**
+     * Group the axioms by module: two axioms are in the same group if they are in the bottom
+     * module of a common entity, or are linked by a chain of such modules. Each worker keeps a
+     * union-find forest of its own, and the forests are joined at the end.
+     *
+     * @param entities entities
+     * @return for every axiom, the index of the representative axiom of its group; -1 for axioms
+     *         in no module
+     */
+    public int[] groupModules(Collection<OWLEntity> entities) {
+        int n = axioms.size();
+        List<int[]> forests = Collections.synchronizedList(new ArrayList<>());
+        run(entities, () -> {
+            int[] parent = new int[n];
+            Arrays.fill(parent, -1);
+            forests.add(parent);
+            return (entity, decomposer) -> {
+                int first = -1;
+                for (AxiomWrapper a : decomposer.getModularizer().getModule()) {
+                    // copies are numbered by their position in the ontology
+                    int i = a.getId() - 1;
+                    if (first < 0) {
+                        first = i;
+                    }
+                    union(parent, first, i);
+                }
+            };
+        });
+        int[] toReturn = new int[n];
+        Arrays.fill(toReturn, -1);
+        for (int[] parent : forests) {
+            for (int i = 0; i < n; i++) {
+                if (parent[i] >= 0) {
+                    union(toReturn, i, find(parent, i));
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (toReturn[i] >= 0) {
+                toReturn[i] = find(toReturn, i);
+            }
+        }
+        return toReturn;
+    }
+
+    /** join the trees of a and b; axioms not yet in a tree are added as roots */
+    private static void union(int[] parent, int a, int b) {
+        if (parent[a] < 0) {
+            parent[a] = a;
+        }
+        if (parent[b] < 0) {
+            parent[b] = b;
+        }
+        parent[find(parent, a)] = find(parent, b);
+    }
+
+    private static int find(int[] parent, int i) {
+        int root = i;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // path compression
+        for (int j = i; parent[j] != root;) {
+            int k = parent[j];
+            parent[j] = root;
+            j = k;
+        }
+        return root;
+    }
+
+    /**
+     * extract the module of every entity on the worker threads
+     *
+     * @param entities entities
+     * @param visitors creates, for every worker, the action to take on each extracted module
+     */
+    private void run(Collection<OWLEntity> entities,
+        Supplier<BiConsumer<OWLEntity, Decomposer>> visitors) {
+        List<OWLEntity> list = new ArrayList<>(entities);
+        int nWorkers = Math.max(1, Math.min(workers, list.size()));
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(nWorkers, r -> {
+            Thread t = new Thread(r, "JFact module extraction worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                results.add(pool.submit(() -> runWorker(list, next, visitors.get())));
+            }
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReasonerInternalException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void runWorker(List<OWLEntity> entities, AtomicInteger next,
+        BiConsumer<OWLEntity, Decomposer> visitor) {
+        Decomposer decomposer = new Decomposer(copy(axioms), new SyntacticLocalityChecker());
+        for (int i = next.getAndIncrement(); i < entities.size(); i = next.getAndIncrement()) {
+            OWLEntity entity = entities.get(i);
+            decomposer.getModule(Stream.of(entity), false, ModuleType.BOT);
+            visitor.accept(entity, decomposer);
+        }
+    }
+
+    /** @return copies of the axioms, numbered by their position in the list */
+    private static List<AxiomWrapper> copy(List<AxiomWrapper> axioms) {
+        List<AxiomWrapper> toReturn = new ArrayList<>(axioms.size());
+        for (int i = 0; i < axioms.size(); i++) {
+            AxiomWrapper a = axioms.get(i);
+            if (a != Axioms.dummy()) {
+                AxiomWrapper c = new AxiomWrapper(a.getAxiom());
+                c.setId(i + 1);
+                c.setUsed(a.isUsed());
+                toReturn.add(c);
+            }
+        }
+        return toReturn;
+    }
+
+    /**
+     * Find the entities whose module may change because of some axioms. Bottom locality is
+     * preserved by removing symbols from the signature, so an axiom that is non-local for the
+     * empty signature is non-local for every module; otherwise it can only be non-local for
+     * modules that share a symbol with it. Only those modules are checked.
+     *
+     * @param name2Sig module signatures
+     * @param changed added or retracted axioms
+     * @param lc locality checker
+     * @return entities for whose module signature some of the axioms are non-local
+     */
+    public static Set<OWLEntity> nonLocal(Map<OWLEntity, Signature> name2Sig,
+        Collection<AxiomWrapper> changed, LocalityChecker lc) {
+        Set<OWLEntity> toReturn = new HashSet<>();
+        if (changed.isEmpty()) {
+            return toReturn;
+        }
+        Map<OWLEntity, List<OWLEntity>> users = new HashMap<>();
+        name2Sig.forEach((name, sig) -> sig.getSignature()
+            .forEach(e -> users.computeIfAbsent(e, x -> new ArrayList<>()).add(name)));
+        Signature empty = new Signature();
+        for (AxiomWrapper ax : changed) {
+            if (ax == Axioms.dummy() || toReturn.size() == name2Sig.size()) {
+                continue;
+            }
+            lc.setSignatureValue(empty);
+            Collection<OWLEntity> candidates;
+            if (lc.local(ax.getAxiom())) {
+                Set<OWLEntity> c = new HashSet<>();
+                ax.getAxiom().signature()
+                    .forEach(e -> c.addAll(users.getOrDefault(e, Collections.emptyList())));
+                candidates = c;
+            } else {
+                candidates = name2Sig.keySet();
+            }
+            for (OWLEntity name : candidates) {
+                if (!toReturn.contains(name)) {
+                    lc.setSignatureValue(name2Sig.get(name));
+                    if (!lc.local(ax.getAxiom())) {
+                        toReturn.add(name);
+                    }
+                }
+            }
+        }
+        return toReturn;
+    }
+}
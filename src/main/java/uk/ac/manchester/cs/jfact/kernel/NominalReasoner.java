@@ -9,7 +9,9 @@ import static uk.ac.manchester.cs.jfact.kernel.ClassifiableEntry.resolveSynonym;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
 import uk.ac.manchester.cs.jfact.helpers.Helper;
@@ -49,7 +51,7 @@ public class NominalReasoner extends DlSatTester {
      */
     @PortedFrom(file = "ReasonerNom.h", name = "registerNominalCache")
     protected void registerNominalCache(Individual p) {
-        dlHeap.setCache(p.getpName(), createModelCache(p.getNode().resolvePBlocker()));
+        dlHeap.setCache(p.getpName(), createModelCache(getNominalNode(p).resolvePBlocker()));
     }
 
     /**
@@ -63,7 +65,7 @@ public class NominalReasoner extends DlSatTester {
         DlCompletionTree node = cGraph.getNewNode();
         node.setNominalLevel();
         // init nominal with associated node
-        nom.setNode(node);
+        setNominalNode(nom, node);
         // ABox is inconsistent
         return initNewNode(node, DepSet.create(), nom.getpName());
     }
@@ -147,16 +149,18 @@ public class NominalReasoner extends DlSatTester {
         if (nominals.stream().anyMatch(this::initNominalNode)) {
             return true;
         }
-        if (tBox.getRelatedI().stream().anyMatch(this::initRelatedNominals)) {
+        if (relatedNominals().anyMatch(this::initRelatedNominals)) {
             return true;
         }
-        if (tBox.getDifferent().isEmpty()) {
+        List<List<Individual>> different = differentNominals();
+        if (different.isEmpty()) {
             return false;
         }
         DepSet dummy = DepSet.create();
-        for (List<Individual> r : tBox.getDifferent()) {
+        for (List<Individual> r : different) {
             cGraph.initIR();
-            if (r.stream().anyMatch(p -> cGraph.setCurIR(resolveSynonym(p).getNode(), dummy))) {
+            if (r.stream()
+                .anyMatch(p -> cGraph.setCurIR(getNominalNode(resolveSynonym(p)), dummy))) {
                 return true;
             }
             cGraph.finiIR();
@@ -166,8 +170,8 @@ public class NominalReasoner extends DlSatTester {
 
     @PortedFrom(file = "ReasonerNom.h", name = "initRelatedNominals")
     private boolean initRelatedNominals(Related rel) {
-        DlCompletionTree from = resolveSynonym(rel.getA()).getNode();
-        DlCompletionTree to = resolveSynonym(rel.getB()).getNode();
+        DlCompletionTree from = getNominalNode(resolveSynonym(rel.getA()));
+        DlCompletionTree to = getNominalNode(resolveSynonym(rel.getB()));
         Role r = resolveSynonym(rel.getRole());
         DepSet dep = DepSet.create();
         if (r.isDisjoint() && checkDisjointRoleClash(from, to, r, dep)) {
@@ -177,6 +181,27 @@ public class NominalReasoner extends DlSatTester {
         return setupEdge(pA, dep, 0);
     }
 
+    /**
+     * @param nom individual
+     * @param node node of the individual in the nominal cloud
+     */
+    @Original
+    protected void setNominalNode(Individual nom, DlCompletionTree node) {
+        nom.setNode(node);
+    }
+
+    /** @return role assertions to put into the nominal cloud */
+    @Original
+    protected Stream<Related> relatedNominals() {
+        return tBox.getRelatedI().stream();
+    }
+
+    /** @return different individual sets to put into the nominal cloud */
+    @Original
+    protected List<List<Individual>> differentNominals() {
+        return tBox.getDifferent();
+    }
+
     /** create BC for the barrier */
     @PortedFrom(file = "Reasoner.h", name = "createBCBarrier")
     private void createBCBarrier() {
@@ -40,6 +40,9 @@ public class Ontology implements Serializable {
     /** true iff ontology was changed */
     @PortedFrom(file = "tOntology.h", name = "changed")
     private boolean changed;
+    /** number of axioms processed at the last load */
+    @PortedFrom(file = "tOntology.h", name = "ProcessedAxioms")
+    private int processed;
 
     /** Default constructor. */
     public Ontology() {
@@ -67,6 +70,7 @@ public class Ontology implements Serializable {
     public void setProcessed() {
         retracted.clear();
         changed = false;
+        processed = axioms.size();
     }
 
     /**
@@ -108,6 +112,7 @@ public class Ontology implements Serializable {
     @PortedFrom(file = "tOntology.h", name = "safeClear")
     public void safeClear() {
         axioms.clear();
+        processed = 0;
     }
 
     // access to axioms
@@ -129,6 +134,12 @@ public class Ontology implements Serializable {
         return axioms.size();
     }
 
+    /** @return axioms added since the ontology was last processed */
+    @PortedFrom(file = "tOntology.h", name = "beginUnprocessed")
+    public List<AxiomWrapper> getUnprocessed() {
+        return axioms.subList(processed, axioms.size());
+    }
+
     /** @return list of retracted axioms */
     @Original
     public List<AxiomWrapper> getRetracted() {
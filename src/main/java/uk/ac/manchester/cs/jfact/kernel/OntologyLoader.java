@@ -456,7 +456,8 @@ public class OntologyLoader implements DLAxiomVisitor, Serializable {
     public void visit(AxiomValueOf axiom) {
         ensureNames(axiom.getIndividual());
         ensureNames(axiom.getAttribute());
-        getIndividual(axiom.getIndividual(), "Individual expected in Value Of axiom");
+        Individual i =
+            getIndividual(axiom.getIndividual(), "Individual expected in Value Of axiom");
         Role r = getRole(axiom.getAttribute(), "Role expression expected in Value Of axiom");
         if (r.isBottom()) {
             throw new InconsistentOntologyException(
@@ -464,6 +465,7 @@ public class OntologyLoader implements DLAxiomVisitor, Serializable {
         }
         if (!r.isTop()) {
             // nothing to do for universal role
+            tbox.getDataValues().add(i, r, axiom.getValue());
             // make an axiom i:EA.V
             tbox.addSubsumeAxiom(axiom.getIndividual().accept(expressionTranslator),
                 createSNFExists(axiom.getAttribute().accept(expressionTranslator),
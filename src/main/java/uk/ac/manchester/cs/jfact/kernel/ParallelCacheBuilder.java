@@ -0,0 +1,137 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.helpers.Helper.isValid;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
+
+import conformance.Original;
+import uk.ac.manchester.cs.chainsaw.FastSetFactory;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Builds the model caches needed by concept classification on a pool of worker reasoners. Every
+ * worker owns its completion graph and shares the read-only DAG of the TBox; the resulting caches
+ * are stored in the DAG, so that the (sequential) taxonomy construction finds satisfiability
+ * results and cached non-subsumptions without running the tableau.
+ */
+@Original
+public class ParallelCacheBuilder {
+
+    private final TBox tBox;
+    private final JFactReasonerConfiguration config;
+    private final DLDag dlHeap;
+
+    /**
+     * @param tBox tbox whose concepts are going to be classified
+     * @param config configuration
+     */
+    public ParallelCacheBuilder(TBox tBox, JFactReasonerConfiguration config) {
+        this.tBox = tBox;
+        this.config = config;
+        dlHeap = tBox.getDLHeap();
+    }
+
+    /**
+     * build positive and negative caches for all the unclassified concepts
+     * 
+     * @param collections concepts to prepare
+     */
+    @SafeVarargs
+    public final void buildCaches(List<Concept>... collections) {
+        List<Concept> work = new ArrayList<>();
+        for (List<Concept> l : collections) {
+            l.stream().filter(c -> !c.isClassified() && isValid(c.getpName()))
+                .forEach(work::add);
+        }
+        if (work.isEmpty()) {
+            return;
+        }
+        int nWorkers = Math.min(config.getClassificationWorkers(), work.size());
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger built = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(nWorkers, r -> {
+            Thread t = new Thread(r, "JFact classification worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                results.add(pool.submit(() -> runWorker(work, next, built)));
+            }
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReasonerInternalException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        tBox.addCounter("nClassificationWorkers", nWorkers);
+        tBox.addCounter("nParallelCaches", built.get());
+    }
+
+    /**
+     * process concepts from the shared work list until it is exhausted
+     * 
+     * @param work concepts to prepare
+     * @param next index of the next concept to process
+     * @param built number of caches built by the workers
+     */
+    private void runWorker(List<Concept> work, AtomicInteger next, AtomicInteger built) {
+        DlSatTester worker = new DlSatTester(tBox, config);
+        worker.initToDoPriorities();
+        for (int i = next.getAndIncrement(); i < work.size()
+            && !tBox.isCancelled().get(); i = next.getAndIncrement()) {
+            Concept c = work.get(i);
+            // unsatisfiable concepts go to BOTTOM, no need for negated caches
+            if (buildCache(worker, c, false, built).getState() != ModelCacheState.INVALID) {
+                buildCache(worker, c, true, built);
+            }
+        }
+    }
+
+    /**
+     * same as TBox::initCache, but with features local to the worker
+     * 
+     * @param worker reasoner to use
+     * @param c concept
+     * @param sub true for the negated concept cache
+     * @param built number of caches built by the workers
+     * @return cache
+     */
+    private ModelCacheInterface buildCache(DlSatTester worker, Concept c, boolean sub,
+        AtomicInteger built) {
+        int bp = sub ? -c.getpName() : c.getpName();
+        ModelCacheInterface cache = dlHeap.getCache(bp);
+        if (cache == null) {
+            worker.setSessionFeatures(
+                sub ? tBox.buildFeatures(null, c) : tBox.buildFeatures(c, null));
+            cache = worker.createCache(bp, FastSetFactory.create());
+            worker.setSessionFeatures(null);
+            built.incrementAndGet();
+        }
+        return cache;
+    }
+}
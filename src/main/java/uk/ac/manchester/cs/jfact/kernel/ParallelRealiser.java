@@ -0,0 +1,330 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.kernel.ClassifiableEntry.resolveSynonym;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.semanticweb.owlapi.reasoner.ReasonerInternalException;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheInterface;
+import uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Realises the individuals of a consistent ABox by connected component. Individuals are
+ * connected by role assertions and different individual axioms; same individuals are already
+ * synonyms. As long as no concept refers to a nominal and the top role is not used, the types of
+ * an individual only depend on its component, so every component is loaded into a nominal cloud of
+ * its own on a worker reasoner, and the direct types of its individuals are found by a top-down
+ * search of the classified concept taxonomy. The individual vertices are then added to the
+ * taxonomy by the calling thread. Individuals merged into other ones are left to the sequential
+ * realisation.
+ */
+@Original
+public class ParallelRealiser {
+
+    /** components smaller than this are realised together, to share a worker reasoner */
+    private static final int BATCH = 64;
+    private final TBox tBox;
+    private final JFactReasonerConfiguration config;
+    private final DLDag dlHeap;
+
+    /**
+     * @param tBox consistent tbox with classified concepts
+     * @param config configuration
+     */
+    public ParallelRealiser(TBox tBox, JFactReasonerConfiguration config) {
+        this.tBox = tBox;
+        this.config = config;
+        dlHeap = tBox.getDLHeap();
+    }
+
+    /**
+     * Realise the individuals; the numbers of workers, of components (batches included) and of
+     * realised individuals are reported as nRealisationWorkers, nRealisationComponents and
+     * nParallelRealised.
+     *
+     * @param tax concept taxonomy to add the individuals to
+     * @return number of realised individuals
+     */
+    public int realise(Taxonomy tax) {
+        List<Individual> individuals = asList(
+            tBox.individuals().filter(ClassifiableEntry::isNotSynonym).filter(i -> !i.isClassified()));
+        List<List<Individual>> components = partition(individuals);
+        if (components.isEmpty()) {
+            return 0;
+        }
+        Map<Individual, Collection<TaxonomyVertex>> types = new ConcurrentHashMap<>();
+        int nWorkers = Math.min(config.getClassificationWorkers(), components.size());
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(nWorkers, r -> {
+            Thread t = new Thread(r, "JFact realisation worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> results = new ArrayList<>(nWorkers);
+            for (int i = 0; i < nWorkers; i++) {
+                results.add(pool.submit(() -> runWorker(components, next, tax, types)));
+            }
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReasonerInternalException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        tBox.addCounter("nRealisationWorkers", nWorkers);
+        tBox.addCounter("nRealisationComponents", components.size());
+        // insert in ABox order, so that the taxonomy does not depend on the scheduling
+        int n = 0;
+        for (Individual i : individuals) {
+            Collection<TaxonomyVertex> parents = types.get(i);
+            if (parents != null) {
+                TaxonomyVertex cur = tax.getCurrent();
+                cur.clear();
+                cur.setSample(i, true);
+                parents.forEach(p -> cur.addNeighbour(true, p));
+                cur.addNeighbour(false, tax.getBottomVertex());
+                tax.finishCurrentNode();
+                n++;
+            }
+        }
+        tBox.addCounter("nParallelRealised", n);
+        return n;
+    }
+
+    private static <T> List<T> asList(Stream<T> s) {
+        return s.collect(Collectors.toList());
+    }
+
+    /**
+     * @param individuals individuals to partition
+     * @return connected components, largest first; small components are batched together
+     */
+    private List<List<Individual>> partition(List<Individual> individuals) {
+        Map<Individual, Integer> ids = new IdentityHashMap<>();
+        for (int i = 0; i < individuals.size(); i++) {
+            ids.put(individuals.get(i), Integer.valueOf(i));
+        }
+        int[] parent = new int[individuals.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (Related r : tBox.getRelatedI()) {
+            union(parent, ids.get(resolveSynonym(r.getA())), ids.get(resolveSynonym(r.getB())));
+        }
+        for (List<Individual> l : tBox.getDifferent()) {
+            for (int i = 1; i < l.size(); i++) {
+                union(parent, ids.get(resolveSynonym(l.get(0))), ids.get(resolveSynonym(l.get(i))));
+            }
+        }
+        Map<Integer, List<Individual>> components = new HashMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            components.computeIfAbsent(Integer.valueOf(find(parent, i)), k -> new ArrayList<>())
+                .add(individuals.get(i));
+        }
+        List<List<Individual>> sorted = new ArrayList<>(components.values());
+        sorted.sort(Comparator.comparingInt(l -> -l.size()));
+        List<List<Individual>> toReturn = new ArrayList<>();
+        List<Individual> batch = new ArrayList<>();
+        for (List<Individual> l : sorted) {
+            if (l.size() >= BATCH) {
+                toReturn.add(l);
+            } else {
+                batch.addAll(l);
+                if (batch.size() >= BATCH) {
+                    toReturn.add(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            toReturn.add(batch);
+        }
+        return toReturn;
+    }
+
+    private static void union(int[] parent, Integer a, Integer b) {
+        // individuals that are already classified are not partitioned
+        if (a != null && b != null) {
+            parent[find(parent, a.intValue())] = find(parent, b.intValue());
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        int root = i;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+        // path compression
+        for (int j = i; parent[j] != root;) {
+            int k = parent[j];
+            parent[j] = root;
+            j = k;
+        }
+        return root;
+    }
+
+    /**
+     * realise components from the shared work list until it is exhausted
+     *
+     * @param components components to realise
+     * @param next index of the next component to realise
+     * @param tax classified concept taxonomy; read only
+     * @param types direct types of the realised individuals
+     */
+    private void runWorker(List<List<Individual>> components, AtomicInteger next, Taxonomy tax,
+        Map<Individual, Collection<TaxonomyVertex>> types) {
+        for (int i = next.getAndIncrement(); i < components.size()
+            && !tBox.isCancelled().get(); i = next.getAndIncrement()) {
+            List<Individual> component = components.get(i);
+            ComponentReasoner worker = new ComponentReasoner(tBox, config, component);
+            worker.initToDoPriorities();
+            worker.setSessionFeatures(tBox.buildFeatures(component.get(0), null));
+            if (!worker.consistentNominalCloud()) {
+                throw new ReasonerInternalException(
+                    "ABox component inconsistent in a consistent KB: " + component);
+            }
+            for (Individual ind : component) {
+                if (!tBox.isBlockedInd(ind)) {
+                    types.put(ind, new DirectTypes(worker, ind).search(tax));
+                }
+            }
+        }
+    }
+
+    /** top-down search of the direct types of an individual */
+    private class DirectTypes {
+
+        private final ComponentReasoner worker;
+        private final Individual ind;
+        private final Map<TaxonomyVertex, Boolean> tested = new HashMap<>();
+        private final Set<TaxonomyVertex> direct = new LinkedHashSet<>();
+
+        DirectTypes(ComponentReasoner worker, Individual ind) {
+            this.worker = worker;
+            this.ind = ind;
+        }
+
+        Collection<TaxonomyVertex> search(Taxonomy tax) {
+            visit(tax.getTopVertex(), tax.getBottomVertex());
+            return direct;
+        }
+
+        /** v is known to be a type of the individual */
+        private void visit(TaxonomyVertex v, TaxonomyVertex bottom) {
+            boolean specialised = false;
+            for (TaxonomyVertex c : asList(v.neigh(false))) {
+                if (c == bottom || !(c.getPrimer() instanceof Concept)
+                    || c.getPrimer() instanceof Individual) {
+                    continue;
+                }
+                Boolean known = tested.get(c);
+                if (known == null) {
+                    // a subconcept of a non-type is not a type
+                    boolean type = c.neigh(true).noneMatch(p -> Boolean.FALSE.equals(tested.get(p)))
+                        && isInstance((Concept) c.getPrimer());
+                    tested.put(c, Boolean.valueOf(type));
+                    if (type) {
+                        visit(c, bottom);
+                    }
+                    specialised |= type;
+                } else {
+                    specialised |= known.booleanValue();
+                }
+            }
+            if (!specialised) {
+                direct.add(v);
+            }
+        }
+
+        private boolean isInstance(Concept c) {
+            ModelCacheInterface indCache = dlHeap.getCache(ind.getpName());
+            ModelCacheInterface nCache = dlHeap.getCache(-c.getpName());
+            if (indCache != null && nCache != null && !indCache.isHasActiveSplits()
+                && !nCache.isHasActiveSplits()
+                && indCache.canMerge(nCache) == ModelCacheState.VALID) {
+                return false;
+            }
+            worker.setSessionFeatures(tBox.buildFeatures(ind, c));
+            return !worker.runSat(ind.resolveId(), -c.resolveId());
+        }
+    }
+
+    /**
+     * Nominal reasoner whose nominal cloud only holds some components of the ABox. Completion graph
+     * nodes of the individuals are kept by the reasoner, so that the individuals and the shared
+     * DAG are not modified.
+     */
+    private static class ComponentReasoner extends NominalReasoner {
+
+        private final Set<Individual> members;
+        private final Map<Individual, DlCompletionTree> nodes = new IdentityHashMap<>();
+
+        ComponentReasoner(TBox tbox, JFactReasonerConfiguration options,
+            List<Individual> component) {
+            super(tbox, options);
+            nominals.clear();
+            nominals.addAll(component);
+            members = Collections.newSetFromMap(new IdentityHashMap<>());
+            members.addAll(component);
+        }
+
+        @Override
+        protected DlCompletionTree getNominalNode(Individual nom) {
+            return nodes.get(nom);
+        }
+
+        @Override
+        protected void setNominalNode(Individual nom, DlCompletionTree node) {
+            nodes.put(nom, node);
+        }
+
+        @Override
+        protected Stream<Related> relatedNominals() {
+            return super.relatedNominals().filter(r -> members.contains(resolveSynonym(r.getA())));
+        }
+
+        @Override
+        protected List<List<Individual>> differentNominals() {
+            return asList(super.differentNominals().stream()
+                .filter(l -> members.contains(resolveSynonym(l.get(0)))));
+        }
+
+        @Override
+        protected void updateClassifiedSingleton(Individual p) {
+            // nominal caches and same individuals were registered by the TBox nominal reasoner
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.helpers.DLTree;
+
+/**
+ * Bounded cache of the results of complex concept queries, keyed by the (structurally compared)
+ * DLTree of the query. Least recently used entries are evicted first. Entries keep the
+ * satisfiability of the query and, once it is classified, a detached copy of its taxonomy position.
+ * The cache has to be cleared whenever the KB or its taxonomy changes.
+ */
+@Original
+public class QueryCache implements Serializable {
+
+    /** cached result of a single query */
+    static class Entry implements Serializable {
+
+        private final CacheStatus level;
+        private final boolean satisfiable;
+        @Nullable
+        private final TaxonomyVertex vertex;
+
+        Entry(CacheStatus level, boolean satisfiable, @Nullable TaxonomyVertex vertex) {
+            this.level = level;
+            this.satisfiable = satisfiable;
+            this.vertex = vertex;
+        }
+
+        /** @return level of the cached information */
+        CacheStatus getLevel() {
+            return level;
+        }
+
+        /** @return true if the query concept is satisfiable */
+        boolean isSatisfiable() {
+            return satisfiable;
+        }
+
+        /** @return taxonomy position; null unless the level is CLASSIFIED */
+        @Nullable
+        TaxonomyVertex getVertex() {
+            return vertex;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<DLTree, Entry> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param capacity max number of cached queries; 0 disables caching
+     */
+    public QueryCache(int capacity) {
+        this.capacity = capacity;
+        entries = new LinkedHashMap<DLTree, Entry>(16, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DLTree, Entry> eldest) {
+                return size() > QueryCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @param query query description
+     * @param level required level
+     * @return cached entry of at least the required level, or null if there is none
+     */
+    @Nullable
+    Entry get(DLTree query, CacheStatus level) {
+        if (capacity == 0) {
+            return null;
+        }
+        Entry e = entries.get(query);
+        if (e == null || e.getLevel().ordinal() < level.ordinal()) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return e;
+    }
+
+    /**
+     * @param query query description
+     * @param e entry to cache
+     */
+    void put(DLTree query, Entry e) {
+        if (capacity > 0) {
+            entries.put(query, e);
+        }
+    }
+
+    /** remove all the entries; counters are kept */
+    public void clear() {
+        entries.clear();
+    }
+
+    /** @return number of cached queries */
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return number of queries answered from the cache */
+    public long getHits() {
+        return hits;
+    }
+
+    /** @return number of queries not found in the cache */
+    public long getMisses() {
+        return misses;
+    }
+}
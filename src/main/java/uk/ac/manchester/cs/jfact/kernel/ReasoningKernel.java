@@ -26,24 +26,25 @@ import static uk.ac.manchester.cs.jfact.kernel.KBStatus.KBEMPTY;
 import static uk.ac.manchester.cs.jfact.kernel.KBStatus.KBLOADING;
 import static uk.ac.manchester.cs.jfact.kernel.KBStatus.KBREALISED;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLEntity;
@@ -68,6 +69,7 @@ import uk.ac.manchester.cs.atomicdecomposition.AtomicDecomposition;
 import uk.ac.manchester.cs.atomicdecomposition.AtomicDecompositionImpl;
 import uk.ac.manchester.cs.jfact.KnowledgeExplorer;
 import uk.ac.manchester.cs.jfact.datatypes.DatatypeFactory;
+import uk.ac.manchester.cs.jfact.datatypes.Literal;
 import uk.ac.manchester.cs.jfact.datatypes.LiteralEntry;
 import uk.ac.manchester.cs.jfact.helpers.DLTree;
 import uk.ac.manchester.cs.jfact.helpers.DLTreeFactory;
@@ -135,6 +137,27 @@ public class ReasoningKernel implements Serializable {
     /** cached query result (taxonomy position) */
     @PortedFrom(file = "Kernel.h", name = "cachedVertex")
     private TaxonomyVertex cachedVertex;
+    /** satisfiability of a query restored from the query cache (no cached concept then) */
+    @Original
+    private boolean cachedSatisfiable;
+    /** results of recent complex queries */
+    @Original
+    private final QueryCache queryCache;
+    /** counters of the kernel itself; unlike the TBox counters, they survive reloads */
+    @Original
+    private final Map<String, Long> kernelCounters = new TreeMap<>();
+    /** instances and types of the realised taxonomy; built on first use */
+    @Original
+    @Nullable
+    private InstanceIndex instanceIndex;
+    /** role fillers of the realised ABox; built on first use */
+    @Original
+    @Nullable
+    private RoleFillerIndex roleFillerIndex;
+    /** classifier of the module groups; keeps the group taxonomies across reloads */
+    @Original
+    @Nullable
+    private ModularClassifier modularClassifier;
     // internal flags
     /** set if TBox throws an exception during preprocessing/classification */
     @PortedFrom(file = "Kernel.h", name = "reasoningFailed")
@@ -182,6 +205,7 @@ public class ReasoningKernel implements Serializable {
         kernelOptions = conf;
         datatypeFactory = factory;
         this.df = df;
+        queryCache = new QueryCache(conf.getQueryCacheSize());
         initCacheAndFlags();
     }
 
@@ -312,9 +336,91 @@ public class ReasoningKernel implements Serializable {
         clearQueryCache();
         cachedConcept = null;
         cachedVertex = null;
+        queryCache.clear();
+        instanceIndex = null;
+        roleFillerIndex = null;
         needTracing = false;
     }
 
+    /**
+     * @return cache of the complex queries, with its hit and miss counters
+     */
+    @Original
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * @return reasoning metrics of the current TBox; empty if no TBox has been built yet
+     */
+    @Original
+    public ReasoningMetrics getMetrics() {
+        ReasoningMetrics metrics = pTBox == null ? ReasoningMetrics.EMPTY : pTBox.getMetrics();
+        return metrics.withCounters(kernelCounters);
+    }
+
+    /**
+     * add to a counter of the kernel; reported with the metrics of the current TBox, and kept
+     * when the TBox is rebuilt
+     * 
+     * @param name counter name
+     * @param n value to add
+     */
+    @Original
+    public void addCounter(String name, long n) {
+        kernelCounters.merge(name, Long.valueOf(n), Long::sum);
+    }
+
+    /**
+     * try to restore the state of a complex query from the query cache
+     * 
+     * @param query query description
+     * @param level required cache level
+     * @return true if the query was found in the cache
+     */
+    @Original
+    private boolean restoreQuery(DLTree query, CacheStatus level) {
+        if (ignoreExprCache) {
+            return false;
+        }
+        QueryCache.Entry entry = queryCache.get(query, level);
+        if (entry == null) {
+            return false;
+        }
+        cachedConcept = null;
+        cachedVertex = entry.getVertex();
+        cachedSatisfiable = entry.isSatisfiable();
+        cacheLevel = entry.getLevel();
+        return true;
+    }
+
+    /**
+     * save the state of the current complex query in the query cache
+     * 
+     * @param query query description
+     */
+    @Original
+    private void rememberQuery(DLTree query) {
+        if (ignoreExprCache) {
+            return;
+        }
+        boolean sat = getTBox().isSatisfiable(cachedConcept);
+        TaxonomyVertex v =
+            cacheLevel == CLASSIFIED ? verifyNotNull(cachedVertex).detachedCopy() : null;
+        queryCache.put(query, new QueryCache.Entry(cacheLevel, sat, v));
+    }
+
+    /**
+     * @return true iff the current query concept is satisfiable
+     */
+    @Original
+    private boolean isQuerySatisfiable() {
+        if (cachedConcept == null) {
+            return cachedSatisfiable;
+        }
+        return getTBox().isSatisfiable(cachedConcept);
+    }
+
     /** set need tracing to true */
     @PortedFrom(file = "Kernel.h", name = "needTracing")
     public void needTracing() {
@@ -374,7 +480,7 @@ public class ReasoningKernel implements Serializable {
             return false;
         }
         this.setUpCache(c, SAT);
-        return getTBox().isSatisfiable(cachedConcept);
+        return isQuerySatisfiable();
     }
 
     /**
@@ -384,7 +490,7 @@ public class ReasoningKernel implements Serializable {
     @PortedFrom(file = "Kernel.h", name = "checkSat")
     private boolean checkSat(ConceptExpression c) {
         setUpCache(c, SAT);
-        return getTBox().isSatisfiable(cachedConcept);
+        return isQuerySatisfiable();
     }
 
     /**
@@ -566,6 +672,17 @@ public class ReasoningKernel implements Serializable {
         return getTBox().getTaxonomy();
     }
 
+    /**
+     * classify the KB if necessary and take an immutable copy of the concept hierarchy
+     * 
+     * @return snapshot of the concept taxonomy
+     */
+    @Original
+    public TaxonomySnapshot getCTaxonomySnapshot() {
+        classifyKB();
+        return new TaxonomySnapshot(getCTaxonomy());
+    }
+
     /** @return object role hierarchy */
     @PortedFrom(file = "Kernel.h", name = "getORTaxonomy")
     private Taxonomy getORTaxonomy() {
@@ -1426,7 +1543,51 @@ public class ReasoningKernel implements Serializable {
         realiseKB();
         setUpCache(c, CLASSIFIED);
         actor.clear();
-        getCTaxonomy().getRelativesInfo(cachedVertex, actor, true, false, false);
+        InstanceIndex index = getInstanceIndex();
+        RoaringBitmap instances = index.getInstances(cachedVertex);
+        if (instances == null) {
+            getCTaxonomy().getRelativesInfo(cachedVertex, actor, true, false, false);
+            return;
+        }
+        // vertices without individuals are of no interest to instance actors
+        actor.apply(cachedVertex);
+        applyAll(index, instances, actor);
+    }
+
+    /**
+     * @return index of the instances and types of the realised taxonomy; builds are counted as
+     *         nInstanceIndexBuilds
+     */
+    @Original
+    private InstanceIndex getInstanceIndex() {
+        InstanceIndex index = instanceIndex;
+        if (index == null) {
+            index = new InstanceIndex(new TaxonomySnapshot(getCTaxonomy()));
+            instanceIndex = index;
+            addCounter("nInstanceIndexBuilds", 1);
+        }
+        return index;
+    }
+
+    /**
+     * @return index of the told role fillers of the individuals
+     */
+    @Original
+    private RoleFillerIndex getRoleFillerIndex() {
+        RoleFillerIndex index = roleFillerIndex;
+        if (index == null) {
+            index = new RoleFillerIndex(pTBox.getRelatedI());
+            roleFillerIndex = index;
+        }
+        return index;
+    }
+
+    @Original
+    private static void applyAll(InstanceIndex index, RoaringBitmap ids, Actor actor) {
+        IntIterator it = ids.getIntIterator();
+        while (it.hasNext()) {
+            actor.apply(index.getVertex(it.next()));
+        }
     }
 
     /**
@@ -1444,7 +1605,14 @@ public class ReasoningKernel implements Serializable {
         realiseKB();
         setUpCache(getExpressionManager().oneOf(i), CLASSIFIED);
         actor.clear();
-        getCTaxonomy().getRelativesInfo(cachedVertex, actor, true, direct, true);
+        RoaringBitmap types = direct ? null : getInstanceIndex().getTypes(cachedVertex);
+        if (types == null) {
+            // direct types are close by: the walk stops at the first applicable ancestors
+            getCTaxonomy().getRelativesInfo(cachedVertex, actor, true, direct, true);
+        } else {
+            actor.apply(cachedVertex);
+            applyAll(getInstanceIndex(), types, actor);
+        }
         return actor;
     }
 
@@ -1488,7 +1656,8 @@ public class ReasoningKernel implements Serializable {
     @PortedFrom(file = "Kernel.h", name = "buildCompletionTree")
     public DlCompletionTree buildCompletionTree(ConceptExpression c) {
         preprocessKB();
-        setUpCache(c, SAT);
+        // the query concept itself is needed, so results of the query cache are of no use
+        setUpCache(c, SAT, false);
         DlCompletionTree ret = getTBox().buildCompletionTree(cachedConcept);
         // init KB after the sat test to reduce the number of DAG adjustments
         if (ke == null) {
@@ -1654,27 +1823,19 @@ public class ReasoningKernel implements Serializable {
         // fill in M^+ and M^- sets
         Timer t = new Timer();
         t.start();
+        // only modules sharing symbols with the changed axioms are checked
         LocalityChecker lc = getModExtractor(false, null).getModularizer().getLocalityChecker();
-        for (Map.Entry<OWLEntity, Signature> p : name2Sig.entrySet()) {
-            lc.setSignatureValue(p.getValue());
-            for (AxiomWrapper notProcessed : ontology.getAxioms()) {
-                if (notProcessed != Axioms.dummy() && !lc.local(notProcessed.getAxiom())) {
-                    mPlus.add(p.getKey());
-                    break;
-                }
-            }
-            for (AxiomWrapper retracted : ontology.getRetracted()) {
-                if (retracted != Axioms.dummy() && !lc.local(retracted.getAxiom())) {
-                    mMinus.add(p.getKey());
-                    // FIXME!! only concepts for now
-                    TaxonomyVertex v = ((ClassifiableEntry) p.getKey()).getTaxVertex();
-                    assert v != null;
-                    if (v.noNeighbours(true)) {
-                        v.addNeighbour(true, tax.getTopVertex());
-                        tax.getTopVertex().addNeighbour(false, v);
-                    }
-                    break;
-                }
+        List<AxiomWrapper> added = new ArrayList<>();
+        add(added, ontology.getUnprocessed().stream().filter(AxiomWrapper::isUsed));
+        mPlus.addAll(ModuleSignatures.nonLocal(name2Sig, added, lc));
+        for (OWLEntity p : ModuleSignatures.nonLocal(name2Sig, ontology.getRetracted(), lc)) {
+            mMinus.add(p);
+            // FIXME!! only concepts for now
+            TaxonomyVertex v = ((ClassifiableEntry) p).getTaxVertex();
+            assert v != null;
+            if (v.noNeighbours(true)) {
+                v.addNeighbour(true, tax.getTopVertex());
+                tax.getTopVertex().addNeighbour(false, v);
             }
         }
         t.stop();
@@ -1686,8 +1847,8 @@ public class ReasoningKernel implements Serializable {
             buildSignature(toProcess.iterator().next(), ontology.getAxioms(), toProcess);
         }
         tax.finalise();
-        // save the taxonomy
-        byte[] saved = save(pTBox);
+        // keep only the names and links of the taxonomy; the old TBox is dropped on reload
+        TaxonomyImage image = new TaxonomyImage(tax);
         // do actual change
         kernelOptions.setUseIncrementalReasoning(false);
         forceReload();
@@ -1695,28 +1856,17 @@ public class ReasoningKernel implements Serializable {
         pTBox.isConsistent();
         kernelOptions.setUseIncrementalReasoning(true);
         // load the taxonomy
-        try {
-            pTBox = (TBox) new ObjectInputStream(new ByteArrayInputStream(saved)).readObject();
-            pTBox.reclassify(mPlus, mMinus);
-            getOntology().setProcessed();
-        } catch (ClassNotFoundException | IOException e) {
-            LOGGER.error("Deserialization problem", e);
-        }
-    }
-
-    @Nullable
-    private static byte[] save(TBox tbox) {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        ObjectOutputStream oout;
-        try {
-            oout = new ObjectOutputStream(out);
-            // save taxonomy
-            oout.writeObject(tbox);
-        } catch (IOException e) {
-            LOGGER.error("Serialization problem", e);
-            return null;
+        Map<OWLEntity, ClassifiableEntry> entries = new HashMap<>();
+        for (NamedEntity e : ontology.getSignature()) {
+            if (e.getEntry() instanceof ClassifiableEntry) {
+                entries.put(e.getEntity(), (ClassifiableEntry) e.getEntry());
+            }
         }
-        return out.toByteArray();
+        pTBox.restoreTaxonomy(image, entries::get);
+        pTBox.reclassify(mPlus, mMinus);
+        pTBox.addCounter("nIncrementalPlus", mPlus.size());
+        pTBox.addCounter("nIncrementalMinus", mMinus.size());
+        getOntology().setProcessed();
     }
 
     /** force the re-classification of the changed ontology */
@@ -1792,6 +1942,14 @@ public class ReasoningKernel implements Serializable {
         getModExtractor(false, null);
         // fill the module signatures of the concepts
         getTBox().getConcepts().forEach(p -> toProcess.add(p.getEntity().getEntity()));
+        int workers = kernelOptions.getClassificationWorkers();
+        if (workers > 1) {
+            // the module of each concept is independent of the others
+            moduleTimer.start();
+            name2Sig.putAll(new ModuleSignatures(ontology.getAxioms(), workers).compute(toProcess));
+            moduleTimer.stop();
+            toProcess.clear();
+        }
         // process all entries recursively
         while (!toProcess.isEmpty()) {
             buildSignature(toProcess.iterator().next(), ontology.getAxioms(), toProcess);
@@ -1817,6 +1975,10 @@ public class ReasoningKernel implements Serializable {
             }
             return;
         }
+        // the taxonomy is going to change: cached query positions are stale
+        queryCache.clear();
+        instanceIndex = null;
+        roleFillerIndex = null;
         // here curStatus < kbRealised, and status >= kbChecked
         if (curStatus == KBEMPTY || curStatus == KBLOADING) {
             // load and preprocess KB -- here might be failures
@@ -1844,11 +2006,115 @@ public class ReasoningKernel implements Serializable {
             // nothing to do for inconsistent ontologies
             return;
         }
+        ClassificationStore store = null;
+        String fingerprint = null;
+        File dir = kernelOptions.getClassificationCacheDirectory();
+        if (dir != null && pTBox.getStatus() == KBCHECKED) {
+            store = new ClassificationStore(dir);
+            fingerprint = ClassificationStore.fingerprint(ontology);
+            if (restoreClassification(store, fingerprint)) {
+                // concepts are classified: realisation only has to deal with individuals
+                pTBox.addCounter("nRestoredClassifications", 1);
+                store = null;
+            }
+        }
+        if (pTBox.getStatus() == KBCHECKED && kernelOptions.isUseModularClassification()) {
+            classifyByModules();
+        }
+        if (pTBox.getStatus().ordinal() < KBCLASSIFIED.ordinal()
+            && kernelOptions.isUseStrategyTuning()) {
+            tuneStrategy();
+        }
         if (status == KBREALISED) {
             pTBox.performRealisation();
-        } else {
+        } else if (pTBox.getStatus().ordinal() < KBCLASSIFIED.ordinal()) {
             pTBox.performClassification();
         }
+        // only concept taxonomies are stored; with nominals, classification realises the KB
+        if (store != null && fingerprint != null && pTBox.getStatus() == KBCLASSIFIED) {
+            try {
+                store.save(fingerprint, pTBox);
+            } catch (IOException e) {
+                LOGGER.warn("Cannot store classification in {}", dir, e);
+            }
+        }
+    }
+
+    /**
+     * choose the reasoning strategy for the classification of the TBox: from the stored profile of
+     * the ontology if there is one, by running the strategy tuner otherwise
+     */
+    @Original
+    private void tuneStrategy() {
+        StrategyTuner tuner = new StrategyTuner(pTBox);
+        File dir = kernelOptions.getStrategyProfileDirectory();
+        String fingerprint = dir == null ? null : ClassificationStore.fingerprint(ontology);
+        StrategyTuner.Profile profile = null;
+        if (dir != null && fingerprint != null) {
+            profile = StrategyTuner.load(dir, fingerprint);
+        }
+        if (profile != null) {
+            pTBox.addCounter("nStrategyProfilesLoaded", 1);
+        } else {
+            profile = tuner.tune();
+            if (dir != null && fingerprint != null) {
+                try {
+                    StrategyTuner.save(dir, fingerprint, profile);
+                } catch (IOException e) {
+                    LOGGER.warn("Cannot store strategy profile in {}", dir, e);
+                }
+            }
+        }
+        tuner.apply(profile);
+    }
+
+    /**
+     * @param store persistent classification store
+     * @param fingerprint ontology fingerprint
+     * @return true if the classification of the ontology was restored from the store
+     */
+    @Original
+    private boolean restoreClassification(ClassificationStore store, String fingerprint) {
+        Map<String, OWLEntity> entities = new HashMap<>();
+        Map<OWLEntity, ClassifiableEntry> entries = new HashMap<>();
+        for (NamedEntity e : ontology.getSignature()) {
+            // punned IRIs are told apart by entity type
+            entities.put(TaxonomyImage.key(e.getEntity()), e.getEntity());
+            if (e.getEntry() instanceof ClassifiableEntry) {
+                entries.put(e.getEntity(), (ClassifiableEntry) e.getEntry());
+            }
+        }
+        return store.load(fingerprint, pTBox, entities::get, entries::get);
+    }
+
+    /**
+     * classify the module groups of the ontology apart and merge their taxonomies; nothing is done
+     * if the ontology does not split, or if it has individuals, which are realised with the
+     * concepts when there are nominals
+     */
+    @Original
+    private void classifyByModules() {
+        if (pTBox.individuals().findAny().isPresent()) {
+            return;
+        }
+        Map<OWLEntity, ClassifiableEntry> entries = new HashMap<>();
+        for (NamedEntity e : ontology.getSignature()) {
+            if (e.getEntity().isOWLClass() && e.getEntry() instanceof ClassifiableEntry) {
+                entries.put(e.getEntity(), (ClassifiableEntry) e.getEntry());
+            }
+        }
+        ModularClassifier classifier = modularClassifier;
+        if (classifier == null) {
+            classifier = new ModularClassifier(kernelOptions, datatypeFactory, df,
+                interrupted == null ? new AtomicBoolean() : interrupted);
+            modularClassifier = classifier;
+        }
+        TaxonomyImage image = classifier.classify(ontology.getAxioms(), entries.keySet());
+        pTBox.addCounter("nModuleGroups", classifier.getGroups());
+        pTBox.addCounter("nClassifiedModuleGroups", classifier.getClassifiedGroups());
+        if (image != null) {
+            pTBox.restoreClassification(image, entries::get);
+        }
     }
 
     // do classification
@@ -1908,9 +2174,12 @@ public class ReasoningKernel implements Serializable {
             } else {
                 // concept was defined but not classified yet
                 assert level == CLASSIFIED && cacheLevel != CLASSIFIED;
-                if (cacheLevel == SAT) {
+                if (cacheLevel == SAT && cachedConcept != null) {
                     // already check satisfiability
                     classifyQuery(cachedQueryTree.isCN());
+                    if (!cachedQueryTree.isCN()) {
+                        rememberQuery(cachedQueryTree);
+                    }
                     return;
                 }
             }
@@ -1918,11 +2187,15 @@ public class ReasoningKernel implements Serializable {
             // change current query
             this.setQueryCache(query);
         }
+        boolean named = cachedQueryTree.isCN();
+        if (!named && restoreQuery(cachedQueryTree, level)) {
+            return;
+        }
         // clean cached info
         cachedVertex = null;
         cacheLevel = level;
         // check if concept-to-cache is defined in ontology
-        if (cachedQueryTree.isCN()) {
+        if (named) {
             cachedConcept = getTBox().getCI(cachedQueryTree);
         } else {
             // case of complex query
@@ -1935,26 +2208,43 @@ public class ReasoningKernel implements Serializable {
             getTBox().preprocessQueryConcept(cachedConcept);
         }
         if (level == CLASSIFIED) {
-            classifyQuery(cachedQueryTree.isCN());
+            classifyQuery(named);
+        }
+        if (!named) {
+            rememberQuery(cachedQueryTree);
         }
     }
 
     @PortedFrom(file = "Kernel.h", name = "setUpCache")
     private void setUpCache(ConceptExpression query, CacheStatus level) {
+        setUpCache(query, level, true);
+    }
+
+    /**
+     * @param query query
+     * @param level required cache level
+     * @param useQueryCache false if the query concept has to be built even if the query results
+     *        are cached
+     */
+    @PortedFrom(file = "Kernel.h", name = "setUpCache")
+    private void setUpCache(ConceptExpression query, CacheStatus level, boolean useQueryCache) {
         // if KB was changed since it was classified,
         // we should catch it before
         assert !ontology.isChanged();
         // check if the query is already cached
-        if (this.checkQueryCache(query)) {
+        if (this.checkQueryCache(query) && (useQueryCache || cachedConcept != null)) {
             // ... with the same level -- nothing to do
             if (level.ordinal() <= cacheLevel.ordinal()) {
                 return;
             } else {
                 // concept was defined but not classified yet
                 assert level == CLASSIFIED && cacheLevel != CLASSIFIED;
-                if (cacheLevel == SAT) {
+                if (cacheLevel == SAT && cachedConcept != null) {
                     // already check satisfiability
                     classifyQuery(ReasoningKernel.isNameOrConst(cachedQuery));
+                    if (!ReasoningKernel.isNameOrConst(cachedQuery)) {
+                        rememberQuery(e(cachedQuery));
+                    }
                     return;
                 }
             }
@@ -1962,17 +2252,23 @@ public class ReasoningKernel implements Serializable {
             // change current query
             this.setQueryCache(query);
         }
+        boolean named = ReasoningKernel.isNameOrConst(cachedQuery);
+        // complex queries are compared by their structure
+        DLTree key = named ? null : e(cachedQuery);
+        if (key != null && useQueryCache && restoreQuery(key, level)) {
+            return;
+        }
         // clean cached info
         cachedVertex = null;
         cacheLevel = level;
         // check if concept-to-cache is defined in ontology
-        if (ReasoningKernel.isNameOrConst(cachedQuery)) {
+        if (key == null) {
             cachedConcept = getTBox().getCI(e(cachedQuery));
         } else {
             // case of complex query
             // need to clear the query before transform it into DLTree
             // ... as if fresh names appears there, they would be cleaned up
-            cachedConcept = getTBox().createQueryConcept(e(cachedQuery));
+            cachedConcept = getTBox().createQueryConcept(key);
         }
         assert cachedConcept != null;
         // preprocess concept is necessary (fresh concept in query or complex
@@ -1981,7 +2277,10 @@ public class ReasoningKernel implements Serializable {
             getTBox().preprocessQueryConcept(cachedConcept);
         }
         if (level == CLASSIFIED) {
-            classifyQuery(ReasoningKernel.isNameOrConst(cachedQuery));
+            classifyQuery(named);
+        }
+        if (key != null) {
+            rememberQuery(key);
         }
     }
 
@@ -1997,26 +2296,6 @@ public class ReasoningKernel implements Serializable {
         return false;
     }
 
-    @PortedFrom(file = "Kernel.cpp", name = "checkDataRelation")
-    private boolean checkDataRelation(DlCompletionTree vR, DlCompletionTree vS, int op) {
-        switch (op) {
-            case 0: // =
-                return isEq(vR, vS);
-            case 1: // !=
-                return !isEq(vR, vS);
-            case 2: // <
-                return isLt(vR, vS);
-            case 3: // <=
-                return isLt(vR, vS) || isEq(vR, vS);
-            case 4: // >
-                return isLt(vS, vR);
-            case 5: // >=
-                return isLt(vS, vR) || isEq(vR, vS);
-            default:
-                throw new ReasonerInternalException("Illegal operation in checkIndividualValues()");
-        }
-    }
-
     /**
      * set RESULT into set of instances of A such that they do have data roles R and S
      * 
@@ -2029,33 +2308,39 @@ public class ReasoningKernel implements Serializable {
     @PortedFrom(file = "Kernel.cpp", name = "getDataRelatedIndividuals")
     public Collection<IndividualName> getDataRelatedIndividuals(RoleExpression or,
         RoleExpression os, int op, Collection<IndividualExpression> individuals) {
-        realiseKB(); // ensure KB is ready to answer the query
+        // told values only need the role hierarchy
+        preprocessKB();
         List<IndividualName> toReturn = new ArrayList<>();
         Role r = getRole(or, "Role expression expected in the getIndividualsWith()");
         Role s = getRole(os, "Role expression expected in the getIndividualsWith()");
-        // vector of individuals
+        // told values are closed under the role hierarchy: no need to look at the models
         for (IndividualExpression q : individuals) {
             Individual ind =
                 getIndividual(q, "individual name expected in getDataRelatedIndividuals()");
-            DlCompletionTree vR = null;
-            DlCompletionTree vS = null;
-            for (DlCompletionTreeArc edge : ind.getNode().getNeighbour()) {
-                if (edge.isNeighbour(r)) {
-                    vR = edge.getArcEnd();
-                } else if (edge.isNeighbour(s)) {
-                    vS = edge.getArcEnd();
-                }
-                if (vR != null && vS != null && checkDataRelation(vR, vS, op)) {
-                    if (q instanceof IndividualName) {
-                        toReturn.add((IndividualName) q);
-                    }
-                    break;
-                }
+            if (q instanceof IndividualName
+                && getTBox().getDataValues().isDataRelated(ind, r, s, op)) {
+                toReturn.add((IndividualName) q);
             }
         }
         return toReturn;
     }
 
+    /**
+     * @param i individual
+     * @param r data role
+     * @return told values of i via r or any of its sub-roles
+     */
+    @Original
+    public Set<Literal<?>> getDataValues(IndividualExpression i, DataRoleExpression r) {
+        preprocessKB();
+        Role role = getRole(r, "Role expression expected in getDataValues()");
+        if (role.isBottom()) {
+            return Collections.emptySet();
+        }
+        return getTBox().getDataValues()
+            .getValues(getIndividual(i, "Individual name expected in getDataValues()"), role);
+    }
+
     // atomic decomposition queries
     /**
      * create new atomic decomposition of the loaded ontology using TYPE.
@@ -2166,6 +2451,9 @@ public class ReasoningKernel implements Serializable {
         if (r.isDataRole() || r.isBottom()) {
             return new ArrayList<>();
         }
+        if (!r.isTop() && !r.isReflexive() && pTBox.hasToldRoleFillersOnly()) {
+            return getRoleFillerIndex().getFillers(i, r);
+        }
         // now fills the query
         RIActor actor = new RIActor();
         // ask for instances of \exists R^-.{i}
@@ -0,0 +1,207 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import conformance.Original;
+
+/**
+ * Snapshot of the reasoning statistics of a TBox: phase wall times in nanoseconds, times and
+ * item counts of the preprocessing steps, tactic and cache counters (named as the fields of
+ * {@link uk.ac.manchester.cs.jfact.helpers.Stats} and {@link DLConceptTaxonomy}) and the backjump
+ * distance histogram. The counters are always maintained; taking a snapshot copies them and does
+ * not reset anything.
+ */
+@Original
+public class ReasoningMetrics implements Serializable {
+
+    /** timed reasoning phases */
+    public enum Phase {
+        /** TBox preprocessing, DAG build included */
+        PREPROCESSING,
+        /** DAG build */
+        DAG_BUILD,
+        /** consistency check */
+        CONSISTENCY,
+        /** concept classification */
+        CLASSIFICATION,
+        /** individual realisation */
+        REALISATION,
+        /** satisfiability tests, across all phases */
+        SAT,
+        /** subsumption tests, across all phases */
+        SUB
+    }
+
+    /** timed steps of TBox preprocessing, in the order they run */
+    public enum PreprocessingStep {
+        /** role hierarchy; items are roles */
+        ROLE_HIERARCHY,
+        /** synonym replacement; items are synonyms */
+        SYNONYMS,
+        /** related individuals; items are role assertions */
+        RELATED_INDIVIDUALS,
+        /** extra subsumptions of non-primitive concepts; items are concepts */
+        EXTRA_SUBSUMPTIONS,
+        /** told subsumers; items are concepts and individuals */
+        TOLD_SUBSUMERS,
+        /** told cycles; items are concepts and individuals */
+        TOLD_CYCLES,
+        /** singleton hierarchy; items are individuals */
+        SINGLETON_HIERARCHY,
+        /** GCI absorption; items are GCIs before absorption */
+        ABSORPTION,
+        /** told TOP; items are concepts and individuals */
+        TOLD_TOP,
+        /** DAG build; items are DAG entries */
+        DAG_BUILD,
+        /** classification tags; items are concepts and individuals */
+        CLASSIFICATION_TAGS,
+        /** told subsumer depth; items are concepts and individuals */
+        TOLD_DEPTH,
+        /** model cache indexes; items are roles */
+        INDEXES,
+        /** sorts; items are DAG entries */
+        SORTS,
+        /** relevance and logic features; items are DAG entries */
+        RELEVANCE,
+        /** DAG and KB statistics; items are DAG entries */
+        STATISTICS,
+        /** removal of descriptions; items are concepts and individuals */
+        DESCRIPTION_REMOVAL
+    }
+
+    /** metrics of a TBox that has not been built yet */
+    public static final ReasoningMetrics EMPTY =
+        new ReasoningMetrics(new EnumMap<>(Phase.class), new EnumMap<>(PreprocessingStep.class),
+            new EnumMap<>(PreprocessingStep.class), new TreeMap<>(), new long[32]);
+    private final Map<Phase, Long> phaseNanos;
+    private final Map<PreprocessingStep, Long> stepNanos;
+    private final Map<PreprocessingStep, Long> stepItems;
+    private final Map<String, Long> counters;
+    private final long[] backjumps;
+
+    /**
+     * @param phaseNanos phase times
+     * @param stepNanos preprocessing step times
+     * @param stepItems preprocessing step item counts
+     * @param counters named counters
+     * @param backjumps backjump histogram
+     */
+    ReasoningMetrics(Map<Phase, Long> phaseNanos, Map<PreprocessingStep, Long> stepNanos,
+        Map<PreprocessingStep, Long> stepItems, Map<String, Long> counters, long[] backjumps) {
+        this.phaseNanos = Collections.unmodifiableMap(phaseNanos);
+        this.stepNanos = Collections.unmodifiableMap(stepNanos);
+        this.stepItems = Collections.unmodifiableMap(stepItems);
+        this.counters = Collections.unmodifiableMap(counters);
+        this.backjumps = backjumps;
+    }
+
+    /**
+     * @param extra counters to add
+     * @return metrics with the given counters added to these
+     */
+    ReasoningMetrics withCounters(Map<String, Long> extra) {
+        if (extra.isEmpty()) {
+            return this;
+        }
+        Map<String, Long> merged = new TreeMap<>(counters);
+        extra.forEach((k, v) -> merged.merge(k, v, Long::sum));
+        return new ReasoningMetrics(phaseNanos, stepNanos, stepItems, merged, backjumps);
+    }
+
+    /**
+     * @param phase phase
+     * @return wall time spent in the phase, in nanoseconds; 0 if the phase did not run
+     */
+    public long getPhaseNanos(Phase phase) {
+        Long l = phaseNanos.get(phase);
+        return l == null ? 0 : l.longValue();
+    }
+
+    /** @return all phase times, in nanoseconds */
+    public Map<Phase, Long> getPhaseNanos() {
+        return phaseNanos;
+    }
+
+    /**
+     * @param step preprocessing step
+     * @return wall time spent in the step by the last preprocessing, in nanoseconds; 0 if the
+     *         step did not run
+     */
+    public long getPreprocessingNanos(PreprocessingStep step) {
+        Long l = stepNanos.get(step);
+        return l == null ? 0 : l.longValue();
+    }
+
+    /** @return times of the steps run by the last preprocessing, in nanoseconds */
+    public Map<PreprocessingStep, Long> getPreprocessingNanos() {
+        return stepNanos;
+    }
+
+    /**
+     * @param step preprocessing step
+     * @return number of items the step dealt with in the last preprocessing, as described by
+     *         the step; 0 if the step did not run
+     */
+    public long getPreprocessingItems(PreprocessingStep step) {
+        Long l = stepItems.get(step);
+        return l == null ? 0 : l.longValue();
+    }
+
+    /** @return item counts of the steps run by the last preprocessing */
+    public Map<PreprocessingStep, Long> getPreprocessingItems() {
+        return stepItems;
+    }
+
+    /**
+     * @param name counter name, e.g., nOrCalls
+     * @return counter value; 0 for unknown counters
+     */
+    public long getCounter(String name) {
+        Long l = counters.get(name);
+        return l == null ? 0 : l.longValue();
+    }
+
+    /** @return all counters, sorted by name */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * @return backjump histogram; element i counts the restores that undid between 2^i and
+     *         2^(i+1)-1 branching levels
+     */
+    public long[] getBackjumpHistogram() {
+        return backjumps.clone();
+    }
+
+    /** @return fraction of completion tree nodes whose model cache could be used */
+    public double getModelCacheHitRate() {
+        return rate(getCounter("nCachedSat") + getCounter("nCachedUnsat"), getCounter("nCacheTry"));
+    }
+
+    /** @return fraction of cache merge tests that decided a subsumption during classification */
+    public double getCachedNonSubsumptionHitRate() {
+        return rate(getCounter("nCachedPositive") + getCounter("nCachedNegative"),
+            getCounter("nCachedTests"));
+    }
+
+    private static double rate(long hits, long tries) {
+        return tries == 0 ? 0 : (double) hits / tries;
+    }
+
+    @Override
+    public String toString() {
+        return "ReasoningMetrics [phases=" + phaseNanos + ", preprocessing=" + stepNanos
+            + ", counters=" + counters + "]";
+    }
+}
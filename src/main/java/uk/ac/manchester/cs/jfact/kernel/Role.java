@@ -286,6 +286,22 @@ public class Role extends ClassifiableEntry {
         bpSpecialDomain = bp;
     }
 
+    /**
+     * @return special domain as a bipointer
+     */
+    @PortedFrom(file = "tRole.h", name = "getBPSpecialDomain")
+    public int getBPSpecialDomain() {
+        return bpSpecialDomain;
+    }
+
+    /**
+     * @return true iff the role has a sub-role chain (R1*...*Rn [= R)
+     */
+    @Original
+    public boolean hasSubCompositions() {
+        return subCompositions.stream().anyMatch(p -> !p.isEmpty());
+    }
+
     /**
      * @return distinguish data- and non-data role
      */
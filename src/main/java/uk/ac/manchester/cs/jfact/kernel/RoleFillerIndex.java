@@ -0,0 +1,121 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static uk.ac.manchester.cs.jfact.kernel.ClassifiableEntry.resolveSynonym;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import conformance.Original;
+
+/**
+ * Role fillers of the individuals of a realised ABox, from the told role assertions. Every
+ * assertion is kept in both directions, and the fillers of an individual via R are found by
+ * running the automaton of R over the assertion graph: the automaton recognises the sub-roles,
+ * inverses, transitivity and role chains below R. This is exact only if concepts cannot imply new
+ * role assertions between named individuals or make individuals equal; see
+ * {@link TBox#hasToldRoleFillersOnly()}.
+ */
+@Original
+public class RoleFillerIndex {
+
+    /** told role assertions, by source individual */
+    private final Map<Individual, List<Related>> edges = new IdentityHashMap<>();
+
+    /**
+     * @param related told role assertions, in both directions
+     */
+    public RoleFillerIndex(Collection<Related> related) {
+        for (Related r : related) {
+            edges.computeIfAbsent(resolveSynonym(r.getA()), k -> new ArrayList<>()).add(r);
+        }
+    }
+
+    /**
+     * @param i individual
+     * @param r object role; neither top nor reflexive
+     * @return individuals related to i via r, with their synonyms
+     */
+    public List<Individual> getFillers(Individual i, Role r) {
+        RoleAutomaton ra = r.getAutomaton();
+        Map<Individual, BitSet> visited = new IdentityHashMap<>();
+        Deque<Individual> individuals = new ArrayDeque<>();
+        Deque<Integer> states = new ArrayDeque<>();
+        push(resolveSynonym(i), RoleAutomaton.INITIAL, visited, individuals, states);
+        Set<Individual> fillers = new LinkedHashSet<>();
+        while (!individuals.isEmpty()) {
+            Individual x = individuals.pop();
+            int state = states.pop().intValue();
+            if (state == RoleAutomaton.FINAL_STATE) {
+                fillers.add(x);
+            }
+            if (state >= ra.size()) {
+                continue;
+            }
+            RAStateTransitions rst = ra.get(state);
+            if (rst.hasEmptyTransition()) {
+                for (RATransition q : rst.begin()) {
+                    if (q.isEmpty()) {
+                        push(x, q.finalState(), visited, individuals, states);
+                    }
+                }
+            }
+            for (Related e : edges.getOrDefault(x, Collections.emptyList())) {
+                Role role = resolveSynonym(e.getRole());
+                if (rst.recognise(role)) {
+                    for (RATransition q : rst.begin()) {
+                        if (q.applicable(role)) {
+                            push(resolveSynonym(e.getB()), q.finalState(), visited, individuals,
+                                states);
+                        }
+                    }
+                }
+            }
+        }
+        List<Individual> toReturn = new ArrayList<>(fillers.size());
+        for (Individual f : fillers) {
+            addWithSynonyms(f, toReturn);
+        }
+        return toReturn;
+    }
+
+    private static void push(Individual x, int state, Map<Individual, BitSet> visited,
+        Deque<Individual> individuals, Deque<Integer> states) {
+        BitSet seen = visited.computeIfAbsent(x, k -> new BitSet());
+        if (!seen.get(state)) {
+            seen.set(state);
+            individuals.push(x);
+            states.push(Integer.valueOf(state));
+        }
+    }
+
+    /** same individuals share a taxonomy vertex; report all of them, as instance queries do */
+    private static void addWithSynonyms(Individual f, List<Individual> l) {
+        TaxonomyVertex v = f.getTaxVertex();
+        if (v == null) {
+            l.add(f);
+            return;
+        }
+        addIfIndividual(v.getPrimer(), l);
+        v.synonyms().forEach(p -> addIfIndividual(p, l));
+    }
+
+    private static void addIfIndividual(ClassifiableEntry p, List<Individual> l) {
+        if (p instanceof Individual && !p.isSystem()) {
+            l.add((Individual) p);
+        }
+    }
+}
@@ -8,7 +8,8 @@ package uk.ac.manchester.cs.jfact.kernel;
 import static uk.ac.manchester.cs.jfact.helpers.Helper.INITBRANCHINGLEVELVALUE;
 
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 
 import conformance.PortedFrom;
 
@@ -20,7 +21,7 @@ public class SaveStackRare implements Serializable {
 
 
     /** heap of saved objects */
-    private final LinkedList<Restorer> base = new LinkedList<>();
+    private final List<Restorer> base = new ArrayList<>();
     /** current level */
     private int curLevel;
 
@@ -42,7 +43,7 @@ public class SaveStackRare implements Serializable {
      */
     public void push(Restorer p) {
         p.setRaresavestackLevel(curLevel);
-        base.addLast(p);
+        base.add(p);
     }
 
     /**
@@ -55,11 +56,11 @@ public class SaveStackRare implements Serializable {
     @PortedFrom(file = "dlCompletionGraph.h", name = "restore")
     public void restore(int level) {
         curLevel = level;
-        while (!base.isEmpty()
-                && base.getLast().getRaresavestackLevel() > level) {
+        for (int last = base.size() - 1; last >= 0
+                && base.get(last).getRaresavestackLevel() > level; last--) {
             // need to restore: restore last element, remove it from stack
-            base.getLast().restore();
-            base.removeLast();
+            base.get(last).restore();
+            base.remove(last);
         }
     }
 
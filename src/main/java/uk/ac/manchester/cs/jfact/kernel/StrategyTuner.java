@@ -0,0 +1,250 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+import conformance.Original;
+import uk.ac.manchester.cs.jfact.helpers.Timer;
+import uk.ac.manchester.cs.jfact.kernel.Concept.CTTag;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+/**
+ * Chooses the OR sorting order of subsumption tests and the use of semantic branching for a
+ * TBox. A fixed sample of subsumption tests is run with every candidate setting; the setting that
+ * needed the fewest tactic operations wins, time breaking ties. Only options read by the reasoner
+ * at every test are tuned: absorption flags, todo list priorities and blocking are fixed by the
+ * time the TBox is preprocessed. Profiles can be stored, one file per ontology fingerprint, so
+ * that the search runs once per ontology.
+ */
+@Original
+public class StrategyTuner {
+
+    /** number of subsumption tests run with every candidate */
+    private static final int SAMPLE_SIZE = 64;
+    /** seed of the test sample; fixed, so that all candidates run the same tests */
+    private static final long SEED = 0x4A465354L;
+    /** format version of profile files; bump on any change to the keys */
+    private static final String VERSION = "1";
+    private static final String VERSION_KEY = "version";
+    private static final String OR_SORT_SUB_KEY = "orSortSub";
+    private static final String SEMANTIC_BRANCHING_KEY = "useSemanticBranching";
+    /** OR sorting orders tried besides the current one; the defaults of the TBox heuristics */
+    private static final List<String> ORDERS = Arrays.asList("Dap", "Fdn", "Ban", "Sap", "Aap");
+    private final TBox tbox;
+
+    /**
+     * @param tbox preprocessed, consistent TBox
+     */
+    public StrategyTuner(TBox tbox) {
+        this.tbox = tbox;
+    }
+
+    /**
+     * Run the sample with every candidate setting; the settings are left as they were. The sample
+     * is run once before the candidates, so that the model caches it needs are built before any
+     * candidate is measured. The tests of the sample count towards the reasoning metrics, like any
+     * other test, and their clash counts stay in the DAG as the starting statistics of adaptive OR
+     * sorting; the number of candidates tried is reported as nStrategyCandidates.
+     *
+     * @return best profile; the current setting if the TBox has too few concepts to sample
+     */
+    public Profile tune() {
+        JFactReasonerConfiguration config = tbox.getOptions();
+        Profile current =
+            new Profile(tbox.getDLHeap().getSubOrder(), tbox.isUseSemanticBranching());
+        List<Concept> sample = sample();
+        if (sample.isEmpty()) {
+            return current;
+        }
+        Set<String> orders = new LinkedHashSet<>();
+        orders.add(current.getORSortSub());
+        orders.addAll(ORDERS);
+        // warm up: the first candidate would otherwise pay for building the caches
+        run(sample);
+        Profile best = null;
+        long bestTactics = Long.MAX_VALUE;
+        long bestNanos = Long.MAX_VALUE;
+        for (boolean semanticBranching : new boolean[] {current.isUseSemanticBranching(),
+            !current.isUseSemanticBranching()}) {
+            for (String order : orders) {
+                Profile candidate = new Profile(order, semanticBranching);
+                apply(candidate);
+                long tactics = tactics();
+                Timer t = new Timer();
+                t.start();
+                run(sample);
+                t.stop();
+                tactics = tactics() - tactics;
+                tbox.addCounter("nStrategyCandidates", 1);
+                config.getLog().print("\nStrategy ", candidate, ": ", tactics, " tactic calls in ",
+                    t);
+                // the current setting wins ties
+                if (tactics < bestTactics
+                    || tactics == bestTactics && t.getResultTimeNanos() < bestNanos) {
+                    best = candidate;
+                    bestTactics = tactics;
+                    bestNanos = t.getResultTimeNanos();
+                }
+            }
+        }
+        apply(current);
+        assert best != null;
+        return best;
+    }
+
+    /**
+     * @return pairs of concepts to test, flattened; empty if there are fewer than two concepts
+     *         that classification would test
+     */
+    private List<Concept> sample() {
+        List<Concept> list = tbox.getConcepts()
+            .filter(c -> !c.isNonClassifiable() && c.getClassTag() != CTTag.COMPLETELYDEFINED)
+            .collect(Collectors.toList());
+        List<Concept> toReturn = new ArrayList<>();
+        if (list.size() < 2) {
+            return toReturn;
+        }
+        // random pairs are mostly non-subsumptions, as are most tests of classification
+        Random random = new Random(SEED);
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            int p = random.nextInt(list.size());
+            int q = random.nextInt(list.size() - 1);
+            toReturn.add(list.get(p));
+            toReturn.add(list.get(q < p ? q : q + 1));
+        }
+        return toReturn;
+    }
+
+    private void run(List<Concept> sample) {
+        for (int i = 0; i < sample.size(); i += 2) {
+            tbox.isSubHolds(sample.get(i), sample.get(i + 1));
+        }
+    }
+
+    private long tactics() {
+        return tbox.getMetrics().getCounter("nTacticCalls");
+    }
+
+    /**
+     * set a profile on the TBox and its DAG; the options, which can be shared with other
+     * reasoners, are left untouched
+     *
+     * @param profile profile
+     */
+    public void apply(Profile profile) {
+        tbox.setUseSemanticBranching(profile.isUseSemanticBranching());
+        DLDag dag = tbox.getDLHeap();
+        char method = profile.getORSortSub().charAt(0);
+        if (method == 'F' || method == 'A') {
+            dag.gatherFrequency();
+        }
+        dag.setSubOrder(profile.getORSortSub());
+    }
+
+    private static Path file(File directory, String fingerprint) {
+        return new File(directory, fingerprint + ".jfp").toPath();
+    }
+
+    /**
+     * @param directory directory holding the profiles
+     * @param fingerprint ontology fingerprint
+     * @return stored profile; null if there is none, or if it cannot be read
+     */
+    @Nullable
+    public static Profile load(File directory, String fingerprint) {
+        Path path = file(directory, fingerprint);
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            p.load(in);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        String order = p.getProperty(OR_SORT_SUB_KEY);
+        String semanticBranching = p.getProperty(SEMANTIC_BRANCHING_KEY);
+        if (!VERSION.equals(p.getProperty(VERSION_KEY)) || !DLDag.isCorrectOption(order)
+            || semanticBranching == null) {
+            return null;
+        }
+        return new Profile(order, Boolean.parseBoolean(semanticBranching));
+    }
+
+    /**
+     * store a profile; the file is replaced atomically where the file system supports it
+     *
+     * @param directory directory holding the profiles
+     * @param fingerprint ontology fingerprint
+     * @param profile profile
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(File directory, String fingerprint, Profile profile)
+        throws IOException {
+        Files.createDirectories(directory.toPath());
+        Properties p = new Properties();
+        p.setProperty(VERSION_KEY, VERSION);
+        p.setProperty(OR_SORT_SUB_KEY, profile.getORSortSub());
+        p.setProperty(SEMANTIC_BRANCHING_KEY, Boolean.toString(profile.isUseSemanticBranching()));
+        Path tmp = Files.createTempFile(directory.toPath(), fingerprint, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                p.store(out, fingerprint);
+            }
+            ClassificationStore.move(tmp, file(directory, fingerprint));
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** tuned reasoning options */
+    public static class Profile {
+
+        private final String orSortSub;
+        private final boolean useSemanticBranching;
+
+        /**
+         * @param orSortSub OR sorting order of subsumption tests
+         * @param useSemanticBranching whether semantic branching is used
+         */
+        public Profile(String orSortSub, boolean useSemanticBranching) {
+            this.orSortSub = orSortSub;
+            this.useSemanticBranching = useSemanticBranching;
+        }
+
+        /** @return OR sorting order of subsumption tests */
+        public String getORSortSub() {
+            return orSortSub;
+        }
+
+        /** @return whether semantic branching is used */
+        public boolean isUseSemanticBranching() {
+            return useSemanticBranching;
+        }
+
+        @Override
+        public String toString() {
+            return OR_SORT_SUB_KEY + '=' + orSortSub + ", " + SEMANTIC_BRANCHING_KEY + '='
+                + useSemanticBranching;
+        }
+    }
+}
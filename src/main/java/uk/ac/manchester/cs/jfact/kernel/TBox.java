@@ -41,7 +41,9 @@ import static uk.ac.manchester.cs.jfact.kernel.Token.SELF;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -50,8 +52,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -68,6 +77,8 @@ import conformance.PortedFrom;
 import gnu.trove.list.TIntList;
 import gnu.trove.list.array.TIntArrayList;
 import gnu.trove.list.linked.TIntLinkedList;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.hash.TIntHashSet;
 import uk.ac.manchester.cs.chainsaw.FastSet;
 import uk.ac.manchester.cs.chainsaw.FastSetFactory;
 import uk.ac.manchester.cs.jfact.datatypes.Datatype;
@@ -83,6 +94,8 @@ import uk.ac.manchester.cs.jfact.helpers.Pair;
 import uk.ac.manchester.cs.jfact.helpers.Templates;
 import uk.ac.manchester.cs.jfact.helpers.Timer;
 import uk.ac.manchester.cs.jfact.helpers.UnreachableSituationException;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics.Phase;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics.PreprocessingStep;
 import uk.ac.manchester.cs.jfact.kernel.dl.DataRoleName;
 import uk.ac.manchester.cs.jfact.kernel.dl.ObjectRoleName;
 import uk.ac.manchester.cs.jfact.kernel.dl.interfaces.NamedEntity;
@@ -165,6 +178,9 @@ public class TBox implements Serializable {
     /** given individual-individual relations */
     @PortedFrom(file = "dlTBox.h", name = "RelatedI")
     private final List<Related> relatedIndividuals = new ArrayList<>();
+    /** given individual-value relations */
+    @Original
+    private final DataValueIndex dataValues = new DataValueIndex();
     /** known disjoint sets of individuals */
     @PortedFrom(file = "dlTBox.h", name = "DifferentIndividuals")
     private final List<List<Individual>> differentIndividuals = new ArrayList<>();
@@ -174,6 +190,15 @@ public class TBox implements Serializable {
     /** internalisation of a general axioms */
     @PortedFrom(file = "dlTBox.h", name = "T_G")
     private int internalisedGeneralAxiom;
+    /** GCIs split off T_G, by the pName of the primitive concept activating them */
+    @Original
+    private final TIntObjectHashMap<TIntArrayList> conceptSplits = new TIntObjectHashMap<>();
+    /** GCIs split off T_G, by the simple role whose edges activate them */
+    @Original
+    private final Map<Role, TIntArrayList> roleSplits = new HashMap<>();
+    /** all the GCIs split off T_G */
+    @Original
+    private final TIntHashSet splitGCIs = new TIntHashSet();
     /** KB flags about GCIs */
     @PortedFrom(file = "dlTBox.h", name = "GCIs")
     private final KBFlags gcis = new KBFlags();
@@ -215,6 +240,31 @@ public class TBox implements Serializable {
     /** time spend for consistency checking */
     @PortedFrom(file = "dlTBox.h", name = "consistTime")
     private long consistTime;
+    /** time spent building the DAG, part of preprocessing */
+    @Original
+    private long dagBuildTime;
+    /** wall time of the reasoning phases, in nanoseconds */
+    @Original
+    private final EnumMap<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+    /** wall time of the steps of the last preprocessing, in nanoseconds */
+    @Original
+    private final EnumMap<PreprocessingStep, Long> stepNanos =
+        new EnumMap<>(PreprocessingStep.class);
+    /** number of items dealt with by the steps of the last preprocessing */
+    @Original
+    private final EnumMap<PreprocessingStep, Long> stepItems =
+        new EnumMap<>(PreprocessingStep.class);
+    /** counters of the optional reasoning strategies, e.g., parallel cache building */
+    @Original
+    private final Map<String, Long> strategyCounters = new TreeMap<>();
+    /** semantic branching chosen for this TBox by strategy tuning; null to use the options */
+    @Original
+    @Nullable
+    private Boolean useSemanticBranching;
+    /** pool running the per-concept preprocessing steps; null if they run sequentially */
+    @Original
+    @Nullable
+    private transient ForkJoinPool preprocessingPool;
     /** number of concepts and individuals; used to set index for modelCache */
     @PortedFrom(file = "dlTBox.h", name = "nC")
     protected int nC = 0;
@@ -288,6 +338,7 @@ public class TBox implements Serializable {
         consistent = true;
         preprocTime = 0;
         consistTime = 0;
+        dagBuildTime = 0;
         config.getLog().printTemplate(Templates.READ_CONFIG,
             Boolean.valueOf(config.getuseCompletelyDefined()), "useRelevantOnly(obsolete)",
             Boolean.valueOf(config.getdumpQuery()),
@@ -479,21 +530,55 @@ public class TBox implements Serializable {
     }
 
     protected void initToldSubsumers(NamedEntryCollection<? extends Concept> c) {
-        c.getConcepts().filter(ClassifiableEntry::isNotSynonym).forEach(Concept::initToldSubsumers);
+        Stream<? extends Concept> s = c.getConcepts().filter(ClassifiableEntry::isNotSynonym);
+        if (individuals.size() > 0) {
+            // singleton parents are passed on to the concepts that come later
+            s.forEach(Concept::initToldSubsumers);
+        } else {
+            forEachConcept(s, Concept::initToldSubsumers);
+        }
     }
 
     /** set told TOP concept whether necessary */
     @PortedFrom(file = "dlTBox.h", name = "setToldTop")
     public void setToldTop() {
-        concepts.getConcepts().forEach(pc -> pc.setToldTop(top));
-        individuals.getConcepts().forEach(pi -> pi.setToldTop(top));
+        forEachConcept(concepts.getConcepts(), pc -> pc.setToldTop(top));
+        forEachConcept(individuals.getConcepts(), pi -> pi.setToldTop(top));
     }
 
     /** calculate TS depth for all concepts */
     @PortedFrom(file = "dlTBox.h", name = "calculateTSDepth")
     public void calculateTSDepth() {
-        concepts.getConcepts().forEach(Concept::calculateTSDepth);
-        individuals.getConcepts().forEach(Concept::calculateTSDepth);
+        // depths are cached; concurrent computations of a depth give the same value
+        forEachConcept(concepts.getConcepts(), Concept::calculateTSDepth);
+        forEachConcept(individuals.getConcepts(), Concept::calculateTSDepth);
+    }
+
+    /**
+     * Apply an action to concepts, on the preprocessing pool if there is one. The action may only
+     * change the concept it is applied to.
+     * 
+     * @param s concepts
+     * @param action action
+     */
+    @Original
+    private void forEachConcept(Stream<? extends Concept> s, Consumer<Concept> action) {
+        ForkJoinPool pool = preprocessingPool;
+        if (pool == null) {
+            s.forEach(action);
+            return;
+        }
+        try {
+            pool.submit(() -> s.parallel().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReasonerInternalException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ReasonerInternalException(e.getCause());
+        }
     }
 
     /**
@@ -520,8 +605,9 @@ public class TBox implements Serializable {
     /** mark all concepts wrt their classification tag */
     @PortedFrom(file = "dlTBox.h", name = "fillsClassificationTag")
     public void fillsClassificationTag() {
-        concepts.getConcepts().forEach(Concept::getClassTag);
-        individuals.getConcepts().forEach(Concept::getClassTag);
+        // tags are cached; concurrent computations of a tag give the same value
+        forEachConcept(concepts.getConcepts(), Concept::getClassTag);
+        forEachConcept(individuals.getConcepts(), Concept::getClassTag);
     }
 
     /**
@@ -735,13 +821,14 @@ public class TBox implements Serializable {
     /**
      * update AUX features with the given one; update roles if necessary
      * 
+     * @param aux features to update
      * @param lf lf
      */
     @PortedFrom(file = "dlTBox.h", name = "updateAuxFeatures")
-    private void updateAuxFeatures(LogicFeatures lf) {
+    private static void updateAuxFeatures(LogicFeatures aux, LogicFeatures lf) {
         if (!lf.isEmpty()) {
-            auxFeatures.or(lf);
-            auxFeatures.mergeRoles();
+            aux.or(lf);
+            aux.mergeRoles();
         }
     }
 
@@ -901,6 +988,12 @@ public class TBox implements Serializable {
         this.addSubsumeAxiom(getTree(c), d);
     }
 
+    /** @return simple rules */
+    @Original
+    List<SimpleRule> getSimpleRules() {
+        return simpleRules;
+    }
+
     /**
      * add simple rule RULE to the TBox' rules
      * 
@@ -970,6 +1063,78 @@ public class TBox implements Serializable {
         return internalisedGeneralAxiom;
     }
 
+    /** @return true if some GCIs are split off T_G */
+    @Original
+    public boolean hasSplitGCIs() {
+        return !splitGCIs.isEmpty();
+    }
+
+    /**
+     * @param bp DAG entry
+     * @return true if bp is a GCI split off T_G
+     */
+    @Original
+    public boolean isSplitGCI(int bp) {
+        return splitGCIs.contains(bp);
+    }
+
+    /**
+     * @param bp DAG entry of a concept name
+     * @return GCIs to apply to every node once the concept is in some label; null if none
+     */
+    @Original
+    @Nullable
+    public TIntArrayList getSplitGCIs(int bp) {
+        return conceptSplits.get(bp);
+    }
+
+    /**
+     * @param r role
+     * @return GCIs to apply to every node once some edge is labelled with r; null if none
+     */
+    @Original
+    @Nullable
+    public TIntArrayList getSplitGCIs(Role r) {
+        return roleSplits.get(r);
+    }
+
+    /**
+     * Split an axiom off T_G if it only applies where some of its triggers are used; the reasoner
+     * adds it to the session GCIs on the first use of a trigger.
+     * 
+     * @param ax non-absorbed axiom
+     * @return true if the axiom is split off T_G
+     */
+    @Original
+    private boolean splitGCI(Axiom ax) {
+        Set<NamedEntry> triggers = ax.getTriggers();
+        if (triggers == null) {
+            return false;
+        }
+        int bp = tree2dag(ax.createAnAxiom(null));
+        if (bp == BP_TOP) {
+            return true;
+        }
+        splitGCIs.add(bp);
+        for (NamedEntry e : triggers) {
+            TIntArrayList l;
+            if (e instanceof Concept) {
+                int pName = ((Concept) e).getpName();
+                l = conceptSplits.get(pName);
+                if (l == null) {
+                    l = new TIntArrayList();
+                    conceptSplits.put(pName, l);
+                }
+            } else {
+                l = roleSplits.computeIfAbsent((Role) e, k -> new TIntArrayList());
+            }
+            if (!l.contains(bp)) {
+                l.add(bp);
+            }
+        }
+        return true;
+    }
+
     /**
      * @param index index
      * @return simple rule by its INDEX
@@ -1118,6 +1283,77 @@ public class TBox implements Serializable {
         config.getLog().print(dlHeap);
     }
 
+    /** @return time spent in preprocessing, DAG build included */
+    @Original
+    public long getPreprocessingTime() {
+        return preprocTime;
+    }
+
+    /** @return time spent building the DAG during the last preprocessing */
+    @Original
+    public long getDAGBuildTime() {
+        return dagBuildTime;
+    }
+
+    /**
+     * @return snapshot of phase times, tactic and cache counters and backjump statistics of the
+     *         reasoners of this TBox
+     */
+    @Original
+    public ReasoningMetrics getMetrics() {
+        EnumMap<Phase, Long> phases = new EnumMap<>(phaseNanos);
+        Map<String, Long> counters = new TreeMap<>();
+        long[] backjumps = new long[32];
+        for (DlSatTester r : Arrays.asList(stdReasoner, nomReasoner)) {
+            if (r != null) {
+                r.getStats().collect(counters);
+                long[] b = r.getStats().getBackjumps();
+                for (int i = 0; i < b.length; i++) {
+                    backjumps[i] += b[i];
+                }
+                phases.merge(Phase.SAT, Long.valueOf(r.getSatTimeNanos()), Long::sum);
+                phases.merge(Phase.SUB, Long.valueOf(r.getSubTimeNanos()), Long::sum);
+            }
+        }
+        if (pTaxCreator != null) {
+            pTaxCreator.collect(counters);
+        }
+        strategyCounters.forEach((k, v) -> counters.merge(k, v, Long::sum));
+        return new ReasoningMetrics(phases, new EnumMap<>(stepNanos), new EnumMap<>(stepItems),
+            counters, backjumps);
+    }
+
+    /**
+     * add to a counter of the optional reasoning strategies; reported with the other metrics
+     * 
+     * @param name counter name
+     * @param n value to add
+     */
+    @Original
+    public void addCounter(String name, long n) {
+        strategyCounters.merge(name, Long.valueOf(n), Long::sum);
+    }
+
+    /**
+     * @return whether semantic branching is used by the reasoners of this TBox
+     */
+    @Original
+    public boolean isUseSemanticBranching() {
+        return useSemanticBranching == null ? config.getuseSemanticBranching()
+            : useSemanticBranching.booleanValue();
+    }
+
+    /**
+     * use semantic branching or not in this TBox, regardless of the options; the options, which
+     * can be shared with other reasoners, are left untouched
+     * 
+     * @param b true if semantic branching should be used
+     */
+    @Original
+    public void setUseSemanticBranching(boolean b) {
+        useSemanticBranching = Boolean.valueOf(b);
+    }
+
     /** build dag */
     @PortedFrom(file = "dlTBox.h", name = "buildDAG")
     public void buildDAG() {
@@ -1134,6 +1370,10 @@ public class TBox implements Serializable {
         // builds Roles range and domain
         initRangeDomain(objectRoleMaster);
         initRangeDomain(dataRoleMaster);
+        if (config.isUseAxiomSplitting()) {
+            axioms.removeGCIs(this::splitGCI);
+            addCounter("nSplitGCIs", splitGCIs.size());
+        }
         DLTree gci = axioms.getGCI();
         // add special domains to the GCIs
         List<DLTree> list = new ArrayList<>();
@@ -1154,7 +1394,7 @@ public class TBox implements Serializable {
         }
         internalisedGeneralAxiom = tree2dag(gci);
         // mark GCI flags
-        gcis.setGCI(internalisedGeneralAxiom != BP_TOP);
+        gcis.setGCI(internalisedGeneralAxiom != BP_TOP || hasSplitGCIs());
         gcis.setReflexive(objectRoleMaster.hasReflexiveRoles());
         // builds functional labels for roles
         Stream.concat(objectRoleMaster.getRoles().stream(), dataRoleMaster.getRoles().stream())
@@ -1516,16 +1756,42 @@ public class TBox implements Serializable {
         arrayNoCD.clear();
         arrayNP.clear();
         nItems += fillArrays(concepts.getConcepts());
-        nItems += fillArrays(individuals.getConcepts());
+        boolean realiseInParallel = needIndividual && canRealiseInParallel();
+        if (!realiseInParallel) {
+            nItems += fillArrays(individuals.getConcepts());
+        }
         config.getProgressMonitor().reasonerTaskStarted(ReasonerProgressMonitor.CLASSIFYING);
         duringClassification = true;
-        classifyConcepts(arrayCD, true, "completely defined");
-        classifyConcepts(arrayNoCD, false, "regular");
-        classifyConcepts(arrayNP, false, "non-primitive");
+        ELSaturation el = prepareELSaturation();
+        if (el != null) {
+            int n = el.classify(pTax);
+            addCounter("nELClassified", n);
+            if (config.getverboseOutput()) {
+                config.getLog().print("EL saturation classified ").print(n).print(" concepts\n");
+            }
+        } else if (canClassifyInParallel()) {
+            new ParallelCacheBuilder(this, config).buildCaches(arrayCD, arrayNoCD, arrayNP);
+        }
+        classifyArrays();
+        if (realiseInParallel) {
+            // the concepts are classified now; individuals left over are realised as usual
+            int n = new ParallelRealiser(this, config).realise(pTax);
+            if (config.getverboseOutput()) {
+                config.getLog().print("Parallel realisation classified ").print(n)
+                    .print(" individuals\n");
+            }
+            arrayCD.clear();
+            arrayNoCD.clear();
+            arrayNP.clear();
+            nItems += fillArrays(individuals.getConcepts());
+            classifyArrays();
+        }
         duringClassification = false;
         config.getProgressMonitor().reasonerTaskStopped();
         pTax.finalise();
         locTimer.stop();
+        phaseNanos.merge(needIndividual ? Phase.REALISATION : Phase.CLASSIFICATION,
+            Long.valueOf(locTimer.getResultTimeNanos()), Long::sum);
         if (config.getverboseOutput()) {
             config.getLog().print(DONE_IN).print(locTimer.calcDelta()).print(SECONDS);
         }
@@ -1540,6 +1806,71 @@ public class TBox implements Serializable {
         }
     }
 
+    /**
+     * The EL saturation is only used if asked for, and if the preprocessed TBox is Horn EL with
+     * role hierarchies, transitivity, domains and ranges; everything else goes to the tableau.
+     * Concepts the saturation leaves unclassified are classified by the tableau as usual.
+     * 
+     * @return EL classifier ready for saturation, or null if the tableau has to be used
+     */
+    @Nullable
+    @Original
+    private ELSaturation prepareELSaturation() {
+        if (!config.isUseELReasoner() || nomReasoner != null || hasSplitGCIs()) {
+            return null;
+        }
+        ELSaturation el = new ELSaturation(this);
+        return el.isApplicable(kbFeatures) ? el : null;
+    }
+
+    /**
+     * Parallel classification only prepares model caches on worker reasoners; nominal reasoning
+     * keeps shared state in the TBox and traces are per session, so both stay sequential.
+     * 
+     * @return true if model caches can be built in parallel before classification
+     */
+    @Original
+    private boolean canClassifyInParallel() {
+        return config.isUseParallelClassification() && config.getClassificationWorkers() > 1
+            && nomReasoner == null && !nominalCloudFeatures.hasSingletons()
+            && !config.isLoggingActive();
+    }
+
+    /**
+     * Realisation runs on one nominal reasoner per group of connected individuals, so it is only
+     * sound if concepts do not refer to nominals and the top role does not connect all individuals.
+     * 
+     * @return true if individuals can be realised in parallel
+     */
+    @Original
+    private boolean canRealiseInParallel() {
+        return config.isUseParallelRealisation() && config.getClassificationWorkers() > 1
+            && nomReasoner != null && nNominalReferences == 0 && !kbFeatures.hasTopRole()
+            && !config.isLoggingActive();
+    }
+
+    /**
+     * Without nominals in concepts, self references, number restrictions, reflexive roles and the
+     * top role, no role assertion between named individuals follows from concepts and no
+     * individuals are found equal, so the told role assertions determine the role fillers. A
+     * reflexive role makes every individual a filler of itself, for the role and its super-roles.
+     * 
+     * @return true if the role fillers of the individuals follow from the told role assertions
+     */
+    @Original
+    public boolean hasToldRoleFillersOnly() {
+        return nNominalReferences == 0 && !kbFeatures.hasTopRole() && !kbFeatures.hasSelfRef()
+            && !kbFeatures.hasFunctionalRestriction() && !kbFeatures.hasNumberRestriction()
+            && !kbFeatures.hasQNumberRestriction() && !objectRoleMaster.hasReflexiveRoles();
+    }
+
+    @Original
+    private void classifyArrays() {
+        classifyConcepts(arrayCD, true, "completely defined");
+        classifyConcepts(arrayNoCD, false, "regular");
+        classifyConcepts(arrayNP, false, "non-primitive");
+    }
+
     /**
      * @param collection collection
      * @param curCompletelyDefined curCompletelyDefined
@@ -1629,19 +1960,33 @@ public class TBox implements Serializable {
      */
     @PortedFrom(file = "dlTBox.h", name = "prepareFeatures")
     public void prepareFeatures(@Nullable Concept pConcept, @Nullable Concept qConcept) {
-        auxFeatures = new LogicFeatures(gciFeatures);
+        auxFeatures = buildFeatures(pConcept, qConcept);
+        curFeature = auxFeatures;
+        // set blocking method for the current reasoning session
+        getReasoner().setBlockingMethod(isIRinQuery(), isNRinQuery());
+    }
+
+    /**
+     * build the logical features of a reasoning session without touching the current features;
+     * safe to use from parallel classification workers
+     * 
+     * @param pConcept pConcept
+     * @param qConcept qConcept
+     * @return features for the test of pConcept against qConcept
+     */
+    @Original
+    public LogicFeatures buildFeatures(@Nullable Concept pConcept, @Nullable Concept qConcept) {
+        LogicFeatures lf = new LogicFeatures(gciFeatures);
         if (pConcept != null) {
-            updateAuxFeatures(pConcept.getPosFeatures());
+            updateAuxFeatures(lf, pConcept.getPosFeatures());
         }
         if (qConcept != null) {
-            updateAuxFeatures(qConcept.getNegFeatures());
+            updateAuxFeatures(lf, qConcept.getNegFeatures());
         }
-        if (auxFeatures.hasSingletons()) {
-            updateAuxFeatures(nominalCloudFeatures);
+        if (lf.hasSingletons()) {
+            updateAuxFeatures(lf, nominalCloudFeatures);
         }
-        curFeature = auxFeatures;
-        // set blocking method for the current reasoning session
-        getReasoner().setBlockingMethod(isIRinQuery(), isNRinQuery());
+        return lf;
     }
 
     /** build simple cache */
@@ -1695,6 +2040,7 @@ public class TBox implements Serializable {
         }
         pt.stop();
         consistTime = pt.calcDelta();
+        phaseNanos.put(Phase.CONSISTENCY, Long.valueOf(pt.getResultTimeNanos()));
         if (config.getverboseOutput()) {
             config.getLog().print(DONE_IN).print(consistTime).print(SECONDS);
         }
@@ -1897,7 +2243,8 @@ public class TBox implements Serializable {
         }
         long sum = preprocTime + consistTime;
         o.print(" check done in ").print(time).print(" seconds\nof which:\nPreproc. takes ")
-            .print(preprocTime).print(" seconds\nConsist. takes ").print(consistTime)
+            .print(preprocTime).print(" seconds (DAG build ").print(dagBuildTime)
+            .print(")\nConsist. takes ").print(consistTime)
             .print(" seconds");
         if (nomReasoner != null) {
             o.print("\nReasoning NOM:");
@@ -2554,42 +2901,96 @@ public class TBox implements Serializable {
         }
         Timer pt = new Timer();
         pt.start();
-        objectRoleMaster.initAncDesc();
-        dataRoleMaster.initAncDesc();
+        stepNanos.clear();
+        stepItems.clear();
+        if (config.isUseParallelPreprocessing() && config.getClassificationWorkers() > 1
+            && !config.isLoggingActive()) {
+            preprocessingPool = new ForkJoinPool(config.getClassificationWorkers());
+        }
+        try {
+            preprocessSteps();
+        } finally {
+            if (preprocessingPool != null) {
+                preprocessingPool.shutdownNow();
+                preprocessingPool = null;
+            }
+        }
+        pt.stop();
+        preprocTime = pt.calcDelta();
+        phaseNanos.put(Phase.PREPROCESSING, Long.valueOf(pt.getResultTimeNanos()));
+        if (config.getverboseOutput()) {
+            config.getLog().print(DONE_IN).print(pt.calcDelta()).print(SECONDS);
+        }
+    }
+
+    /** run the preprocessing steps in order, timing each of them */
+    @Original
+    private void preprocessSteps() {
+        LongSupplier nConcepts = () -> concepts.size() + individuals.size();
+        LongSupplier nRoles =
+            () -> objectRoleMaster.getRoles().size() + dataRoleMaster.getRoles().size();
+        LongSupplier dagSize = dlHeap::size;
+        step(PreprocessingStep.ROLE_HIERARCHY, nRoles, () -> {
+            objectRoleMaster.initAncDesc();
+            dataRoleMaster.initAncDesc();
+        });
         if (config.getverboseOutput()) {
             config.getLog().print(objectRoleMaster.getTaxonomy());
             config.getLog().print(dataRoleMaster.getTaxonomy());
         }
-        if (countSynonyms() > 0) {
-            replaceAllSynonyms();
+        int nSynonyms = countSynonyms();
+        if (nSynonyms > 0) {
+            step(PreprocessingStep.SYNONYMS, () -> nSynonyms, this::replaceAllSynonyms);
         }
-        preprocessRelated();
+        step(PreprocessingStep.RELATED_INDIVIDUALS, relatedIndividuals::size,
+            this::preprocessRelated);
         // FIXME!! find a proper place for this
-        transformExtraSubsumptions();
-        initToldSubsumers();
-        transformToldCycles();
-        transformSingletonHierarchy();
-        absorbAxioms();
-        setToldTop();
-        buildDAG();
-        fillsClassificationTag();
-        calculateTSDepth();
+        int nExtra = extraConceptDefs.size();
+        step(PreprocessingStep.EXTRA_SUBSUMPTIONS, () -> nExtra,
+            this::transformExtraSubsumptions);
+        step(PreprocessingStep.TOLD_SUBSUMERS, nConcepts, this::initToldSubsumers);
+        step(PreprocessingStep.TOLD_CYCLES, nConcepts, this::transformToldCycles);
+        step(PreprocessingStep.SINGLETON_HIERARCHY, individuals::size,
+            this::transformSingletonHierarchy);
+        int nGCIs = axioms.size();
+        step(PreprocessingStep.ABSORPTION, () -> nGCIs, this::absorbAxioms);
+        step(PreprocessingStep.TOLD_TOP, nConcepts, this::setToldTop);
+        step(PreprocessingStep.DAG_BUILD, dagSize, this::buildDAG);
+        dagBuildTime =
+            TimeUnit.NANOSECONDS.toMillis(stepNanos.get(PreprocessingStep.DAG_BUILD).longValue());
+        phaseNanos.put(Phase.DAG_BUILD, stepNanos.get(PreprocessingStep.DAG_BUILD));
+        step(PreprocessingStep.CLASSIFICATION_TAGS, nConcepts, this::fillsClassificationTag);
+        step(PreprocessingStep.TOLD_DEPTH, nConcepts, this::calculateTSDepth);
         // set indexes for model caching
-        setAllIndexes();
-        determineSorts();
-        gatherRelevanceInfo();
+        step(PreprocessingStep.INDEXES, nRoles, this::setAllIndexes);
+        step(PreprocessingStep.SORTS, dagSize, this::determineSorts);
+        step(PreprocessingStep.RELEVANCE, dagSize, this::gatherRelevanceInfo);
         // here it is safe to print KB features (all are known; the last one was
         // in Relevance)
         printFeatures();
-        dlHeap.setOrderDefaults(selectSat(), selectSub());
-        dlHeap.gatherStatistic();
-        calculateStatistic();
-        removeExtraDescriptions();
-        pt.stop();
-        preprocTime = pt.calcDelta();
-        if (config.getverboseOutput()) {
-            config.getLog().print(DONE_IN).print(pt.calcDelta()).print(SECONDS);
-        }
+        step(PreprocessingStep.STATISTICS, dagSize, () -> {
+            dlHeap.setOrderDefaults(selectSat(), selectSub());
+            dlHeap.gatherStatistic();
+            calculateStatistic();
+        });
+        step(PreprocessingStep.DESCRIPTION_REMOVAL, nConcepts, this::removeExtraDescriptions);
+    }
+
+    /**
+     * run a preprocessing step and record its time and the number of items it dealt with
+     * 
+     * @param step step
+     * @param items number of items, taken after the step
+     * @param action the step
+     */
+    @Original
+    private void step(PreprocessingStep step, LongSupplier items, Runnable action) {
+        Timer t = new Timer();
+        t.start();
+        action.run();
+        t.stop();
+        stepNanos.put(step, Long.valueOf(t.getResultTimeNanos()));
+        stepItems.put(step, Long.valueOf(items.getAsLong()));
     }
 
     protected String selectSub() {
@@ -2994,8 +3395,8 @@ public class TBox implements Serializable {
     /** remove extra descritpions */
     @PortedFrom(file = "dlTBox.h", name = "RemoveExtraDescriptions")
     public void removeExtraDescriptions() {
-        concepts.getConcepts().forEach(Concept::removeDescription);
-        individuals.getConcepts().forEach(Concept::removeDescription);
+        forEachConcept(concepts.getConcepts(), Concept::removeDescription);
+        forEachConcept(individuals.getConcepts(), Concept::removeDescription);
     }
 
     /** set To Do priorities using local OPTIONS */
@@ -3088,6 +3489,10 @@ public class TBox implements Serializable {
     public ModelCacheState testCachedNonSubsumption(Concept p, Concept q) {
         ModelCacheInterface pCache = initCache(p, /* sub= */false);
         ModelCacheInterface nCache = initCache(q, /* sub= */true);
+        // a merged model need not satisfy the split GCIs active in either model
+        if (pCache.isHasActiveSplits() || nCache.isHasActiveSplits()) {
+            return ModelCacheState.FAILED;
+        }
         return pCache.canMerge(nCache);
     }
 
@@ -3297,6 +3702,14 @@ public class TBox implements Serializable {
         return differentIndividuals;
     }
 
+    /**
+     * @return told data values of the individuals
+     */
+    @Original
+    public DataValueIndex getDataValues() {
+        return dataValues;
+    }
+
     /**
      * @return list of relted individuals
      */
@@ -3446,6 +3859,36 @@ public class TBox implements Serializable {
         }
     }
 
+    /**
+     * load a taxonomy image taken from a previous version of this TBox, so that only the changed
+     * entries need to be reclassified
+     * 
+     * @param image image of the old taxonomy
+     * @param resolve maps entities to the entries of this TBox
+     * @return number of restored vertices
+     */
+    @Original
+    public int restoreTaxonomy(TaxonomyImage image, Function<OWLEntity, ClassifiableEntry> resolve) {
+        int n = image.restore(pTax, resolve);
+        pTax.finalise();
+        return n;
+    }
+
+    /**
+     * Restore a stored classification instead of classifying; the TBox has to be consistent.
+     * 
+     * @param image taxonomy image of the stored classification
+     * @param resolve maps entities to the entries of this TBox
+     * @return number of restored vertices
+     */
+    @Original
+    public int restoreClassification(TaxonomyImage image,
+        Function<OWLEntity, ClassifiableEntry> resolve) {
+        int n = restoreTaxonomy(image, resolve);
+        status = KBCLASSIFIED;
+        return n;
+    }
+
     /**
      * @param mPlus MPlus
      * @param mMinus MMinus
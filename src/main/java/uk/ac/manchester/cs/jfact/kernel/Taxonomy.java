@@ -51,6 +51,26 @@ public class Taxonomy implements Serializable {
         freshNode.addNeighbour(false, getBottomVertex());
     }
 
+    /** @return all vertices in use, bottom and top first */
+    @Original
+    public Stream<TaxonomyVertex> vertices() {
+        return graph.stream().filter(TaxonomyVertex::isInUse);
+    }
+
+    /**
+     * add a vertex for an already classified entry; links are set up by the caller
+     * 
+     * @param primer
+     *        primer
+     * @return the new vertex
+     */
+    @Original
+    public TaxonomyVertex addVertex(ClassifiableEntry primer) {
+        TaxonomyVertex v = new TaxonomyVertex(primer);
+        graph.add(v);
+        return v;
+    }
+
     /** @return current */
     @PortedFrom(file = "Taxonomy.h", name = "getCurrent")
     public TaxonomyVertex getCurrent() {
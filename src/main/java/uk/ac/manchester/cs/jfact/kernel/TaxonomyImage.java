@@ -0,0 +1,287 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import conformance.Original;
+
+/**
+ * Name-only image of a classified taxonomy, used to carry a classification over to a reloaded
+ * TBox. Vertices are numbered, every vertex keeps the entities of its primer and synonyms, and
+ * links are kept as parent id arrays; nothing of the original TBox is referenced, so the old TBox
+ * can be collected as soon as the image is taken.
+ */
+@Original
+public class TaxonomyImage {
+
+    private final OWLEntity[][] names;
+    private final int[][] parents;
+    private final int top;
+    private final int bottom;
+
+    /**
+     * @param tax taxonomy to copy
+     */
+    public TaxonomyImage(Taxonomy tax) {
+        List<TaxonomyVertex> list = asList(tax.vertices());
+        Map<TaxonomyVertex, Integer> ids = new IdentityHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            ids.put(list.get(i), Integer.valueOf(i));
+        }
+        names = new OWLEntity[list.size()][];
+        parents = new int[list.size()][];
+        for (int i = 0; i < names.length; i++) {
+            TaxonomyVertex v = list.get(i);
+            List<OWLEntity> l = new ArrayList<>();
+            addName(l, v.getPrimer());
+            v.synonyms().forEach(p -> addName(l, p));
+            names[i] = l.toArray(new OWLEntity[l.size()]);
+            parents[i] = v.neigh(true).filter(ids::containsKey).mapToInt(p -> ids.get(p).intValue())
+                .toArray();
+        }
+        top = ids.get(tax.getTopVertex()).intValue();
+        bottom = ids.get(tax.getBottomVertex()).intValue();
+    }
+
+    private TaxonomyImage(OWLEntity[][] names, int[][] parents, int top, int bottom) {
+        this.names = names;
+        this.parents = parents;
+        this.top = top;
+        this.bottom = bottom;
+    }
+
+    /**
+     * @param e entity
+     * @return key of the entity in stored images: its type and IRI, as an IRI may be punned
+     */
+    public static String key(OWLEntity e) {
+        return e.getEntityType().getName() + ' ' + e.getIRI();
+    }
+
+    /**
+     * write the image, with entities as {@link #key(OWLEntity)} keys
+     *
+     * @param out output
+     * @throws IOException if writing fails
+     */
+    public void write(DataOutput out) throws IOException {
+        ClassificationStore.writeInt(out, names.length);
+        ClassificationStore.writeInt(out, top);
+        ClassificationStore.writeInt(out, bottom);
+        for (int i = 0; i < names.length; i++) {
+            ClassificationStore.writeInt(out, names[i].length);
+            for (OWLEntity e : names[i]) {
+                ClassificationStore.writeString(out, key(e));
+            }
+            int[] sorted = parents[i].clone();
+            Arrays.sort(sorted);
+            ClassificationStore.writeSortedInts(out, sorted);
+        }
+    }
+
+    /**
+     * @param in input, positioned at an image written by {@link #write(DataOutput)}
+     * @param entities maps keys to entities; returns null for unknown keys, which are dropped
+     * @return image read
+     */
+    public static TaxonomyImage read(ByteBuffer in, Function<String, OWLEntity> entities) {
+        int size = ClassificationStore.readInt(in);
+        int top = ClassificationStore.readInt(in);
+        int bottom = ClassificationStore.readInt(in);
+        OWLEntity[][] names = new OWLEntity[size][];
+        int[][] parents = new int[size][];
+        for (int i = 0; i < size; i++) {
+            int n = ClassificationStore.readInt(in);
+            List<OWLEntity> l = new ArrayList<>(n);
+            for (int j = 0; j < n; j++) {
+                OWLEntity e = entities.apply(ClassificationStore.readString(in));
+                if (e != null) {
+                    l.add(e);
+                }
+            }
+            names[i] = l.toArray(new OWLEntity[l.size()]);
+            parents[i] = ClassificationStore.readSortedInts(in);
+        }
+        return new TaxonomyImage(names, parents, top, bottom);
+    }
+
+    /**
+     * Merge the images of taxonomies of independent parts of an ontology. Vertices sharing a name
+     * are merged, and the parents of a merged vertex are its parents in all images; top is only
+     * kept as a parent of vertices without other parents. This is only sound if vertices that are
+     * shared by different images have no parent but top in any of them.
+     *
+     * @param images images to merge
+     * @param entities entities to keep in the merged image; those missing from all images are
+     *        added below top
+     * @return merged image
+     */
+    public static TaxonomyImage merge(List<TaxonomyImage> images, Collection<OWLEntity> entities) {
+        Map<OWLEntity, Integer> ids = new HashMap<>();
+        List<List<OWLEntity>> names = new ArrayList<>();
+        List<BitSet> parents = new ArrayList<>();
+        // top is vertex 0, bottom is vertex 1
+        addVertex(names, parents);
+        addVertex(names, parents);
+        for (TaxonomyImage image : images) {
+            int[] map = new int[image.names.length];
+            for (int i = 0; i < map.length; i++) {
+                int v = i == image.top ? 0 : i == image.bottom ? 1 : -1;
+                for (int j = 0; v < 0 && j < image.names[i].length; j++) {
+                    Integer known = ids.get(image.names[i][j]);
+                    if (known != null) {
+                        v = known.intValue();
+                    }
+                }
+                if (v < 0) {
+                    v = addVertex(names, parents);
+                }
+                map[i] = v;
+                for (OWLEntity e : image.names[i]) {
+                    if (ids.putIfAbsent(e, Integer.valueOf(v)) == null) {
+                        names.get(v).add(e);
+                    }
+                }
+            }
+            for (int i = 0; i < map.length; i++) {
+                if (i != image.top && i != image.bottom) {
+                    for (int p : image.parents[i]) {
+                        parents.get(map[i]).set(map[p]);
+                    }
+                }
+            }
+        }
+        for (OWLEntity e : entities) {
+            if (!ids.containsKey(e)) {
+                int v = addVertex(names, parents);
+                ids.put(e, Integer.valueOf(v));
+                names.get(v).add(e);
+                parents.get(v).set(0);
+            }
+        }
+        OWLEntity[][] mergedNames = new OWLEntity[names.size()][];
+        int[][] mergedParents = new int[names.size()][];
+        for (int i = 0; i < mergedNames.length; i++) {
+            List<OWLEntity> l = names.get(i);
+            mergedNames[i] = l.toArray(new OWLEntity[l.size()]);
+            BitSet b = parents.get(i);
+            if (b.cardinality() > 1) {
+                b.clear(0);
+            }
+            mergedParents[i] = b.stream().toArray();
+        }
+        return new TaxonomyImage(mergedNames, mergedParents, 0, 1);
+    }
+
+    private static int addVertex(List<List<OWLEntity>> names, List<BitSet> parents) {
+        names.add(new ArrayList<>());
+        parents.add(new BitSet());
+        return names.size() - 1;
+    }
+
+    private static void addName(List<OWLEntity> l, @Nullable ClassifiableEntry e) {
+        if (e != null && e.hasEntity()) {
+            l.add(e.getEntity().getEntity());
+        }
+    }
+
+    /** @return number of vertices in the image */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Rebuild the image in a fresh taxonomy. Names that cannot be resolved are dropped; a vertex
+     * without any resolved name is bypassed by linking its children to its parents.
+     *
+     * @param tax fresh taxonomy of the reloaded TBox
+     * @param resolve maps entities to the entries of the reloaded TBox; returns null for unknown
+     *        entities
+     * @return number of restored vertices, top and bottom excluded
+     */
+    public int restore(Taxonomy tax, Function<OWLEntity, ClassifiableEntry> resolve) {
+        TaxonomyVertex[] restored = new TaxonomyVertex[names.length];
+        restored[top] = tax.getTopVertex();
+        restored[bottom] = tax.getBottomVertex();
+        int n = 0;
+        for (int i = 0; i < names.length; i++) {
+            for (OWLEntity e : names[i]) {
+                ClassifiableEntry entry = resolve.apply(e);
+                if (entry == null) {
+                    continue;
+                }
+                if (restored[i] == null) {
+                    restored[i] = tax.addVertex(entry);
+                    n++;
+                } else if (restored[i].getPrimer() != entry) {
+                    restored[i].addSynonym(entry);
+                }
+            }
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (restored[i] == null || i == top || i == bottom) {
+                continue;
+            }
+            for (TaxonomyVertex p : resolvedParents(i, restored)) {
+                restored[i].addNeighbour(true, p);
+                p.addNeighbour(false, restored[i]);
+            }
+        }
+        return n;
+    }
+
+    /** @return the nearest restored ancestors of vertex i */
+    private List<TaxonomyVertex> resolvedParents(int i, TaxonomyVertex[] restored) {
+        List<TaxonomyVertex> toReturn = new ArrayList<>(parents[i].length);
+        List<Integer> queue = new ArrayList<>();
+        for (int p : parents[i]) {
+            if (restored[p] != null) {
+                toReturn.add(restored[p]);
+            } else {
+                queue.add(Integer.valueOf(p));
+            }
+        }
+        if (queue.isEmpty()) {
+            return toReturn;
+        }
+        BitSet seen = new BitSet(names.length);
+        while (!queue.isEmpty()) {
+            int p = queue.remove(queue.size() - 1).intValue();
+            if (seen.get(p)) {
+                continue;
+            }
+            seen.set(p);
+            if (restored[p] != null) {
+                if (!toReturn.contains(restored[p])) {
+                    toReturn.add(restored[p]);
+                }
+            } else {
+                for (int q : parents[p]) {
+                    queue.add(Integer.valueOf(q));
+                }
+            }
+        }
+        return toReturn;
+    }
+}
@@ -0,0 +1,164 @@
+package uk.ac.manchester.cs.jfact.kernel;
+
+/* This file is part of the JFact DL reasoner
+ Copyright 2011-2013 by Ignazio Palmisano, Dmitry Tsarkov, University of Manchester
+ This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
+ This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
+ You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import static org.semanticweb.owlapi.util.OWLAPIStreamUtils.asList;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import conformance.Original;
+
+/**
+ * Immutable copy of the structure of a taxonomy. Vertices are identified by ints, links are kept in
+ * adjacency arrays and every walk uses its own visited set, so any number of threads can query a
+ * snapshot at the same time; changes to the original taxonomy are not reflected.
+ */
+@Original
+public class TaxonomySnapshot implements Serializable {
+
+    private final TaxonomyVertex[] vertices;
+    private final Map<TaxonomyVertex, Integer> ids = new IdentityHashMap<>();
+    private final int[][] parents;
+    private final int[][] children;
+    private final int top;
+    private final int bottom;
+
+    /**
+     * @param tax taxonomy to copy; must not be changed while the snapshot is built
+     */
+    public TaxonomySnapshot(Taxonomy tax) {
+        List<TaxonomyVertex> list = asList(tax.vertices());
+        vertices = list.toArray(new TaxonomyVertex[list.size()]);
+        for (int i = 0; i < vertices.length; i++) {
+            ids.put(vertices[i], Integer.valueOf(i));
+        }
+        parents = new int[vertices.length][];
+        children = new int[vertices.length][];
+        for (int i = 0; i < vertices.length; i++) {
+            parents[i] = links(vertices[i], true);
+            children[i] = links(vertices[i], false);
+        }
+        top = getId(tax.getTopVertex());
+        bottom = getId(tax.getBottomVertex());
+    }
+
+    private int[] links(TaxonomyVertex v, boolean upDirection) {
+        return v.neigh(upDirection).filter(ids::containsKey).mapToInt(this::getId).toArray();
+    }
+
+    /** @return number of vertices */
+    public int size() {
+        return vertices.length;
+    }
+
+    /**
+     * @param id vertex id
+     * @return vertex with the given id
+     */
+    public TaxonomyVertex getVertex(int id) {
+        return vertices[id];
+    }
+
+    /**
+     * @param v vertex
+     * @return id of the vertex, or -1 if the vertex is not in the snapshot
+     */
+    public int getId(TaxonomyVertex v) {
+        Integer id = ids.get(v);
+        return id == null ? -1 : id.intValue();
+    }
+
+    /** @return id of the top vertex */
+    public int getTop() {
+        return top;
+    }
+
+    /** @return id of the bottom vertex */
+    public int getBottom() {
+        return bottom;
+    }
+
+    /**
+     * @param id vertex id
+     * @param upDirection true for parents, false for children
+     * @return copy of the neighbours of the vertex
+     */
+    public int[] neigh(int id, boolean upDirection) {
+        return (upDirection ? parents[id] : children[id]).clone();
+    }
+
+    /**
+     * Collect the relatives of a vertex accepted by a policy. This is the walk of
+     * Taxonomy::getRelativesInfo (without the current node), with the visited labels kept in a
+     * bitset local to the call.
+     * 
+     * @param id vertex to start from
+     * @param accepted vertices accepted by the policy
+     * @param onlyDirect true if only the closest accepted relatives are needed
+     * @param upDirection true for ancestors, false for descendants
+     * @return ids of the accepted relatives
+     */
+    public BitSet getRelatives(int id, BitSet accepted, boolean onlyDirect, boolean upDirection) {
+        int[][] links = upDirection ? parents : children;
+        BitSet visited = new BitSet(vertices.length);
+        BitSet found = new BitSet(vertices.length);
+        BitSet pastBoundary = new BitSet(vertices.length);
+        int[] queue = new int[vertices.length];
+        int head = 0;
+        int tail = 0;
+        for (int n : links[id]) {
+            if (!visited.get(n)) {
+                visited.set(n);
+                queue[tail++] = n;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            if (accepted.get(v)) {
+                found.set(v);
+                if (onlyDirect) {
+                    // everything past an accepted vertex is not direct
+                    markPastBoundary(links, v, pastBoundary, visited);
+                    continue;
+                }
+            }
+            for (int n : links[v]) {
+                if (!visited.get(n) && (!onlyDirect || accepted.get(n))) {
+                    visited.set(n);
+                    queue[tail++] = n;
+                }
+            }
+        }
+        found.andNot(pastBoundary);
+        return found;
+    }
+
+    private static void markPastBoundary(int[][] links, int from, BitSet pastBoundary,
+        BitSet visited) {
+        int[] stack = new int[links.length];
+        int size = 0;
+        for (int n : links[from]) {
+            if (!pastBoundary.get(n)) {
+                pastBoundary.set(n);
+                visited.set(n);
+                stack[size++] = n;
+            }
+        }
+        while (size > 0) {
+            for (int n : links[stack[--size]]) {
+                if (!pastBoundary.get(n)) {
+                    pastBoundary.set(n);
+                    visited.set(n);
+                    stack[size++] = n;
+                }
+            }
+        }
+    }
+}
@@ -68,6 +68,20 @@ public class TaxonomyVertex implements Serializable {
         setSample(p, true);
     }
 
+    /**
+     * @return copy of this vertex with the same sample, synonyms and neighbours; the neighbours are
+     *         not linked back to the copy, so the taxonomy is not changed
+     */
+    @Original
+    public TaxonomyVertex detachedCopy() {
+        TaxonomyVertex copy = new TaxonomyVertex();
+        copy.sample = sample;
+        copy.synonyms.addAll(synonyms);
+        copy.linksParent.addAll(linksParent);
+        copy.linksChild.addAll(linksChild);
+        return copy;
+    }
+
     /**
      * mark vertex as the one corresponding to a given ENTRY
      * 
@@ -5,8 +5,9 @@ package uk.ac.manchester.cs.jfact.kernel;
  This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
-import org.roaringbitmap.RoaringBitmap;
+import javax.annotation.Nullable;
 
+import uk.ac.manchester.cs.jfact.dep.DepLevels;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
 import conformance.PortedFrom;
 
@@ -19,7 +20,7 @@ class UnMerge extends Restorer {
     @PortedFrom(file = "CWDArray.cpp", name = "offset")
     private final int offset;
     @PortedFrom(file = "CWDArray.cpp", name = "dep")
-    private final RoaringBitmap dep;
+    @Nullable private final DepLevels dep;
 
     UnMerge(CWDArray lab, ConceptWDep p, int offset) {
         label = lab;
@@ -12,10 +12,12 @@ import static uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState.UNKNO
 import static uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheState.VALID;
 import static uk.ac.manchester.cs.jfact.kernel.modelcaches.ModelCacheType.IAN;
 
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 import org.roaringbitmap.RoaringBitmap;
 
+import conformance.Original;
 import conformance.PortedFrom;
 import uk.ac.manchester.cs.chainsaw.FastSet;
 import uk.ac.manchester.cs.chainsaw.FastSetFactory;
@@ -110,6 +112,58 @@ public class ModelCacheIan extends ModelCacheInterface {
         this.nR = nR;
     }
 
+    /**
+     * Rebuild a cache from the sets returned by {@link #getSets()}.
+     * 
+     * @param flagNominals flagNominals
+     * @param nC nC
+     * @param nR nR
+     * @param simpleRules simpleRules
+     * @param state cache state
+     * @param sets cache sets, in the order of {@link #getSets()}
+     */
+    @Original
+    public ModelCacheIan(boolean flagNominals, int nC, int nR,
+        JFactReasonerConfiguration simpleRules, ModelCacheState state, int[][] sets) {
+        this(flagNominals, nC, nR, simpleRules);
+        posDConcepts.add(sets[0]);
+        posNConcepts.add(sets[1]);
+        negDConcepts.add(sets[2]);
+        negNConcepts.add(sets[3]);
+        addAll(extraDConcepts, sets[4]);
+        addAll(extraNConcepts, sets[5]);
+        addAll(existsRoles, sets[6]);
+        addAll(forallRoles, sets[7]);
+        addAll(funcRoles, sets[8]);
+        curState = state;
+    }
+
+    private static void addAll(FastSet set, int[] values) {
+        for (int i : values) {
+            set.add(i);
+        }
+    }
+
+    private static int[] toArray(FastSet set) {
+        int[] toReturn = new int[set.size()];
+        for (int i = 0; i < toReturn.length; i++) {
+            toReturn[i] = set.get(i);
+        }
+        Arrays.sort(toReturn);
+        return toReturn;
+    }
+
+    /**
+     * @return concept sets (pos det, pos non-det, neg det, neg non-det), extra concept sets (det,
+     *         non-det) and role sets (exists, forall, func), each sorted
+     */
+    @Original
+    public int[][] getSets() {
+        return new int[][] {posDConcepts.toArray(), posNConcepts.toArray(), negDConcepts.toArray(),
+            negNConcepts.toArray(), toArray(extraDConcepts), toArray(extraNConcepts),
+            toArray(existsRoles), toArray(forallRoles), toArray(funcRoles)};
+    }
+
     /**
      * process CT label in given interval; set Deterministic accordingly
      * 
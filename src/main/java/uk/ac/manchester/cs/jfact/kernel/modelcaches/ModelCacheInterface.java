@@ -19,6 +19,9 @@ public abstract class ModelCacheInterface implements Serializable {
     /** flag to show that model contains nominals */
     @PortedFrom(file = "modelCacheInterface.h", name = "hasNominalNode")
     private boolean hasNominalNode;
+    /** flag to show that split GCIs were active when the model was built */
+    @Original
+    private boolean hasActiveSplits;
 
     /**
      * Create cache model with given presence of nominals
@@ -96,4 +99,19 @@ public abstract class ModelCacheInterface implements Serializable {
     public boolean isHasNominalNode() {
         return hasNominalNode;
     }
+
+    /**
+     * @param hasActiveSplits true if split GCIs were active when the model was built; such a
+     *        model can not be merged with others, as they may not satisfy the split GCIs
+     */
+    @Original
+    public void setHasActiveSplits(boolean hasActiveSplits) {
+        this.hasActiveSplits = hasActiveSplits;
+    }
+
+    /** @return true if split GCIs were active when the model was built */
+    @Original
+    public boolean isHasActiveSplits() {
+        return hasActiveSplits;
+    }
 }
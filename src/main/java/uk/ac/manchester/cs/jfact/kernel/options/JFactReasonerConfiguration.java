@@ -5,6 +5,7 @@ package uk.ac.manchester.cs.jfact.kernel.options;
  This library is free software; you can redistribute it and/or modify it under the terms of the GNU Lesser General Public License as published by the Free Software Foundation; either version 2.1 of the License, or (at your option) any later version.
  This library is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more details.
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.OutputStream;
@@ -53,9 +54,11 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
     /**
      * Option 'orSortSub' define the sorting order of OR vertices in the DAG used in subsumption
      * tests. Option has form of string 'Mop', where 'M' is a sort field (could be 'D' for depth,
-     * 'S' for size, 'F' for frequency, and '0' for no sorting), 'o' is a order field (could be 'a'
-     * for ascending and 'd' for descending mode), and 'p' is a preference field (could be 'p' for
-     * preferencing non-generating rules and 'n' for not doing so).
+     * 'S' for size, 'F' for frequency, 'A' for adaptive and '0' for no sorting), 'o' is a order
+     * field (could be 'a' for ascending and 'd' for descending mode), and 'p' is a preference field
+     * (could be 'p' for preferencing non-generating rules and 'n' for not doing so). Adaptive
+     * sorting uses the rate of clashes each disjunct caused in previous tests: ascending order tries
+     * likely satisfiable disjuncts first, descending order fails first.
      */
     private static StringOption orSortSub = getOption(OR_SORT_SUB, "0");
     /**
@@ -111,7 +114,11 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
      * changes in the ontology.
      */
     private boolean useIncrementalReasoning = false;
-    /** The use axiom splitting. */
+    /**
+     * Option 'useAxiomSplitting' takes the GCIs left after absorption out of T_G if they can only
+     * apply where some entities are used; such GCIs are added to a session once one of the
+     * entities appears in the completion graph.
+     */
     @PortedFrom(file = "Kernel.h", name = "useAxiomSplitting")
     private boolean useAxiomSplitting = false;
     /** flag to use caching during completion tree construction */
@@ -181,6 +188,53 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
     private boolean useUndefinedNames = true;
     /** how many nodes skip before block; work only with FAIRNESS */
     private int nSkipBeforeBlock = 0;
+    /**
+     * Option 'useParallelClassification' allows the satisfiability and cache building tests needed
+     * by classification to run on a pool of worker reasoners; the taxonomy itself is still built by
+     * a single thread.
+     */
+    private boolean useParallelClassification = false;
+    /**
+     * Option 'useParallelRealisation' allows the individuals of an ABox without nominals in
+     * concepts to be realised by connected component, each one on a worker reasoner; the types
+     * found are merged into the taxonomy by a single thread.
+     */
+    private boolean useParallelRealisation = false;
+    /**
+     * Option 'useParallelPreprocessing' allows the preprocessing steps that only change one
+     * concept at a time to run on a fork-join pool; steps that share the DAG stay sequential.
+     */
+    private boolean useParallelPreprocessing = false;
+    /**
+     * Option 'useModularClassification' allows a TBox whose bottom modules fall into independent
+     * groups to be classified group by group, each one on a reasoner of its own; the taxonomies
+     * are then merged.
+     */
+    private boolean useModularClassification = false;
+    /**
+     * number of worker reasoners used by parallel classification and realisation; also the
+     * parallelism of parallel preprocessing.
+     */
+    private int classificationWorkers = Runtime.getRuntime().availableProcessors();
+    /** number of complex concept queries whose results are cached; 0 disables the cache. */
+    private int queryCacheSize = 32;
+    /** directory of the persistent classification cache; null disables the cache. */
+    @Nullable
+    private File classificationCacheDirectory = null;
+    /**
+     * Option 'useStrategyTuning' runs a sample of subsumption tests before classification with
+     * several OR sorting orders and semantic branching settings, and classifies with the one
+     * that needed the fewest tactic operations.
+     */
+    private boolean useStrategyTuning = false;
+    /** directory of the tuned strategy profiles; null disables their persistence. */
+    @Nullable
+    private File strategyProfileDirectory = null;
+    /**
+     * number of axioms read from the ontology before they are handed to the translator thread;
+     * 0 translates axioms on the reading thread.
+     */
+    private int axiomLoadingChunkSize = 4096;
 
     /** Instantiates a new j fact reasoner configuration. */
     public JFactReasonerConfiguration() {
@@ -242,6 +296,16 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         useSpecialDomains = source.useSpecialDomains;
         useUndefinedNames = source.useUndefinedNames;
         verboseOutput = source.verboseOutput;
+        useParallelClassification = source.useParallelClassification;
+        useParallelRealisation = source.useParallelRealisation;
+        useParallelPreprocessing = source.useParallelPreprocessing;
+        useModularClassification = source.useModularClassification;
+        classificationWorkers = source.classificationWorkers;
+        queryCacheSize = source.queryCacheSize;
+        classificationCacheDirectory = source.classificationCacheDirectory;
+        useStrategyTuning = source.useStrategyTuning;
+        strategyProfileDirectory = source.strategyProfileDirectory;
+        axiomLoadingChunkSize = source.axiomLoadingChunkSize;
     }
 
     /**
@@ -554,6 +618,17 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         return this.get("absorptionFlags");
     }
 
+    /**
+     * Sets the absorption flags.
+     * 
+     * @param flags the absorption actions, in the order they are tried
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setabsorptionFlags(String flags) {
+        registerOption(getOption(absorptionFlags.getOptionName(), flags));
+        return this;
+    }
+
     /**
      * Gets the iaoeflg.
      * 
@@ -1259,4 +1334,211 @@ public class JFactReasonerConfiguration implements OWLReasonerConfiguration, Ser
         this.useIncrementalReasoning = useIncrementalReasoning;
         return this;
     }
+
+    /**
+     * Checks if is use parallel classification.
+     * 
+     * @return true, if is use parallel classification
+     */
+    public boolean isUseParallelClassification() {
+        return useParallelClassification;
+    }
+
+    /**
+     * Sets the use parallel classification.
+     * 
+     * @param useParallelClassification the new use parallel classification
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseParallelClassification(
+        boolean useParallelClassification) {
+        this.useParallelClassification = useParallelClassification;
+        return this;
+    }
+
+    /**
+     * Checks if is use parallel realisation.
+     * 
+     * @return true, if is use parallel realisation
+     */
+    public boolean isUseParallelRealisation() {
+        return useParallelRealisation;
+    }
+
+    /**
+     * Sets the use parallel realisation.
+     * 
+     * @param useParallelRealisation the new use parallel realisation
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseParallelRealisation(boolean useParallelRealisation) {
+        this.useParallelRealisation = useParallelRealisation;
+        return this;
+    }
+
+    /**
+     * Checks if is use parallel preprocessing.
+     * 
+     * @return true, if is use parallel preprocessing
+     */
+    public boolean isUseParallelPreprocessing() {
+        return useParallelPreprocessing;
+    }
+
+    /**
+     * Sets the use parallel preprocessing.
+     * 
+     * @param useParallelPreprocessing the new use parallel preprocessing
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseParallelPreprocessing(
+        boolean useParallelPreprocessing) {
+        this.useParallelPreprocessing = useParallelPreprocessing;
+        return this;
+    }
+
+    /**
+     * Checks if is use modular classification.
+     * 
+     * @return true, if is use modular classification
+     */
+    public boolean isUseModularClassification() {
+        return useModularClassification;
+    }
+
+    /**
+     * Sets the use modular classification.
+     * 
+     * @param useModularClassification the new use modular classification
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseModularClassification(
+        boolean useModularClassification) {
+        this.useModularClassification = useModularClassification;
+        return this;
+    }
+
+    /**
+     * @return number of worker reasoners used by parallel classification and realisation
+     */
+    public int getClassificationWorkers() {
+        return classificationWorkers;
+    }
+
+    /**
+     * @param classificationWorkers number of worker reasoners used by parallel classification; must
+     *        be positive
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setClassificationWorkers(int classificationWorkers) {
+        if (classificationWorkers < 1) {
+            throw new IllegalArgumentException(
+                "Number of classification workers must be positive: " + classificationWorkers);
+        }
+        this.classificationWorkers = classificationWorkers;
+        return this;
+    }
+
+    /**
+     * @return number of complex concept queries whose results are cached
+     */
+    public int getQueryCacheSize() {
+        return queryCacheSize;
+    }
+
+    /**
+     * @param queryCacheSize number of complex concept queries whose results are cached; 0 disables
+     *        the cache
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setQueryCacheSize(int queryCacheSize) {
+        if (queryCacheSize < 0) {
+            throw new IllegalArgumentException("Query cache size cannot be negative: " + queryCacheSize);
+        }
+        this.queryCacheSize = queryCacheSize;
+        return this;
+    }
+
+    /**
+     * @return directory of the persistent classification cache; null if the cache is disabled
+     */
+    @Nullable
+    public File getClassificationCacheDirectory() {
+        return classificationCacheDirectory;
+    }
+
+    /**
+     * @param classificationCacheDirectory directory where classified taxonomies and model caches
+     *        are stored, one file per ontology fingerprint; null disables the cache
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setClassificationCacheDirectory(
+        @Nullable File classificationCacheDirectory) {
+        this.classificationCacheDirectory = classificationCacheDirectory;
+        return this;
+    }
+
+    /**
+     * Checks if is use strategy tuning.
+     * 
+     * @return true, if is use strategy tuning
+     */
+    public boolean isUseStrategyTuning() {
+        return useStrategyTuning;
+    }
+
+    /**
+     * Sets the use strategy tuning.
+     * 
+     * @param useStrategyTuning the new use strategy tuning
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setUseStrategyTuning(boolean useStrategyTuning) {
+        this.useStrategyTuning = useStrategyTuning;
+        return this;
+    }
+
+    /**
+     * @return directory of the tuned strategy profiles; null if profiles are not stored
+     */
+    @Nullable
+    public File getStrategyProfileDirectory() {
+        return strategyProfileDirectory;
+    }
+
+    /**
+     * @param strategyProfileDirectory directory where tuned strategy profiles are stored, one
+     *        file per ontology fingerprint; null disables their persistence
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setStrategyProfileDirectory(
+        @Nullable File strategyProfileDirectory) {
+        this.strategyProfileDirectory = strategyProfileDirectory;
+        return this;
+    }
+
+    /**
+     * @return number of axioms handed to the translator thread at once; 0 if loading is sequential
+     */
+    public int getAxiomLoadingChunkSize() {
+        return axiomLoadingChunkSize;
+    }
+
+    /**
+     * Only the translation of the axioms into the kernel ontology runs on the translator thread,
+     * overlapping with reading them; the TBox is still built from the whole ontology, all of it in
+     * memory, on the first query.
+     * 
+     * @param axiomLoadingChunkSize number of axioms handed to the translator thread at once; 0
+     *        translates axioms on the reading thread
+     * @return modified instance
+     */
+    public JFactReasonerConfiguration setAxiomLoadingChunkSize(int axiomLoadingChunkSize) {
+        if (axiomLoadingChunkSize < 0) {
+            throw new IllegalArgumentException(
+                "Axiom loading chunk size cannot be negative: " + axiomLoadingChunkSize);
+        }
+        this.axiomLoadingChunkSize = axiomLoadingChunkSize;
+        return this;
+    }
 }
@@ -7,8 +7,9 @@ package uk.ac.manchester.cs.jfact.kernel.todolist;
  You should have received a copy of the GNU Lesser General Public License along with this library; if not, write to the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301 USA*/
 import java.io.Serializable;
 
-import org.roaringbitmap.RoaringBitmap;
+import javax.annotation.Nullable;
 
+import uk.ac.manchester.cs.jfact.dep.DepLevels;
 import uk.ac.manchester.cs.jfact.dep.DepSet;
 import uk.ac.manchester.cs.jfact.kernel.ConceptWDep;
 import uk.ac.manchester.cs.jfact.kernel.DlCompletionTree;
@@ -20,7 +21,7 @@ public class ToDoEntry implements Serializable {
     /** node to include concept */
     private final DlCompletionTree node;
     private final int concept;
-    private final RoaringBitmap delegate;
+    @Nullable private final DepLevels delegate;
 
     protected ToDoEntry(DlCompletionTree n, ConceptWDep off) {
         node = n;
@@ -39,7 +40,8 @@ public class ToDoEntry implements Serializable {
     }
 
     /** @return offset dep set */
-    public RoaringBitmap getOffsetDepSet() {
+    @Nullable
+    public DepLevels getOffsetDepSet() {
         return delegate;
     }
 
@@ -162,7 +162,10 @@ public class ToDoList implements Serializable {
     /** save current state using internal stack */
     @PortedFrom(file = "ToDoList.h", name = "save")
     public void save() {
-        TODOListSaveState state = new TODOListSaveState();
+        TODOListSaveState state = saveStack.recycle();
+        if (state == null) {
+            state = new TODOListSaveState();
+        }
         saveState(state);
         saveStack.push(state);
     }
@@ -0,0 +1,101 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.helpers.DLVertex;
+import uk.ac.manchester.cs.jfact.kernel.DLDag;
+import uk.ac.manchester.cs.jfact.kernel.DagTag;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class AdaptiveOrOrderingTestCase extends TestBase {
+
+    private DLDag dag;
+    private int a;
+    private int b;
+    private int c;
+    private int or;
+
+    /**
+     * @param order OR sorting order
+     */
+    private void buildDisjunction(String order) {
+        dag = new DLDag(new JFactReasonerConfiguration().setorSortSat(order).setorSortSub(order));
+        a = dag.directAdd(new DLVertex(DagTag.PCONCEPT, dag), true);
+        b = dag.directAdd(new DLVertex(DagTag.PCONCEPT, dag), true);
+        c = dag.directAdd(new DLVertex(DagTag.PCONCEPT, dag), true);
+        // a or b or c is not(not a and not b and not c)
+        DLVertex and = new DLVertex(DagTag.AND, dag);
+        and.addChild(-a);
+        and.addChild(-b);
+        and.addChild(-c);
+        or = -dag.add(and);
+        record(a, 10, 9);
+        record(b, 10, 0);
+        record(c, 10, 5);
+    }
+
+    private void record(int p, int usage, int clashes) {
+        for (int i = 0; i < usage; i++) {
+            dag.get(p).incUsage(true);
+        }
+        for (int i = 0; i < clashes; i++) {
+            dag.get(p).incClash(true);
+        }
+    }
+
+    @Test
+    void shouldTryLeastClashingDisjunctsFirst() {
+        buildDisjunction("Aap");
+        dag.setSatOrder();
+        assertArrayEquals(new int[] {-b, -c, -a}, dag.get(or).begin());
+        // new clashes change the order after the options are applied again
+        record(b, 0, 10);
+        dag.setSatOrder();
+        assertArrayEquals(new int[] {-c, -a, -b}, dag.get(or).begin());
+    }
+
+    @Test
+    void shouldTryMostClashingDisjunctsFirstInDescendingOrder() {
+        buildDisjunction("Adp");
+        dag.setSubOrder();
+        assertArrayEquals(new int[] {-a, -c, -b}, dag.get(or).begin());
+    }
+
+    @Test
+    void shouldSortWhileWorkersUpdateCounts() throws Exception {
+        buildDisjunction("Aap");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                int p = i % 2 == 0 ? a : c;
+                results.add(pool.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        record(p, 1, j % 2);
+                        // drop the cached order, then sort with counts changing under it
+                        dag.setSatOrder();
+                        assertEquals(3, dag.get(or).begin().length);
+                    }
+                }));
+            }
+            for (Future<?> f : results) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(10 + 2 * 10000, dag.get(a).getUsage(true));
+        assertEquals(9 + 2 * 5000, dag.get(a).getClash(true));
+        assertEquals(10 + 2 * 10000, dag.get(c).getUsage(true));
+    }
+}
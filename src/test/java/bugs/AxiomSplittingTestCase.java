@@ -0,0 +1,84 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class AxiomSplittingTestCase extends TestBase {
+
+    private static final String NS = "urn:test:splitting#";
+
+    /** GCIs are only absorbed into TOP and BOTTOM, so that they are left for splitting */
+    private JFactReasoner reasoner(OWLOntology o, boolean split) {
+        return (JFactReasoner) factory().createReasoner(o, new JFactReasonerConfiguration()
+            .setabsorptionFlags("BT").setUseAxiomSplitting(split));
+    }
+
+    @Test
+    void shouldSplitLocalGCIs() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        OWLObjectProperty r = df.getOWLObjectProperty(NS, "r");
+        OWLClass top = df.getOWLClass(NS, "Covered");
+        for (int i = 0; i < 4; i++) {
+            OWLClass a = df.getOWLClass(NS, "A" + i);
+            OWLClass b = df.getOWLClass(NS, "B" + i);
+            OWLClass c = df.getOWLClass(NS, "C" + i);
+            o.add(df.getOWLEquivalentClassesAxiom(c, df.getOWLObjectSomeValuesFrom(r, c)));
+            o.add(df.getOWLSubClassOfAxiom(df.getOWLObjectIntersectionOf(c, a), b));
+            // not local: never split
+            o.add(df.getOWLSubClassOfAxiom(df.getOWLThing(), df.getOWLObjectUnionOf(a, top)));
+            o.add(df.getOWLSubClassOfAxiom(df.getOWLClass(NS, "D" + i),
+                df.getOWLObjectIntersectionOf(c, df.getOWLObjectComplementOf(top))));
+        }
+        JFactReasoner plain = reasoner(o, false);
+        JFactReasoner split = reasoner(o, true);
+        plain.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        split.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertEquals(0, plain.getMetrics().getCounter("nSplitGCIs"));
+        assertTrue(split.getMetrics().getCounter("nSplitGCIs") > 0);
+        assertEquals(plain.getUnsatisfiableClasses(), split.getUnsatisfiableClasses());
+        o.classesInSignature().forEach(x -> {
+            assertEquals(plain.getSuperClasses(x, true), split.getSuperClasses(x, true),
+                x.toString());
+            assertEquals(plain.getEquivalentClasses(x), split.getEquivalentClasses(x),
+                x.toString());
+        });
+        assertTrue(split.getSuperClasses(df.getOWLClass(NS, "D0"), false)
+            .containsEntity(df.getOWLClass(NS, "B0")));
+        plain.dispose();
+        split.dispose();
+    }
+
+    @Test
+    void shouldNotMergeModelsWithActiveSplits() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        OWLObjectProperty s = df.getOWLObjectProperty(NS, "s");
+        OWLClass a = df.getOWLClass(NS, "A");
+        OWLClass b = df.getOWLClass(NS, "B");
+        OWLClass q = df.getOWLClass(NS, "Q");
+        OWLClass z = df.getOWLClass(NS, "Z");
+        // split off and triggered by A: the model of A satisfies it, the model of not Q does not
+        o.add(df.getOWLSubClassOfAxiom(df.getOWLObjectSomeValuesFrom(s, a), b));
+        o.add(df.getOWLEquivalentClassesAxiom(q,
+            df.getOWLObjectAllValuesFrom(df.getOWLObjectInverseOf(s), b)));
+        o.add(df.getOWLSubClassOfAxiom(z, df.getOWLObjectSomeValuesFrom(s, z)));
+        JFactReasoner split = reasoner(o, true);
+        split.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertEquals(1, split.getMetrics().getCounter("nSplitGCIs"));
+        // merging the two models would miss the s-predecessors of A, all of them in B
+        assertTrue(split.getSuperClasses(a, false).containsEntity(q));
+        assertFalse(split.getSuperClasses(z, false).containsEntity(q));
+        split.dispose();
+    }
+}
@@ -0,0 +1,55 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ChunkedAxiomLoadingTestCase extends TestBase {
+
+    private JFactReasoner reasoner(OWLOntology o, int chunkSize) {
+        return (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setAxiomLoadingChunkSize(chunkSize));
+    }
+
+    private static long pipelinedChunks(JFactReasoner r) {
+        return r.getMetrics().getCounter("nPipelinedChunks");
+    }
+
+    @Test
+    void shouldTranslateChunksOnTranslatorThread() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        int axioms = JFactReasoner.importsIncluded(o).size();
+        assertTrue(axioms > 7);
+        // small chunks, so that the reader has to wait for the translator
+        JFactReasoner chunked = reasoner(o, 7);
+        assertEquals((axioms + 6) / 7, pipelinedChunks(chunked));
+        JFactReasoner sequential = reasoner(o, 0);
+        assertEquals(0, pipelinedChunks(sequential));
+        assertEquals(sequential.getUnsatisfiableClasses(), chunked.getUnsatisfiableClasses());
+        o.classesInSignature().forEach(c -> {
+            assertEquals(sequential.getSuperClasses(c, true), chunked.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(sequential.getEquivalentClasses(c), chunked.getEquivalentClasses(c),
+                c.toString());
+        });
+        // the counter is kept by the kernel when the TBox is built
+        assertEquals((axioms + 6) / 7, pipelinedChunks(chunked));
+        chunked.dispose();
+        sequential.dispose();
+    }
+
+    @Test
+    void shouldTranslateSingleChunkInPlace() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        JFactReasoner r = reasoner(o, JFactReasoner.importsIncluded(o).size());
+        assertEquals(0, pipelinedChunks(r));
+        r.dispose();
+    }
+}
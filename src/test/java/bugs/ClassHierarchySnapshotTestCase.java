@@ -0,0 +1,119 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+
+class ClassHierarchySnapshotTestCase extends TestBase {
+
+    private static final String NS = "urn:test:snapshot#";
+    private OWLClass a;
+    private OWLClass b;
+    private OWLClass c;
+    private OWLClass d;
+    private OWLClass e;
+    private OWLClass f;
+    private OWLClass g;
+
+    @BeforeEach
+    void setupClasses() {
+        a = df.getOWLClass(NS, "A");
+        b = df.getOWLClass(NS, "B");
+        c = df.getOWLClass(NS, "C");
+        d = df.getOWLClass(NS, "D");
+        e = df.getOWLClass(NS, "E");
+        f = df.getOWLClass(NS, "F");
+        g = df.getOWLClass(NS, "G");
+    }
+
+    private OWLOntology ontology() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        o.add(df.getOWLSubClassOfAxiom(a, b), df.getOWLSubClassOfAxiom(a, c),
+            df.getOWLSubClassOfAxiom(b, d), df.getOWLSubClassOfAxiom(c, d),
+            df.getOWLEquivalentClassesAxiom(e, b),
+            df.getOWLEquivalentClassesAxiom(g, df.getOWLObjectIntersectionOf(b, c)),
+            df.getOWLSubClassOfAxiom(f, a));
+        return o;
+    }
+
+    private static Set<OWLClass> set(NodeSet<OWLClass> nodes) {
+        return nodes.entities().collect(Collectors.toSet());
+    }
+
+    private static Set<OWLClass> set(OWLClass... classes) {
+        return new HashSet<>(Arrays.asList(classes));
+    }
+
+    private static long snapshots(JFactReasoner r) {
+        return r.getMetrics().getCounter("nClassHierarchySnapshots");
+    }
+
+    private void checkHierarchy(JFactReasoner r) {
+        assertEquals(set(g), set(r.getSuperClasses(a, true)));
+        assertEquals(set(g, b, c, d, e, df.getOWLThing()), set(r.getSuperClasses(a, false)));
+        assertEquals(set(b, c, e), set(r.getSuperClasses(g, true)));
+        assertEquals(set(b, e, c), set(r.getSubClasses(d, true)));
+        assertEquals(set(g, a, f, df.getOWLNothing()), set(r.getSubClasses(b, false)));
+        assertEquals(set(b, e), r.getEquivalentClasses(e).entities().collect(Collectors.toSet()));
+    }
+
+    @Test
+    void shouldAnswerConcurrentQueriesFromSnapshot() throws Exception {
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(ontology());
+        r.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertEquals(1, snapshots(r));
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> checkHierarchy(r)));
+            }
+            for (Future<?> result : results) {
+                // rethrows assertion failures of the workers
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        // all the queries were answered from the same snapshot
+        assertEquals(1, snapshots(r));
+        r.dispose();
+    }
+
+    @Test
+    void shouldDropSnapshotWhenChangesAreFlushed() throws OWLOntologyCreationException {
+        OWLOntology o = ontology();
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        r.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        checkHierarchy(r);
+        OWLClass h = df.getOWLClass(NS, "H");
+        o.add(df.getOWLSubClassOfAxiom(h, a));
+        assertEquals(1, snapshots(r));
+        r.flush();
+        // the first query after the flush builds a new snapshot, the second one reuses it
+        assertEquals(set(f, h), set(r.getSubClasses(a, true)));
+        assertEquals(2, snapshots(r));
+        assertEquals(set(f, h), set(r.getSubClasses(a, true)));
+        assertEquals(2, snapshots(r));
+        r.dispose();
+    }
+}
@@ -0,0 +1,94 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ClassificationStoreTestCase extends TestBase {
+
+    @TempDir
+    File directory;
+
+    private JFactReasoner reasoner(OWLOntology o) {
+        return (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setClassificationCacheDirectory(directory));
+    }
+
+    @Test
+    void shouldRestoreStoredClassification() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        JFactReasoner storing = reasoner(o);
+        storing.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertEquals(0, storing.getMetrics().getCounter("nRestoredClassifications"));
+        assertTrue(storing.getMetrics().getCounter("nSubCalls") > 0);
+        File[] stored = directory.listFiles((d, name) -> name.endsWith(".jfc"));
+        assertTrue(stored != null && stored.length == 1);
+        JFactReasoner restored = reasoner(o);
+        restored.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        ReasoningMetrics metrics = restored.getMetrics();
+        // the taxonomy was read from the file: no subsumption test ran
+        assertEquals(1, metrics.getCounter("nRestoredClassifications"));
+        assertEquals(0, metrics.getCounter("nSubCalls"));
+        assertTrue(metrics.getCounter("nRestoredCaches") > 0, metrics.getCounters().toString());
+        o.classesInSignature().forEach(c -> {
+            assertEquals(storing.getSuperClasses(c, true), restored.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(storing.getEquivalentClasses(c), restored.getEquivalentClasses(c),
+                c.toString());
+        });
+        storing.dispose();
+        restored.dispose();
+    }
+
+    @Test
+    void shouldRestorePunnedEntities() throws OWLOntologyCreationException {
+        String ns = "urn:test:store#";
+        OWLClass a = df.getOWLClass(ns, "A");
+        OWLClass b = df.getOWLClass(ns, "B");
+        OWLClass c = df.getOWLClass(ns, "C");
+        // A is also an individual and a property
+        OWLNamedIndividual ai = df.getOWLNamedIndividual(ns, "A");
+        OWLObjectProperty ap = df.getOWLObjectProperty(ns, "A");
+        OWLNamedIndividual x = df.getOWLNamedIndividual(ns, "x");
+        OWLOntology o = m.createOntology();
+        o.add(df.getOWLSubClassOfAxiom(a, b), df.getOWLSubClassOfAxiom(c, a),
+            df.getOWLClassAssertionAxiom(c, ai), df.getOWLObjectPropertyAssertionAxiom(ap, x, ai));
+        JFactReasoner storing = reasoner(o);
+        storing.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        JFactReasoner restored = reasoner(o);
+        restored.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertEquals(1, restored.getMetrics().getCounter("nRestoredClassifications"));
+        for (OWLClass e : Arrays.asList(a, b, c)) {
+            assertEquals(storing.getSuperClasses(e, true), restored.getSuperClasses(e, true),
+                e.toString());
+            assertEquals(storing.getSubClasses(e, true), restored.getSubClasses(e, true),
+                e.toString());
+            assertEquals(storing.getEquivalentClasses(e), restored.getEquivalentClasses(e),
+                e.toString());
+        }
+        assertEquals(Collections.singleton(a),
+            restored.getSuperClasses(c, true).entities().collect(Collectors.toSet()));
+        assertTrue(restored.getInstances(b, false).containsEntity(ai));
+        assertEquals(storing.getTypes(ai, true), restored.getTypes(ai, true));
+        storing.dispose();
+        restored.dispose();
+    }
+}
@@ -0,0 +1,74 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+
+class DataPropertyValuesTestCase extends TestBase {
+
+    private static final String NS = "urn:test:values#";
+
+    @Test
+    void shouldFindValuesOfSubProperties() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        OWLDataProperty measure = df.getOWLDataProperty(NS, "measure");
+        OWLDataProperty height = df.getOWLDataProperty(NS, "height");
+        OWLDataProperty tallness = df.getOWLDataProperty(NS, "tallness");
+        OWLDataProperty minimum = df.getOWLDataProperty(NS, "minimum");
+        OWLNamedIndividual a = df.getOWLNamedIndividual(NS, "a");
+        OWLNamedIndividual b = df.getOWLNamedIndividual(NS, "b");
+        OWLNamedIndividual c = df.getOWLNamedIndividual(NS, "c");
+        o.add(df.getOWLSubDataPropertyOfAxiom(height, measure),
+            df.getOWLEquivalentDataPropertiesAxiom(height, tallness),
+            df.getOWLDataPropertyAssertionAxiom(height, a, 180),
+            df.getOWLDataPropertyAssertionAxiom(measure, a, "tall"),
+            df.getOWLDataPropertyAssertionAxiom(minimum, a, 150),
+            df.getOWLDataPropertyAssertionAxiom(tallness, b, 120),
+            df.getOWLDataPropertyAssertionAxiom(minimum, b, 150),
+            df.getOWLSameIndividualAxiom(b, c));
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        assertEquals(new HashSet<>(Arrays.asList(df.getOWLLiteral(180), df.getOWLLiteral("tall"))),
+            r.getDataPropertyValues(a, measure));
+        assertEquals(Collections.singleton(df.getOWLLiteral(180)),
+            r.getDataPropertyValues(a, tallness));
+        assertEquals(Collections.singleton(df.getOWLLiteral(120)),
+            r.getDataPropertyValues(c, height));
+        assertTrue(r.getDataPropertyValues(b, minimum).contains(df.getOWLLiteral(150)));
+        // individuals taller than their minimum
+        assertEquals(Collections.singleton(a),
+            r.getDataRelatedIndividuals(Stream.of(a, b), height, minimum, 4).entities()
+                .collect(Collectors.toSet()));
+        r.dispose();
+    }
+
+    @Test
+    void shouldKeepTypedValuesEndingWithAt() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        OWLDataProperty label = df.getOWLDataProperty(NS, "label");
+        OWLNamedIndividual a = df.getOWLNamedIndividual(NS, "a");
+        OWLLiteral token = df.getOWLLiteral("tag@", OWL2Datatype.XSD_TOKEN);
+        OWLLiteral tagged = df.getOWLLiteral("name", "en");
+        o.add(df.getOWLDataPropertyAssertionAxiom(label, a, token),
+            df.getOWLDataPropertyAssertionAxiom(label, a, tagged));
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        assertEquals(new HashSet<>(Arrays.asList(token, tagged)),
+            r.getDataPropertyValues(a, label));
+        r.dispose();
+    }
+}
@@ -0,0 +1,50 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+
+class DepSetTestCase {
+
+    @Test
+    void shouldBehaveAsBitmaps() {
+        Random r = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            RoaringBitmap b1 = random(r);
+            RoaringBitmap b2 = random(r);
+            DepSet d1 = DepSet.create(b1);
+            DepSet d2 = DepSet.create(b2);
+            RoaringBitmap union = RoaringBitmap.or(b1, b2);
+            DepSet plus = DepSet.plus(d1, d2);
+            assertEquals(DepSet.create(union), plus);
+            assertEquals(union.isEmpty() ? 0 : union.getReverseIntIterator().next(), plus.level());
+            int level = r.nextInt(10);
+            RoaringBitmap restricted = new RoaringBitmap();
+            for (int i : union) {
+                if (i < level) {
+                    restricted.add(i);
+                }
+            }
+            plus.restrict(level);
+            assertEquals(DepSet.create(restricted), plus);
+            assertEquals(restricted.isEmpty(), plus.isEmpty());
+            d1.add(d2);
+            assertEquals(DepSet.create(union), d1);
+            assertEquals(DepSet.create(union).hashCode(), d1.hashCode());
+        }
+    }
+
+    private static RoaringBitmap random(Random r) {
+        RoaringBitmap b = new RoaringBitmap();
+        int n = r.nextInt(6);
+        for (int i = 0; i < n; i++) {
+            b.add(r.nextInt(10));
+        }
+        return b;
+    }
+}
@@ -0,0 +1,61 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ELSaturationTestCase extends TestBase {
+
+    private static final String INPUT = "Prefix(:=<urn:test#>)\n"
+        + "Ontology(<urn:test>\n"
+        + "TransitiveObjectProperty(:partOf)\n"
+        + "SubObjectPropertyOf(:directPartOf :partOf)\n"
+        + "ObjectPropertyRange(:partOf :Structure)\n"
+        + "SubClassOf(:Finger ObjectSomeValuesFrom(:directPartOf :Hand))\n"
+        + "SubClassOf(:Hand ObjectSomeValuesFrom(:directPartOf :Arm))\n"
+        + "SubClassOf(:Arm :Limb)\n"
+        + "EquivalentClasses(:ArmPart ObjectSomeValuesFrom(:partOf :Arm))\n"
+        + "EquivalentClasses(:LimbPart ObjectSomeValuesFrom(:partOf :Limb))\n"
+        + "EquivalentClasses(:StructurePart ObjectSomeValuesFrom(:partOf :Structure))\n"
+        + "SubClassOf(ObjectIntersectionOf(:Limb :Structure) :LimbStructure)\n"
+        + "EquivalentClasses(:LimbStructurePart ObjectSomeValuesFrom(:partOf :LimbStructure))\n"
+        + "SubClassOf(:Thumb :Finger)\n"
+        + "EquivalentClasses(:Pollex :Thumb)\n"
+        + "DisjointClasses(:Hand :Limb)\n"
+        + "SubClassOf(:Impossible ObjectIntersectionOf(:Hand :Arm))\n"
+        + ")";
+
+    @Test
+    void shouldBuildSameHierarchyAsTableau() throws OWLOntologyCreationException {
+        OWLOntology o = m.loadOntologyFromOntologyDocument(new StringDocumentSource(INPUT));
+        OWLReasoner tableau = factory().createReasoner(o, new JFactReasonerConfiguration());
+        JFactReasoner el = (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setUseELReasoner(true));
+        tableau.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        el.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        // every concept was classified by saturation, none by subsumption tests
+        ReasoningMetrics metrics = el.getMetrics();
+        assertTrue(metrics.getCounter("nELClassified") > 0, metrics.getCounters().toString());
+        assertEquals(0, metrics.getCounter("nSubCalls"));
+        o.classesInSignature().forEach(c -> {
+            assertEquals(tableau.getSuperClasses(c, true), el.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(tableau.getSubClasses(c, true), el.getSubClasses(c, true), c.toString());
+            assertEquals(tableau.getEquivalentClasses(c), el.getEquivalentClasses(c),
+                c.toString());
+        });
+        tableau.dispose();
+        el.dispose();
+    }
+}
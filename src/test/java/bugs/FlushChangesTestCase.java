@@ -0,0 +1,68 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics.Phase;
+
+class FlushChangesTestCase extends TestBase {
+
+    private static final String NS = "urn:test:flush#";
+
+    @Test
+    void shouldDropChangesThatCancelOut() throws OWLOntologyCreationException {
+        OWLClass a = df.getOWLClass(NS, "A");
+        OWLClass b = df.getOWLClass(NS, "B");
+        OWLClass x = df.getOWLClass(NS, "X");
+        OWLOntology o = m.createOntology();
+        o.add(df.getOWLSubClassOfAxiom(a, b));
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        r.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        long preprocessing = r.getMetrics().getPhaseNanos(Phase.PREPROCESSING);
+        OWLAxiom added = df.getOWLSubClassOfAxiom(x, a);
+        o.add(added);
+        o.remove(added);
+        m.applyChange(new AddOntologyAnnotation(o,
+            df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("not an axiom"))));
+        r.flush();
+        r.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        // nothing reached the kernel: the TBox was not reloaded
+        assertEquals(preprocessing, r.getMetrics().getPhaseNanos(Phase.PREPROCESSING));
+        assertFalse(r.getEquivalentClasses(x).contains(x));
+        r.dispose();
+    }
+
+    @Test
+    void shouldForgetEntitiesWithNoAxiomsLeft() throws OWLOntologyCreationException {
+        OWLClass a = df.getOWLClass(NS, "A");
+        OWLClass b = df.getOWLClass(NS, "B");
+        OWLClass x = df.getOWLClass(NS, "X");
+        OWLAxiom xa = df.getOWLSubClassOfAxiom(x, a);
+        OWLAxiom xb = df.getOWLSubClassOfAxiom(x, b);
+        OWLOntology o = m.createOntology();
+        o.add(xa, xb);
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        assertTrue(r.getEquivalentClasses(x).contains(x));
+        o.remove(xa);
+        r.flush();
+        // still referred to by the other axiom
+        assertTrue(r.getEquivalentClasses(x).contains(x));
+        assertTrue(r.getSuperClasses(x, true).containsEntity(b));
+        assertFalse(r.getSuperClasses(x, true).containsEntity(a));
+        o.remove(xb);
+        r.flush();
+        assertFalse(r.getEquivalentClasses(x).contains(x));
+        r.dispose();
+    }
+}
@@ -0,0 +1,53 @@
+package bugs;
+
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class IncrementalReclassificationTestCase extends TestBase {
+
+    private static final String NS = "urn:test:incremental#";
+
+    @Test
+    void shouldReclassifyOnlyChangedEntries() throws OWLOntologyCreationException {
+        OWLClass a = df.getOWLClass(NS, "A");
+        OWLClass b = df.getOWLClass(NS, "B");
+        OWLClass c = df.getOWLClass(NS, "C");
+        OWLClass d = df.getOWLClass(NS, "D");
+        OWLClass e = df.getOWLClass(NS, "E");
+        OWLOntology o = m.createOntology();
+        o.add(df.getOWLSubClassOfAxiom(a, b), df.getOWLSubClassOfAxiom(b, c),
+            df.getOWLSubClassOfAxiom(d, c), df.getOWLSubClassOfAxiom(e, d));
+        JFactReasoner incremental = (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setUseIncrementalReasoning(true));
+        incremental.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertEquals(0, incremental.getMetrics().getCounter("nIncrementalPlus"));
+        o.add(df.getOWLSubClassOfAxiom(a, d));
+        incremental.flush();
+        incremental.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        // the taxonomy was carried over and only the changed module reclassified
+        assertTrue(incremental.getMetrics().getCounter("nIncrementalPlus") > 0);
+        assertEquals(new HashSet<>(Arrays.asList(b, d)),
+            incremental.getSuperClasses(a, true).entities().collect(toSet()));
+        OWLReasoner fresh = factory().createReasoner(o);
+        o.classesInSignature().forEach(x -> assertEquals(fresh.getSuperClasses(x, true),
+            incremental.getSuperClasses(x, true), x.toString()));
+        assertTrue(incremental.getSubClasses(d, false).containsEntity(e));
+        fresh.dispose();
+        incremental.dispose();
+    }
+}
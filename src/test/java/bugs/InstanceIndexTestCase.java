@@ -0,0 +1,119 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+
+class InstanceIndexTestCase extends TestBase {
+
+    private static final String NS = "urn:test:instances#";
+    private OWLClass a;
+    private OWLClass b;
+    private OWLClass c;
+    private OWLClass d;
+    private OWLNamedIndividual i;
+    private OWLNamedIndividual j;
+    private OWLNamedIndividual k;
+
+    @BeforeEach
+    void setupEntities() {
+        a = df.getOWLClass(NS, "A");
+        b = df.getOWLClass(NS, "B");
+        c = df.getOWLClass(NS, "C");
+        d = df.getOWLClass(NS, "D");
+        i = df.getOWLNamedIndividual(NS, "i");
+        j = df.getOWLNamedIndividual(NS, "j");
+        k = df.getOWLNamedIndividual(NS, "k");
+    }
+
+    private OWLOntology ontology() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        o.add(df.getOWLSubClassOfAxiom(a, b), df.getOWLSubClassOfAxiom(b, c),
+            df.getOWLSubClassOfAxiom(d, c), df.getOWLClassAssertionAxiom(a, i),
+            df.getOWLClassAssertionAxiom(d, j), df.getOWLSameIndividualAxiom(j, k));
+        return o;
+    }
+
+    @SafeVarargs
+    private static <T extends OWLObject> Set<T> set(T... elements) {
+        return new HashSet<>(Arrays.asList(elements));
+    }
+
+    private static <T extends OWLObject> Set<T> set(NodeSet<T> nodes) {
+        return nodes.entities().collect(Collectors.toSet());
+    }
+
+    private static long indexBuilds(JFactReasoner r) {
+        return r.getMetrics().getCounter("nInstanceIndexBuilds");
+    }
+
+    @Test
+    void shouldAnswerFromIndex() throws OWLOntologyCreationException {
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(ontology());
+        assertEquals(0, indexBuilds(r));
+        assertEquals(set(i, j, k), set(r.getInstances(c, false)));
+        assertEquals(1, indexBuilds(r));
+        assertEquals(set(i), set(r.getInstances(b, false)));
+        assertEquals(set(j, k), set(r.getInstances(d, false)));
+        assertEquals(set(a, b, c, df.getOWLThing()), set(r.getTypes(i, false)));
+        assertEquals(set(d, c, df.getOWLThing()), set(r.getTypes(k, false)));
+        // a query vertex outside the taxonomy uses the bitmaps of its neighbours
+        assertEquals(set(i, j, k),
+            set(r.getInstances(df.getOWLObjectUnionOf(b, d), false)));
+        assertEquals(set(j, k),
+            set(r.getInstances(df.getOWLObjectIntersectionOf(c, df.getOWLObjectComplementOf(b)),
+                false)));
+        // all the queries used the same index
+        assertEquals(1, indexBuilds(r));
+        r.dispose();
+    }
+
+    @Test
+    void shouldDropIndexWhenReclassified() throws OWLOntologyCreationException {
+        OWLOntology o = ontology();
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        assertEquals(set(i), set(r.getInstances(b, false)));
+        assertEquals(1, indexBuilds(r));
+        o.add(df.getOWLSubClassOfAxiom(d, b));
+        r.flush();
+        // the reload clears the index together with the other query caches
+        assertTrue(r.isConsistent());
+        assertEquals(set(i, j, k), set(r.getInstances(b, false)));
+        assertEquals(2, indexBuilds(r));
+        assertEquals(set(d, b, c, df.getOWLThing()), set(r.getTypes(j, false)));
+        assertEquals(2, indexBuilds(r));
+        r.dispose();
+    }
+
+    @Test
+    void shouldDropIndexWhenIndividualsChange() throws OWLOntologyCreationException {
+        OWLOntology o = ontology();
+        JFactReasoner r = (JFactReasoner) factory().createReasoner(o);
+        assertEquals(set(i, j, k), set(r.getInstances(c, false)));
+        assertEquals(1, indexBuilds(r));
+        OWLNamedIndividual l = df.getOWLNamedIndividual(NS, "l");
+        o.add(df.getOWLClassAssertionAxiom(b, l));
+        r.flush();
+        assertTrue(r.isConsistent());
+        assertEquals(set(i, j, k, l), set(r.getInstances(c, false)));
+        assertEquals(set(b, c, df.getOWLThing()), set(r.getTypes(l, false)));
+        assertEquals(2, indexBuilds(r));
+        r.dispose();
+    }
+}
@@ -0,0 +1,154 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.manchester.cs.jfact.dep.DepSet;
+import uk.ac.manchester.cs.jfact.helpers.LabelIndex;
+import uk.ac.manchester.cs.jfact.kernel.CGLabel;
+import uk.ac.manchester.cs.jfact.kernel.CWDArray;
+import uk.ac.manchester.cs.jfact.kernel.ConceptWDep;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class LabelIndexTestCase {
+
+    private static CGLabel label(boolean dynamicBackjumping) {
+        return new CGLabel(
+            new JFactReasonerConfiguration().setUseDynamicBackjumping(dynamicBackjumping));
+    }
+
+    private static void add(CGLabel label, List<ConceptWDep> expected, int bp, int level) {
+        ConceptWDep p = new ConceptWDep(bp, level == 0 ? DepSet.create() : DepSet.create(level));
+        label.add(false, p);
+        expected.add(p);
+    }
+
+    /** expected content of a label restored to level from save level ss */
+    private static List<ConceptWDep> restored(List<ConceptWDep> before, int ss, int level,
+        boolean dynamicBackjumping) {
+        List<ConceptWDep> toReturn = new ArrayList<>(before.subList(0, ss));
+        if (dynamicBackjumping) {
+            for (ConceptWDep p : before.subList(ss, before.size())) {
+                if (p.getDep().level() < level) {
+                    toReturn.add(p);
+                }
+            }
+        }
+        return toReturn;
+    }
+
+    private static void check(List<ConceptWDep> expected, CWDArray label) {
+        assertEquals(expected.size(), label.size());
+        assertEquals(expected, label.getBase());
+        LabelIndex index = label.getContainedConcepts();
+        assertEquals(expected.size(), index.size());
+        for (int i = 0; i < expected.size(); i++) {
+            int bp = expected.get(i).getConcept();
+            assertEquals(bp, index.keyAt(i));
+            assertEquals(i, label.index(bp));
+            assertTrue(label.contains(bp));
+            assertSame(expected.get(i), label.getConceptWithBP(bp));
+        }
+    }
+
+    private static void checkAbsent(CWDArray label, int bp) {
+        assertFalse(label.contains(bp));
+        assertEquals(-1, label.index(bp));
+        assertNull(label.getConceptWithBP(bp));
+        assertNull(label.get(bp));
+    }
+
+    @Test
+    void shouldMoveKeptEntriesDownOnRestore() {
+        CGLabel label = label(true);
+        CWDArray sc = label.getLabel(false);
+        List<ConceptWDep> expected = new ArrayList<>();
+        for (int bp = 1; bp <= 4; bp++) {
+            add(label, expected, bp, 0);
+        }
+        int saved = sc.save();
+        // enough entries to rehash the index, at levels 1 to 5
+        for (int i = 5; i <= 40; i++) {
+            add(label, expected, i % 2 == 0 ? -i : i, i % 5 + 1);
+        }
+        check(expected, sc);
+        List<ConceptWDep> before = expected;
+        expected = restored(before, saved, 3, true);
+        sc.restore(saved, 3);
+        // the 8 entries of level 1 and the 7 of level 2 are kept, in their order
+        assertEquals(4 + 8 + 7, expected.size());
+        check(expected, sc);
+        List<ConceptWDep> dropped = new ArrayList<>(before);
+        dropped.removeAll(expected);
+        assertEquals(36 - 8 - 7, dropped.size());
+        for (ConceptWDep p : dropped) {
+            assertTrue(p.getDep().level() >= 3);
+            checkAbsent(sc, p.getConcept());
+        }
+        // a dropped concept goes back to the end of the label
+        add(label, expected, dropped.get(0).getConcept(), 1);
+        check(expected, sc);
+        // restoring below all dependency levels drops the tail
+        sc.restore(saved, 0);
+        check(expected.subList(0, saved), sc);
+    }
+
+    @Test
+    void shouldTruncateWithoutDynamicBackjumping() {
+        CGLabel label = label(false);
+        CWDArray sc = label.getLabel(false);
+        List<ConceptWDep> expected = new ArrayList<>();
+        add(label, expected, 7, 0);
+        int saved = sc.save();
+        for (int bp = 8; bp < 30; bp++) {
+            add(label, expected, bp, 1);
+        }
+        sc.restore(saved, 5);
+        check(expected.subList(0, saved), sc);
+        for (int bp = 8; bp < 30; bp++) {
+            checkAbsent(sc, bp);
+        }
+    }
+
+    @Test
+    void shouldBehaveAsList() {
+        Random r = new Random(42);
+        for (boolean dynamicBackjumping : new boolean[] {true, false}) {
+            for (int round = 0; round < 200; round++) {
+                CGLabel label = label(dynamicBackjumping);
+                CWDArray sc = label.getLabel(false);
+                List<ConceptWDep> expected = new ArrayList<>();
+                List<Integer> saves = new ArrayList<>();
+                for (int step = 0; step < 100; step++) {
+                    int op = r.nextInt(10);
+                    if (op < 6) {
+                        int bp = r.nextInt(200) - 100;
+                        if (bp != 0 && !expected.contains(new ConceptWDep(bp))) {
+                            add(label, expected, bp, r.nextInt(6));
+                        }
+                    } else if (op < 8) {
+                        saves.add(Integer.valueOf(sc.save()));
+                    } else if (!saves.isEmpty()) {
+                        // the saves taken after the restored one are undone with it
+                        int k = r.nextInt(saves.size());
+                        int ss = saves.get(k).intValue();
+                        saves.subList(k, saves.size()).clear();
+                        int level = r.nextInt(7);
+                        expected = restored(expected, ss, level, dynamicBackjumping);
+                        sc.restore(ss, level);
+                    }
+                    check(expected, sc);
+                }
+            }
+        }
+    }
+}
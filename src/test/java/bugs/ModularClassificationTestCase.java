@@ -0,0 +1,84 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ModularClassificationTestCase extends TestBase {
+
+    private static final String NS = "urn:test:modules#";
+
+    private OWLOntology ontology() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology(IRI.create("urn:test:modules"));
+        OWLObjectProperty part = df.getOWLObjectProperty(NS, "partOf");
+        // a filler with an empty module, shared by all the groups
+        OWLClass whole = df.getOWLClass(NS, "Whole");
+        for (int i = 0; i < 5; i++) {
+            OWLClass a = df.getOWLClass(NS, "A" + i);
+            OWLClass b = df.getOWLClass(NS, "B" + i);
+            OWLClass c = df.getOWLClass(NS, "C" + i);
+            OWLClass d = df.getOWLClass(NS, "D" + i);
+            o.add(df.getOWLSubClassOfAxiom(b, a));
+            o.add(df.getOWLEquivalentClassesAxiom(c,
+                df.getOWLObjectIntersectionOf(b, df.getOWLObjectSomeValuesFrom(part, whole))));
+            o.add(df.getOWLSubClassOfAxiom(d, df.getOWLObjectIntersectionOf(c,
+                df.getOWLObjectAllValuesFrom(part, df.getOWLObjectComplementOf(whole)))));
+        }
+        return o;
+    }
+
+    private JFactReasoner modular(OWLOntology o) {
+        return (JFactReasoner) factory().createReasoner(o, new JFactReasonerConfiguration()
+            .setUseModularClassification(true).setClassificationWorkers(2));
+    }
+
+    @Test
+    void shouldClassifyEveryGroupApart() throws OWLOntologyCreationException {
+        OWLOntology o = ontology();
+        JFactReasoner modular = modular(o);
+        modular.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        // one group for each index; Whole is in no module
+        assertEquals(5, modular.getMetrics().getCounter("nModuleGroups"));
+        assertEquals(5, modular.getMetrics().getCounter("nClassifiedModuleGroups"));
+        o.add(df.getOWLSubClassOfAxiom(df.getOWLClass(NS, "E0"), df.getOWLClass(NS, "D0")));
+        modular.flush();
+        modular.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        // only the changed group is classified again
+        assertEquals(5, modular.getMetrics().getCounter("nModuleGroups"));
+        assertEquals(1, modular.getMetrics().getCounter("nClassifiedModuleGroups"));
+        assertTrue(modular.getSuperClasses(df.getOWLClass(NS, "E0"), false)
+            .containsEntity(df.getOWLClass(NS, "A0")));
+        modular.dispose();
+    }
+
+    @Test
+    void shouldBuildSameHierarchyByModules() throws OWLOntologyCreationException {
+        OWLOntology o = ontology();
+        OWLReasoner plain = factory().createReasoner(o, new JFactReasonerConfiguration());
+        JFactReasoner modular = modular(o);
+        plain.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        modular.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertTrue(modular.getMetrics().getCounter("nModuleGroups") > 1);
+        o.classesInSignature().forEach(c -> {
+            assertEquals(plain.getSuperClasses(c, true), modular.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(plain.getEquivalentClasses(c), modular.getEquivalentClasses(c),
+                c.toString());
+        });
+        assertEquals(plain.getUnsatisfiableClasses(), modular.getUnsatisfiableClasses());
+        plain.dispose();
+        modular.dispose();
+    }
+}
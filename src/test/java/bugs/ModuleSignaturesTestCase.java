@@ -0,0 +1,67 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapitools.decomposition.AxiomWrapper;
+import org.semanticweb.owlapitools.decomposition.Decomposer;
+import org.semanticweb.owlapitools.decomposition.Signature;
+import org.semanticweb.owlapitools.decomposition.SyntacticLocalityChecker;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ModuleSignatures;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+
+class ModuleSignaturesTestCase extends TestBase {
+
+    private static List<AxiomWrapper> wrappers(OWLOntology o) {
+        List<AxiomWrapper> toReturn = new ArrayList<>();
+        for (OWLAxiom ax : JFactReasoner.importsIncluded(o)) {
+            if (ax.isLogicalAxiom()) {
+                AxiomWrapper w = new AxiomWrapper(ax);
+                w.setId(toReturn.size() + 1);
+                w.setUsed(true);
+                toReturn.add(w);
+            }
+        }
+        return toReturn;
+    }
+
+    private static Map<OWLEntity, Set<OWLEntity>> symbols(Map<OWLEntity, Signature> sigs) {
+        Map<OWLEntity, Set<OWLEntity>> toReturn = new HashMap<>();
+        sigs.forEach((e, s) -> toReturn.put(e, new HashSet<>(s.getSignature())));
+        return toReturn;
+    }
+
+    @Test
+    void shouldComputeSameSignaturesOnWorkers() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        List<OWLEntity> entities = new ArrayList<>();
+        o.classesInSignature().forEach(entities::add);
+        // one module at a time, on the calling thread
+        Decomposer decomposer = new Decomposer(wrappers(o), new SyntacticLocalityChecker());
+        Map<OWLEntity, Set<OWLEntity>> expected = new HashMap<>();
+        for (OWLEntity e : entities) {
+            decomposer.getModule(Stream.of(e), false, ModuleType.BOT);
+            expected.put(e,
+                new HashSet<>(decomposer.getModularizer().getSignature().getSignature()));
+        }
+        assertEquals(expected,
+            symbols(new ModuleSignatures(wrappers(o), 1).compute(entities)));
+        assertEquals(expected,
+            symbols(new ModuleSignatures(wrappers(o), 4).compute(entities)));
+    }
+}
@@ -0,0 +1,44 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ParallelClassificationTestCase extends TestBase {
+
+    @Test
+    void shouldBuildModelCachesOnWorkers() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        OWLReasoner sequential = factory().createReasoner(o, new JFactReasonerConfiguration());
+        JFactReasoner parallel = (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setUseParallelClassification(true)
+                .setClassificationWorkers(4));
+        sequential.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        parallel.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        ReasoningMetrics metrics = parallel.getMetrics();
+        assertEquals(4, metrics.getCounter("nClassificationWorkers"));
+        // every satisfiable concept gets a positive and a negated cache
+        long concepts = o.classesInSignature().count();
+        assertTrue(metrics.getCounter("nParallelCaches") > concepts / 2,
+            metrics.getCounters().toString());
+        assertEquals(sequential.getUnsatisfiableClasses(), parallel.getUnsatisfiableClasses());
+        o.classesInSignature().forEach(c -> {
+            assertEquals(sequential.getSuperClasses(c, true), parallel.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(sequential.getEquivalentClasses(c), parallel.getEquivalentClasses(c),
+                c.toString());
+        });
+        sequential.dispose();
+        parallel.dispose();
+    }
+}
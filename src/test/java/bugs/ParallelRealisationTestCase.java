@@ -0,0 +1,71 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ParallelRealisationTestCase extends TestBase {
+
+    private static final String NS = "urn:test:realisation#";
+
+    @Test
+    void shouldFindSameTypesAsSequentialRealisation() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology(IRI.create("urn:test:realisation"));
+        OWLClass person = df.getOWLClass(NS, "Person");
+        OWLClass parent = df.getOWLClass(NS, "Parent");
+        OWLClass grandparent = df.getOWLClass(NS, "Grandparent");
+        OWLObjectProperty hasChild = df.getOWLObjectProperty(NS, "hasChild");
+        o.add(df.getOWLEquivalentClassesAxiom(parent, df.getOWLObjectIntersectionOf(person,
+            df.getOWLObjectSomeValuesFrom(hasChild, person))));
+        o.add(df.getOWLEquivalentClassesAxiom(grandparent, df.getOWLObjectIntersectionOf(person,
+            df.getOWLObjectSomeValuesFrom(hasChild, parent))));
+        o.add(df.getOWLObjectPropertyRangeAxiom(hasChild, person));
+        for (int i = 0; i < 100; i++) {
+            OWLNamedIndividual a = df.getOWLNamedIndividual(NS, "a" + i);
+            OWLNamedIndividual b = df.getOWLNamedIndividual(NS, "b" + i);
+            OWLNamedIndividual c = df.getOWLNamedIndividual(NS, "c" + i);
+            o.add(df.getOWLClassAssertionAxiom(person, a));
+            if (i % 3 > 0) {
+                o.add(df.getOWLObjectPropertyAssertionAxiom(hasChild, a, b));
+                o.add(df.getOWLClassAssertionAxiom(person, b));
+            }
+            if (i % 3 > 1) {
+                o.add(df.getOWLObjectPropertyAssertionAxiom(hasChild, b, c));
+            }
+            if (i % 5 == 0) {
+                o.add(df.getOWLDifferentIndividualsAxiom(a, c));
+            }
+        }
+        OWLReasoner sequential = factory().createReasoner(o, new JFactReasonerConfiguration());
+        JFactReasoner parallel = (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setUseParallelRealisation(true)
+                .setClassificationWorkers(4));
+        sequential.precomputeInferences(InferenceType.CLASS_ASSERTIONS);
+        parallel.precomputeInferences(InferenceType.CLASS_ASSERTIONS);
+        ReasoningMetrics metrics = parallel.getMetrics();
+        assertTrue(metrics.getCounter("nRealisationWorkers") > 1, metrics.getCounters().toString());
+        assertTrue(metrics.getCounter("nRealisationComponents") > 1);
+        // no individual is merged: all of them are realised on the workers
+        assertEquals(o.individualsInSignature().count(), metrics.getCounter("nParallelRealised"));
+        o.individualsInSignature().forEach(i -> assertEquals(sequential.getTypes(i, true),
+            parallel.getTypes(i, true), i.toString()));
+        o.classesInSignature().forEach(c -> assertEquals(sequential.getInstances(c, false),
+            parallel.getInstances(c, false), c.toString()));
+        sequential.dispose();
+        parallel.dispose();
+    }
+}
@@ -0,0 +1,42 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+
+class QueryCacheTestCase extends TestBase {
+
+    @Test
+    void shouldAnswerAlternatingQueriesFromCache() throws OWLOntologyCreationException {
+        OWLClass a = df.getOWLClass(IRI.create("urn:test#A"));
+        OWLClass b = df.getOWLClass(IRI.create("urn:test#B"));
+        OWLClass c = df.getOWLClass(IRI.create("urn:test#C"));
+        OWLObjectProperty r = df.getOWLObjectProperty(IRI.create("urn:test#r"));
+        OWLOntology o = m.createOntology();
+        o.addAxiom(df.getOWLSubClassOfAxiom(a, b));
+        o.addAxiom(df.getOWLSubClassOfAxiom(c, df.getOWLObjectSomeValuesFrom(r, a)));
+        JFactReasoner reasoner = (JFactReasoner) factory().createReasoner(o);
+        OWLClassExpression q1 = df.getOWLObjectSomeValuesFrom(r, b);
+        OWLClassExpression q2 = df.getOWLObjectIntersectionOf(a, b);
+        NodeSet<OWLClass> sub1 = reasoner.getSubClasses(q1, false);
+        NodeSet<OWLClass> sub2 = reasoner.getSubClasses(q2, false);
+        long misses = reasoner.getQueryCache().getMisses();
+        assertEquals(sub1, reasoner.getSubClasses(q1, false));
+        assertEquals(sub2, reasoner.getSubClasses(q2, false));
+        assertTrue(reasoner.getSubClasses(q1, false).containsEntity(c));
+        assertEquals(misses, reasoner.getQueryCache().getMisses());
+        assertTrue(reasoner.getQueryCache().getHits() >= 3);
+        reasoner.dispose();
+    }
+}
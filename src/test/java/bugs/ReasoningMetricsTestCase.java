@@ -0,0 +1,61 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics.Phase;
+import uk.ac.manchester.cs.jfact.kernel.ReasoningMetrics.PreprocessingStep;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class ReasoningMetricsTestCase extends TestBase {
+
+    @Test
+    void shouldReportPhasesAndCounters() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        JFactReasoner reasoner = (JFactReasoner) factory().createReasoner(o);
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        ReasoningMetrics metrics = reasoner.getMetrics();
+        assertTrue(metrics.getPhaseNanos(Phase.PREPROCESSING) > 0);
+        assertTrue(metrics.getPhaseNanos(Phase.DAG_BUILD) > 0);
+        assertTrue(
+            metrics.getPhaseNanos(Phase.PREPROCESSING) >= metrics.getPhaseNanos(Phase.DAG_BUILD));
+        assertTrue(metrics.getPhaseNanos(Phase.CLASSIFICATION) > 0);
+        assertTrue(metrics.getCounter("nTacticCalls") > 0);
+        assertTrue(metrics.getCounter("nTacticCalls") >= metrics.getCounter("nOrCalls"));
+        assertTrue(metrics.getModelCacheHitRate() >= 0 && metrics.getModelCacheHitRate() <= 1);
+        reasoner.dispose();
+    }
+
+    @Test
+    void shouldReportPreprocessingStepsWhenRunInParallel() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        OWLReasoner plain = factory().createReasoner(o);
+        JFactReasoner parallel = (JFactReasoner) factory().createReasoner(o,
+            new JFactReasonerConfiguration().setUseParallelPreprocessing(true)
+                .setClassificationWorkers(4));
+        plain.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        parallel.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        o.classesInSignature().forEach(c -> assertEquals(plain.getSuperClasses(c, true),
+            parallel.getSuperClasses(c, true), c.toString()));
+        ReasoningMetrics metrics = parallel.getMetrics();
+        assertTrue(metrics.getPreprocessingNanos(PreprocessingStep.DAG_BUILD) > 0);
+        assertEquals(metrics.getPhaseNanos(Phase.DAG_BUILD),
+            metrics.getPreprocessingNanos(PreprocessingStep.DAG_BUILD));
+        assertTrue(metrics.getPreprocessingItems(PreprocessingStep.TOLD_SUBSUMERS) > 0);
+        assertTrue(metrics.getPreprocessingItems(PreprocessingStep.DAG_BUILD) > 0);
+        long steps = metrics.getPreprocessingNanos().values().stream().mapToLong(Long::longValue)
+            .sum();
+        assertTrue(steps <= metrics.getPhaseNanos(Phase.PREPROCESSING));
+        plain.dispose();
+        parallel.dispose();
+    }
+}
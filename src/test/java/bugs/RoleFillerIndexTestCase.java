@@ -0,0 +1,93 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import testbase.TestBase;
+
+class RoleFillerIndexTestCase extends TestBase {
+
+    private static final String NS = "urn:test:fillers#";
+
+    private OWLOntology ontology(boolean withNumberRestriction)
+        throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        OWLObjectProperty partOf = df.getOWLObjectProperty(NS, "partOf");
+        OWLObjectProperty directPartOf = df.getOWLObjectProperty(NS, "directPartOf");
+        OWLObjectProperty locatedIn = df.getOWLObjectProperty(NS, "locatedIn");
+        o.add(df.getOWLTransitiveObjectPropertyAxiom(partOf));
+        o.add(df.getOWLSubObjectPropertyOfAxiom(directPartOf, partOf));
+        o.add(df.getOWLSubPropertyChainOfAxiom(Arrays.asList(locatedIn, partOf), locatedIn));
+        for (int i = 0; i < 10; i++) {
+            OWLNamedIndividual a = df.getOWLNamedIndividual(NS, "p" + i);
+            OWLNamedIndividual b = df.getOWLNamedIndividual(NS, "p" + (i + 1));
+            o.add(df.getOWLObjectPropertyAssertionAxiom(directPartOf, a, b));
+            if (i % 4 == 0) {
+                o.add(df.getOWLObjectPropertyAssertionAxiom(locatedIn,
+                    df.getOWLNamedIndividual(NS, "x" + i), a));
+            }
+        }
+        o.add(df.getOWLSameIndividualAxiom(df.getOWLNamedIndividual(NS, "p10"),
+            df.getOWLNamedIndividual(NS, "end")));
+        if (withNumberRestriction) {
+            // irrelevant to the fillers, but role assertions no longer follow from told ones only
+            o.add(df.getOWLSubClassOfAxiom(df.getOWLClass(NS, "Z"),
+                df.getOWLObjectMaxCardinality(1, df.getOWLObjectProperty(NS, "q"))));
+        }
+        return o;
+    }
+
+    @Test
+    void shouldFindSameFillersAsInstanceRetrieval() throws OWLOntologyCreationException {
+        OWLOntology indexed = ontology(false);
+        OWLOntology queried = ontology(true);
+        OWLReasoner r1 = factory().createReasoner(indexed);
+        OWLReasoner r2 = factory().createReasoner(queried);
+        indexed.objectPropertiesInSignature().forEach(p -> {
+            for (OWLObjectPropertyExpression pe : Arrays.asList(p, p.getInverseProperty())) {
+                indexed.individualsInSignature()
+                    .forEach(i -> assertEquals(r2.getObjectPropertyValues(i, pe),
+                        r1.getObjectPropertyValues(i, pe), i + " " + pe));
+            }
+        });
+        OWLObjectProperty locatedIn = df.getOWLObjectProperty(NS, "locatedIn");
+        assertTrue(r1.getObjectPropertyValues(df.getOWLNamedIndividual(NS, "x0"), locatedIn)
+            .containsEntity(df.getOWLNamedIndividual(NS, "end")));
+        r1.dispose();
+        r2.dispose();
+    }
+
+    @Test
+    void shouldFindFillersOfReflexiveSubRoles() throws OWLOntologyCreationException {
+        OWLOntology o = m.createOntology();
+        OWLObjectProperty s = df.getOWLObjectProperty(NS, "s");
+        OWLObjectProperty r = df.getOWLObjectProperty(NS, "r");
+        OWLNamedIndividual a = df.getOWLNamedIndividual(NS, "a");
+        OWLNamedIndividual b = df.getOWLNamedIndividual(NS, "b");
+        o.add(df.getOWLReflexiveObjectPropertyAxiom(s), df.getOWLSubObjectPropertyOfAxiom(s, r),
+            df.getOWLObjectPropertyAssertionAxiom(r, a, b));
+        OWLReasoner reasoner = factory().createReasoner(o);
+        // every individual is an s-filler, hence an r-filler, of itself
+        assertEquals(new HashSet<>(Arrays.asList(a, b)),
+            reasoner.getObjectPropertyValues(a, r).entities().collect(Collectors.toSet()));
+        assertEquals(Collections.singleton(b),
+            reasoner.getObjectPropertyValues(b, r).entities().collect(Collectors.toSet()));
+        assertEquals(Collections.singleton(a),
+            reasoner.getObjectPropertyValues(a, s).entities().collect(Collectors.toSet()));
+        reasoner.dispose();
+    }
+}
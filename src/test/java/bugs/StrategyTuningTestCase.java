@@ -0,0 +1,67 @@
+package bugs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+
+import testbase.TestBase;
+import uk.ac.manchester.cs.jfact.JFactReasoner;
+import uk.ac.manchester.cs.jfact.kernel.options.JFactReasonerConfiguration;
+
+class StrategyTuningTestCase extends TestBase {
+
+    @TempDir
+    File directory;
+
+    private JFactReasoner reasoner(OWLOntology o, JFactReasonerConfiguration config) {
+        return (JFactReasoner) factory().createReasoner(o, config);
+    }
+
+    private JFactReasonerConfiguration tuning() {
+        return new JFactReasonerConfiguration().setUseStrategyTuning(true)
+            .setStrategyProfileDirectory(directory);
+    }
+
+    @Test
+    void shouldReuseStoredProfile() throws OWLOntologyCreationException {
+        OWLOntology o = asString(m, "/AF_miniTambis.owl.xml");
+        JFactReasonerConfiguration plainConfig = new JFactReasonerConfiguration();
+        JFactReasoner plain = reasoner(o, plainConfig);
+        plain.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        JFactReasonerConfiguration config = tuning();
+        JFactReasoner tuned = reasoner(o, config);
+        tuned.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        assertTrue(tuned.getMetrics().getCounter("nStrategyCandidates") > 1);
+        assertEquals(0, tuned.getMetrics().getCounter("nStrategyProfilesLoaded"));
+        File[] stored = directory.listFiles((d, name) -> name.endsWith(".jfp"));
+        assertTrue(stored != null && stored.length == 1);
+        // the tuned profile is kept by the reasoner: the configuration is not changed
+        assertEquals(plainConfig.getORSortSub(), config.getORSortSub());
+        assertEquals(plainConfig.getuseSemanticBranching(), config.getuseSemanticBranching());
+        JFactReasoner reloaded = reasoner(o, tuning());
+        reloaded.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+        // the profile was read from the file: no candidate was tried
+        assertEquals(1, reloaded.getMetrics().getCounter("nStrategyProfilesLoaded"));
+        assertEquals(0, reloaded.getMetrics().getCounter("nStrategyCandidates"));
+        o.classesInSignature().forEach(c -> {
+            assertEquals(plain.getSuperClasses(c, true), tuned.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(plain.getEquivalentClasses(c), tuned.getEquivalentClasses(c),
+                c.toString());
+            assertEquals(plain.getSuperClasses(c, true), reloaded.getSuperClasses(c, true),
+                c.toString());
+            assertEquals(plain.getEquivalentClasses(c), reloaded.getEquivalentClasses(c),
+                c.toString());
+        });
+        plain.dispose();
+        tuned.dispose();
+        reloaded.dispose();
+    }
+}